@@ -15,13 +15,121 @@ limitations under the License.
 */
 package oughttoprevail.asyncnetwork;
 
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+
+import oughttoprevail.asyncnetwork.client.ClientSocket;
 import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 
-public class ClientSocketManager extends SocketManager
+public abstract class ClientSocketManager extends SocketManager
 {
 	public ClientSocketManager(Socket socket, PooledByteBuffer readByteBuffer)
 	{
 		super(socket, readByteBuffer);
 	}
 	
+	public abstract boolean callWrite();
+	
+	/**
+	 * {@link SelectionKey} of the owning {@link ClientSocket}.
+	 * This is used for the {@link ClientSocket} to know
+	 * how to ask the selector to notify itself when writing: It is done by using
+	 * {@link SelectionKey#interestOps(int)}.
+	 */
+	private volatile SelectionKey selectionKey;
+	
+	/**
+	 * Sets the {@link SelectionKey} of {@code selectionKey} to the specified {@code selectionKey}.
+	 *
+	 * @param selectionKey the value that {@code selectionKey} will be set to
+	 */
+	public void setSelectionKey(SelectionKey selectionKey)
+	{
+		this.selectionKey = selectionKey;
+	}
+	
+	/**
+	 * Returns the socket's selection key or null if it was never set.
+	 *
+	 * @return the socket's selection key or null if it was never set
+	 */
+	public SelectionKey getSelectionKey()
+	{
+		return selectionKey;
+	}
+	
+	/**
+	 * The interest the {@link #selectionKey} should have once the selector isn't calling the socket, guarded by this.
+	 */
+	private int interestOps = SelectionKey.OP_READ;
+	/**
+	 * Whether the selector is calling the socket's read and write operations, guarded by this.
+	 * While it is the {@link #selectionKey} has no interest so the socket is never called by two threads at once
+	 * and it's reads stay in order.
+	 */
+	private boolean calling;
+	
+	/**
+	 * Sets the interest of the {@link #selectionKey} to the specified ops, if the selector is calling the socket
+	 * the interest is set once the call has finished.
+	 * If the socket has yet to be registered then the selector will continue writing once it has.
+	 *
+	 * @param ops the interest to set
+	 */
+	public synchronized void interestOps(int ops)
+	{
+		interestOps = ops;
+		if(!calling)
+		{
+			setInterestOps(ops, true);
+		}
+	}
+	
+	/**
+	 * Invoked by the selector thread before the socket is called, removes the interest of the {@link #selectionKey}
+	 * until {@link #finishCall()}.
+	 */
+	public synchronized void startCall()
+	{
+		calling = true;
+		setInterestOps(0, false);
+	}
+	
+	/**
+	 * Invoked once the socket has been called, restores the interest of the {@link #selectionKey}.
+	 */
+	public synchronized void finishCall()
+	{
+		calling = false;
+		setInterestOps(interestOps, true);
+	}
+	
+	/**
+	 * Sets the interest of the {@link #selectionKey} to the specified ops.
+	 *
+	 * @param ops the interest to set
+	 * @param wakeup whether to wake up the selector so it will notice the new interest
+	 */
+	private void setInterestOps(int ops, boolean wakeup)
+	{
+		SelectionKey selectionKey = this.selectionKey;
+		if(selectionKey == null)
+		{
+			return;
+		}
+		try
+		{
+			if(selectionKey.interestOps() != ops)
+			{
+				selectionKey.interestOps(ops);
+				if(wakeup)
+				{
+					selectionKey.selector().wakeup();
+				}
+			}
+		} catch(CancelledKeyException ignored)
+		{
+			//the socket has closed
+		}
+	}
 }
\ No newline at end of file
@@ -20,21 +20,32 @@ import java.nio.ByteBuffer;
 import java.nio.channels.NotYetBoundException;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import oughttoprevail.asyncnetwork.client.ClientSocket;
 import oughttoprevail.asyncnetwork.exceptions.SocketClosedException;
+import oughttoprevail.asyncnetwork.packet.StringTable;
 import oughttoprevail.asyncnetwork.packet.read.OpcodePacketBuilder;
 import oughttoprevail.asyncnetwork.packet.read.ReadablePacket;
+import oughttoprevail.asyncnetwork.packet.write.PacketEncoder;
+import oughttoprevail.asyncnetwork.packet.write.PacketOutput;
+import oughttoprevail.asyncnetwork.packet.write.WritablePacketBuilder;
 import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 import oughttoprevail.asyncnetwork.server.ServerSocket;
 import oughttoprevail.asyncnetwork.util.Consumer;
 import oughttoprevail.asyncnetwork.util.DisconnectionType;
+import oughttoprevail.asyncnetwork.util.EventLoop;
+import oughttoprevail.asyncnetwork.util.IdleState;
 import oughttoprevail.asyncnetwork.util.Predicate;
 import oughttoprevail.asyncnetwork.util.Util;
 import oughttoprevail.asyncnetwork.util.Validator;
 import oughttoprevail.asyncnetwork.util.reader.Reader;
+import oughttoprevail.asyncnetwork.util.timer.HashedWheelTimer;
+import oughttoprevail.asyncnetwork.util.timer.IdleTimeout;
+import oughttoprevail.asyncnetwork.util.timer.Timeout;
 import oughttoprevail.asyncnetwork.util.writer.Writer;
 
 public abstract class Socket
@@ -67,7 +78,14 @@ public abstract class Socket
 	
 	protected ClientSocketManager createClientManager()
 	{
-		return new ClientSocketManager(this, pooledReadBuffer);
+		return new ClientSocketManager(this, pooledReadBuffer)
+		{
+			@Override
+			public boolean callWrite()
+			{
+				return writer.continueWriting();
+			}
+		};
 	}
 	
 	protected ServerClientManager createServerClientManager(ServerSocket server)
@@ -100,29 +118,47 @@ public abstract class Socket
 		{
 			return;
 		}
+		PacketEncoder encoder;
+		PooledByteBuffer pooledReadBuffer;
 		synchronized(closed)
 		{
-			if(closed.compareAndSet(null, disconnectionType))
+			if(!closed.compareAndSet(null, disconnectionType))
 			{
-				try
-				{
-					getSocketChannel().close();
-					pooledReadBuffer.close();
-					//remove all variables for memory and to make sure none get invoked after the socket has closed
-					pooledReadBuffer = null;
-					readBuffer = null;
-					onException.clear();
-					onBufferOverflow.clear();
-					for(Consumer<DisconnectionType> disconnectConsumer : onDisconnect)
-					{
-						disconnectConsumer.accept(disconnectionType);
-					}
-				} catch(IOException e)
+				return;
+			}
+			//encode won't create an encoder once closed is set
+			encoder = this.encoder;
+			pooledReadBuffer = this.pooledReadBuffer;
+			try
+			{
+				getSocketChannel().close();
+				writer.close();
+				cancelIdleTimeouts();
+				cancelReadTimeouts();
+				//remove all variables for memory and to make sure none get invoked after the socket has closed
+				this.pooledReadBuffer = null;
+				readBuffer = null;
+				onException.clear();
+				onBufferOverflow.clear();
+				for(Consumer<DisconnectionType> disconnectConsumer : onDisconnect)
 				{
-					manager().exception(e);
+					disconnectConsumer.accept(disconnectionType);
 				}
+			} catch(IOException e)
+			{
+				manager().exception(e);
 			}
 		}
+		//closed outside of the closed monitor since an encoding thread holds the encoder's monitor while writing,
+		//which may take the closed monitor
+		if(encoder != null)
+		{
+			encoder.close();
+		}
+		//also outside of the closed monitor since a worker holds the reader's monitor while reading into the readBuffer,
+		//which may take the closed monitor, the buffer is given back once no read is in progress
+		reader.close();
+		pooledReadBuffer.close();
 	}
 	
 	void exception(Throwable throwable)
@@ -144,6 +180,20 @@ public abstract class Socket
 		}
 	}
 	
+	void idle(IdleState idleState)
+	{
+		if(onIdle.isEmpty())
+		{
+			manager().close(DisconnectionType.IDLE_TIMEOUT);
+		} else
+		{
+			for(Consumer<IdleState> idleConsumer : onIdle)
+			{
+				idleConsumer.accept(idleState);
+			}
+		}
+	}
+	
 	void callRead()
 	{
 		reader.read(this);
@@ -218,16 +268,66 @@ public abstract class Socket
 	 * @throws SocketClosedException throws {@link SocketClosedException} if the socket is closed
 	 */
 	public void write(ByteBuffer byteBuffer, Consumer<ByteBuffer> onWriteFinished)
+	{
+		write(byteBuffer, null, onWriteFinished);
+	}
+	
+	/**
+	 * Writes the specified buffer to this socket's {@link SocketChannel} and once
+	 * the write has finished the specified onWriteFinished is invoked with the specified {@link ByteBuffer}.
+	 * The specified byteBuffer belongs to the specified owner, if the write can't finish immediately the owner
+	 * is retained until it has so the owner may be closed before the write has finished.
+	 *
+	 * @param byteBuffer to write to socket
+	 * @param owner the {@link PooledByteBuffer} the specified byteBuffer belongs to or {@code null} if it isn't pooled
+	 * @param onWriteFinished the runnable that will be called when write operation has successfully
+	 * finished (nullable) NOTE: onWriteFinished should be set to null when using
+	 * {@link ClientSocket} to prevent {@link StackOverflowError}
+	 * @throws SocketClosedException throws {@link SocketClosedException} if the socket is closed
+	 */
+	public void write(ByteBuffer byteBuffer, PooledByteBuffer owner, Consumer<ByteBuffer> onWriteFinished)
 	{
 		ensureCanWrite();
 		int bytes = byteBuffer.position();
 		if(bytes != 0)
 		{
 			byteBuffer.flip();
-			writer.write(this, byteBuffer, onWriteFinished);
+			writer.write(this, byteBuffer, owner, onWriteFinished);
 		}
 	}
 	
+	/**
+	 * The {@link PacketEncoder} of {@link #encode(Consumer)}, created on the first encode.
+	 */
+	private PacketEncoder encoder;
+	
+	/**
+	 * Invokes the specified consumer with a {@link PacketOutput} which encodes a packet straight into this socket's
+	 * outbound buffer and then writes the packet.
+	 * Packets encoded to the same socket share a pooled buffer so unlike {@link WritablePacketBuilder#build()}
+	 * encoding a packet doesn't take a buffer from the pool.
+	 * The builder may only be used inside the specified consumer and the consumer mustn't encode another packet
+	 * to this socket.
+	 *
+	 * @param consumer which puts the elements of the packet
+	 * @throws SocketClosedException throws {@link SocketClosedException} if the socket is closed
+	 */
+	public void encode(Consumer<PacketOutput> consumer)
+	{
+		Validator.requireNonNull(consumer, "Consumer");
+		PacketEncoder encoder;
+		synchronized(closed)
+		{
+			ensureNotClosed();
+			encoder = this.encoder;
+			if(encoder == null)
+			{
+				this.encoder = encoder = new PacketEncoder(this);
+			}
+		}
+		encoder.encode(consumer);
+	}
+	
 	private void ensureCanRead(Consumer consumer)
 	{
 		Validator.requireNonNull(consumer, "Consumer");
@@ -274,6 +374,86 @@ public abstract class Socket
 		this.always = always;
 	}
 	
+	/**
+	 * Invokes the specified consumer with the socket's read {@link ByteBuffer} when {@link
+	 * ByteBuffer#remaining()} returns the specified length.
+	 * If the read hasn't finished within the specified timeout the socket is closed with
+	 * {@link DisconnectionType#READ_TIMEOUT}.
+	 *
+	 * @param consumer the consumer that will be called with the socket's read {@link ByteBuffer}
+	 * when {@link ByteBuffer#remaining()} returns the specified length
+	 * @param length the amount of bytes that will be received
+	 * @param timeout the maximum time the read may take
+	 * @param unit the unit of the specified timeout
+	 * @throws SocketClosedException throws {@link SocketClosedException} if the socket is closed
+	 */
+	public void readByteBuffer(Consumer<ByteBuffer> consumer, int length, long timeout, TimeUnit unit)
+	{
+		ensureCanRead(consumer);
+		Timeout readTimeout = readTimeout(timeout, unit);
+		readByteBuffer(byteBuffer ->
+		{
+			readTimeout.cancel();
+			consumer.accept(byteBuffer);
+		}, length);
+	}
+	
+	/**
+	 * Schedules a read deadline, unless the returned {@link Timeout} is cancelled before the specified timeout
+	 * has passed the socket is closed with {@link DisconnectionType#READ_TIMEOUT}.
+	 *
+	 * @param timeout the maximum time the read may take
+	 * @param unit the unit of the specified timeout
+	 * @return the {@link Timeout} which should be cancelled once the read has finished
+	 */
+	public Timeout readTimeout(long timeout, TimeUnit unit)
+	{
+		Timeout readTimeout = schedule(() -> manager().close(DisconnectionType.READ_TIMEOUT), timeout, unit);
+		synchronized(readTimeouts)
+		{
+			if(readTimeoutsCancelled)
+			{
+				readTimeout.cancel();
+				return readTimeout;
+			}
+			//forget read deadlines which have already finished
+			Iterator<Timeout> iterator = readTimeouts.iterator();
+			while(iterator.hasNext())
+			{
+				Timeout next = iterator.next();
+				if(next.isCancelled() || next.isExpired())
+				{
+					iterator.remove();
+				}
+			}
+			readTimeouts.add(readTimeout);
+		}
+		return readTimeout;
+	}
+	
+	/**
+	 * Read deadlines scheduled by {@link #readTimeout(long, TimeUnit)} which may still be pending,
+	 * they are cancelled once this socket closes so the timer won't keep referencing this socket.
+	 */
+	private final List<Timeout> readTimeouts = new ArrayList<>();
+	/**
+	 * Whether {@link #readTimeouts} have been cancelled because this socket has closed.
+	 */
+	private boolean readTimeoutsCancelled;
+	
+	private void cancelReadTimeouts()
+	{
+		synchronized(readTimeouts)
+		{
+			readTimeoutsCancelled = true;
+			for(Timeout readTimeout : readTimeouts)
+			{
+				readTimeout.cancel();
+			}
+			readTimeouts.clear();
+		}
+	}
+	
 	/**
 	 * Invokes the specified predicate with the socket's read {@link ByteBuffer} when {@link
 	 * ByteBuffer#remaining()} returns the specified length until the specified predicate
@@ -350,6 +530,76 @@ public abstract class Socket
 		manager().close(DisconnectionType.USER_CLOSE);
 	}
 	
+	private final List<Consumer<IdleState>> onIdle = new ArrayList<>();
+	
+	/**
+	 * Invokes the specified consumer with the {@link IdleState} when the socket has been idle
+	 * for longer than the time set by {@link #setIdleTimeout(long, long, long, TimeUnit)}.
+	 * If there are no idle consumers an idle socket is closed with {@link DisconnectionType#IDLE_TIMEOUT}.
+	 *
+	 * @param onIdle the consumer that will be called with the {@link IdleState} when the socket is idle
+	 */
+	public void onIdle(Consumer<IdleState> onIdle)
+	{
+		Validator.requireNonNull(onIdle, "onIdle");
+		this.onIdle.add(onIdle);
+	}
+	
+	private IdleTimeout readerIdleTimeout;
+	private IdleTimeout writerIdleTimeout;
+	private IdleTimeout allIdleTimeout;
+	
+	/**
+	 * Sets the idle timeouts of this socket, a socket is idle once nothing has been read (reader idle),
+	 * no write has finished (writer idle) or neither (all idle) for the specified time.
+	 * Previously set idle timeouts are replaced.
+	 *
+	 * @param readerIdleTime the reader idle time, {@code 0} to disable
+	 * @param writerIdleTime the writer idle time, {@code 0} to disable
+	 * @param allIdleTime the all idle time, {@code 0} to disable
+	 * @param unit the unit of the specified times
+	 * @see #onIdle(Consumer)
+	 */
+	public void setIdleTimeout(long readerIdleTime, long writerIdleTime, long allIdleTime, TimeUnit unit)
+	{
+		Validator.requireNonNull(unit, "Unit");
+		synchronized(onIdle)
+		{
+			cancelIdleTimeouts();
+			readerIdleTimeout = startIdleTimeout(IdleState.READER_IDLE, unit.toNanos(readerIdleTime));
+			writerIdleTimeout = startIdleTimeout(IdleState.WRITER_IDLE, unit.toNanos(writerIdleTime));
+			allIdleTimeout = startIdleTimeout(IdleState.ALL_IDLE, unit.toNanos(allIdleTime));
+		}
+	}
+	
+	private IdleTimeout startIdleTimeout(IdleState idleState, long idleTime)
+	{
+		if(idleTime <= 0)
+		{
+			return null;
+		}
+		IdleTimeout idleTimeout = new IdleTimeout(this, idleState, idleTime);
+		idleTimeout.start();
+		return idleTimeout;
+	}
+	
+	private void cancelIdleTimeouts()
+	{
+		synchronized(onIdle)
+		{
+			for(IdleTimeout idleTimeout : new IdleTimeout[]{readerIdleTimeout, writerIdleTimeout, allIdleTimeout})
+			{
+				if(idleTimeout != null)
+				{
+					idleTimeout.cancel();
+				}
+			}
+			readerIdleTimeout = null;
+			writerIdleTimeout = null;
+			allIdleTimeout = null;
+		}
+	}
+	
 	private final List<Consumer<Throwable>> onException = new ArrayList<>();
 	
 	/**
@@ -424,9 +674,106 @@ public abstract class Socket
 		}
 	}
 	
+	private final Object stringTablesLock = new Object();
+	private StringTable inboundStringTable;
+	private StringTable outboundStringTable;
+	
+	/**
+	 * Creates this socket's inbound and outbound {@link StringTable}s with the specified capacity.
+	 * The remote peer must enable it's string tables with the same capacity.
+	 *
+	 * @param capacity the maximum amount of strings in each table
+	 */
+	public void enableStringTables(int capacity)
+	{
+		synchronized(stringTablesLock)
+		{
+			inboundStringTable = new StringTable(capacity);
+			outboundStringTable = new StringTable(capacity);
+		}
+	}
+	
+	/**
+	 * Returns the {@link StringTable} used to read strings sent by the remote peer.
+	 *
+	 * @return the {@link StringTable} used to read strings sent by the remote peer
+	 * @throws IllegalStateException if {@link #enableStringTables(int)} has yet to be called
+	 */
+	public StringTable getInboundStringTable()
+	{
+		synchronized(stringTablesLock)
+		{
+			if(inboundStringTable == null)
+			{
+				throw new IllegalStateException("String tables are not enabled!");
+			}
+			return inboundStringTable;
+		}
+	}
+	
+	/**
+	 * Returns the {@link StringTable} used to write strings to the remote peer.
+	 *
+	 * @return the {@link StringTable} used to write strings to the remote peer
+	 * @throws IllegalStateException if {@link #enableStringTables(int)} has yet to be called
+	 */
+	public StringTable getOutboundStringTable()
+	{
+		synchronized(stringTablesLock)
+		{
+			if(outboundStringTable == null)
+			{
+				throw new IllegalStateException("String tables are not enabled!");
+			}
+			return outboundStringTable;
+		}
+	}
+	
+	/**
+	 * Schedules the specified task to run on this socket's loop once the specified delay has passed.
+	 *
+	 * @param task to run
+	 * @param delay the delay before running the task
+	 * @param unit the unit of the specified delay
+	 * @return the {@link Timeout} of the specified task which can be used to cancel it
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit)
+	{
+		return eventLoop().schedule(task, delay, unit);
+	}
+	
+	/**
+	 * Returns the round trip time in nanoseconds measured by the last answered
+	 * {@link oughttoprevail.asyncnetwork.packet.Heartbeat} ping or {@code -1} if none has been answered.
+	 *
+	 * @return the round trip time in nanoseconds or {@code -1} if it has yet to be measured
+	 */
+	public long getRoundTripTime()
+	{
+		return manager().getRoundTripTime();
+	}
+	
 	public abstract boolean isConnected();
 	
 	public abstract SocketChannel getSocketChannel();
 	
 	public abstract SocketManager manager();
+	
+	/**
+	 * Returns the {@link HashedWheelTimer} of the loop this socket belongs to.
+	 *
+	 * @return the {@link HashedWheelTimer} of the loop this socket belongs to
+	 */
+	public HashedWheelTimer getTimer()
+	{
+		return eventLoop().getTimer();
+	}
+	
+	/**
+	 * Returns the {@link EventLoop} this socket belongs to, tasks executed or scheduled with it
+	 * are run by the thread of the socket's selector loop.
+	 *
+	 * @return the {@link EventLoop} this socket belongs to
+	 */
+	public abstract EventLoop eventLoop();
 }
\ No newline at end of file
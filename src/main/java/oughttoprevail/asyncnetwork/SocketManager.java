@@ -23,12 +23,29 @@ import java.nio.channels.SocketChannel;
 import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 import oughttoprevail.asyncnetwork.util.Consumer;
 import oughttoprevail.asyncnetwork.util.DisconnectionType;
+import oughttoprevail.asyncnetwork.util.IdleState;
 import oughttoprevail.asyncnetwork.util.OS;
 
 public class SocketManager
 {
 	private final Socket socket;
 	private final PooledByteBuffer readByteBuffer;
+	/**
+	 * The {@link System#nanoTime()} of the last read.
+	 */
+	private volatile long lastReadTime = System.nanoTime();
+	/**
+	 * The {@link System#nanoTime()} of the last finished write.
+	 */
+	private volatile long lastWriteTime = lastReadTime;
+	/**
+	 * The {@link System#nanoTime()} of the pending heartbeat ping or {@code 0} if there is none.
+	 */
+	private volatile long pingTime;
+	/**
+	 * The round trip time in nanoseconds of the last answered heartbeat ping or {@code -1} if none has been answered.
+	 */
+	private volatile long roundTripTime = -1;
 	
 	public SocketManager(Socket socket, PooledByteBuffer readByteBuffer)
 	{
@@ -108,8 +125,90 @@ public class SocketManager
 		socket.callRead();
 	}
 	
+	/**
+	 * Invokes the socket's {@link Socket#onIdle(Consumer)} consumers with the specified idleState
+	 * or closes the socket with {@link DisconnectionType#IDLE_TIMEOUT} if there are none.
+	 *
+	 * @param idleState the idle state that the socket's {@link Socket#onIdle(Consumer)} consumers will be called with
+	 */
+	public void idle(IdleState idleState)
+	{
+		socket.idle(idleState);
+	}
+	
+	/**
+	 * Sets the last read time to now.
+	 */
+	public void updateReadTime()
+	{
+		lastReadTime = System.nanoTime();
+	}
+	
+	/**
+	 * Returns the {@link System#nanoTime()} of the last read.
+	 *
+	 * @return the {@link System#nanoTime()} of the last read
+	 */
+	public long getLastReadTime()
+	{
+		return lastReadTime;
+	}
+	
+	/**
+	 * Returns the {@link System#nanoTime()} of the last finished write.
+	 *
+	 * @return the {@link System#nanoTime()} of the last finished write
+	 */
+	public long getLastWriteTime()
+	{
+		return lastWriteTime;
+	}
+	
+	/**
+	 * Marks a heartbeat ping as sent now.
+	 */
+	public void ping()
+	{
+		pingTime = System.nanoTime();
+	}
+	
+	/**
+	 * Finishes the pending heartbeat ping and updates the round trip time.
+	 * If there is no pending ping this does nothing.
+	 */
+	public void pong()
+	{
+		long pingTime = this.pingTime;
+		if(pingTime != 0)
+		{
+			roundTripTime = System.nanoTime() - pingTime;
+			this.pingTime = 0;
+		}
+	}
+	
+	/**
+	 * Returns the {@link System#nanoTime()} of the pending heartbeat ping or {@code 0} if there is none.
+	 *
+	 * @return the {@link System#nanoTime()} of the pending heartbeat ping or {@code 0} if there is none
+	 */
+	public long getPingTime()
+	{
+		return pingTime;
+	}
+	
+	/**
+	 * Returns the round trip time in nanoseconds of the last answered heartbeat ping or {@code -1} if none has been answered.
+	 *
+	 * @return the round trip time in nanoseconds of the last answered heartbeat ping or {@code -1} if none has been answered
+	 */
+	public long getRoundTripTime()
+	{
+		return roundTripTime;
+	}
+	
 	public void finishWrite(Consumer<ByteBuffer> onWriteFinished, ByteBuffer writeBuffer)
 	{
+		lastWriteTime = System.nanoTime();
 		if(socket.isClearAfterWrite())
 		{
 			writeBuffer.clear();
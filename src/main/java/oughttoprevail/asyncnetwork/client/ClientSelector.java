@@ -0,0 +1,489 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.client;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import oughttoprevail.asyncnetwork.util.EventLoop;
+import oughttoprevail.asyncnetwork.util.ThreadCreator;
+import oughttoprevail.asyncnetwork.util.Validator;
+
+/**
+ * A {@link Selector} shared by all {@link ClientSocket}s, it finishes non-blocking connections
+ * using {@link SelectionKey#OP_CONNECT} readiness and then reads and writes using
+ * {@link SelectionKey#OP_READ} and {@link SelectionKey#OP_WRITE} readiness.
+ * The reads and writes of a ready client are called on a worker thread so a slow client doesn't hold up the others.
+ * The selector thread only exists while there are registered clients, connections in progress or pending tasks.
+ */
+class ClientSelector
+{
+	/**
+	 * Static INSTANCE of this {@link ClientSelector}.
+	 */
+	private static final ClientSelector INSTANCE = new ClientSelector();
+	
+	/**
+	 * Returns a static instance of this {@link ClientSelector}.
+	 *
+	 * @return a static instance of this {@link ClientSelector}
+	 */
+	static ClientSelector getInstance()
+	{
+		return INSTANCE;
+	}
+	
+	/**
+	 * The name used when creating the client selector {@link Thread}.
+	 */
+	private static final String CLIENT_SELECTOR_THREAD_NAME = "ClientSelector";
+	/**
+	 * The name used when creating the threads which call the read and write operations of clients.
+	 */
+	private static final String CLIENT_WORKER_THREAD_NAME = "ClientSelectorWorker";
+	
+	/**
+	 * Connections which have yet to be registered to the {@link #selector}.
+	 * Registration is done by the selector thread since {@link SocketChannel#register(Selector, int)}
+	 * blocks while the selector is selecting.
+	 */
+	private final Queue<PendingConnect> pendingConnects = new ConcurrentLinkedQueue<>();
+	/**
+	 * Connected clients which have yet to be registered to the {@link #selector}.
+	 */
+	private final Queue<ClientSocket> pendingClients = new ConcurrentLinkedQueue<>();
+	/**
+	 * Connections registered to the {@link #selector} which have yet to finish.
+	 * This is only accessed by the selector thread.
+	 */
+	private final List<PendingConnect> connecting = new ArrayList<>();
+	/**
+	 * The {@link ExecutorService} which calls the read and write operations of ready clients.
+	 * A client's operations may block (for example waiting for a reply on another client) so the pool grows instead
+	 * of having a fixed amount of threads, and the selector thread never waits for them.
+	 */
+	private final ExecutorService executorService = Executors.newCachedThreadPool(runnable ->
+	{
+		Thread thread = new Thread(runnable, CLIENT_WORKER_THREAD_NAME);
+		thread.setDaemon(true);
+		return thread;
+	});
+	/**
+	 * The {@link EventLoop} driven by the selector loop.
+	 */
+	private final EventLoop eventLoop = new EventLoop(Throwable::printStackTrace);
+	/**
+	 * The {@link Selector} used for waiting on readiness, it is opened once and reused.
+	 */
+	private Selector selector;
+	/**
+	 * Whether the selector thread is currently running.
+	 */
+	private boolean running;
+	
+	private ClientSelector()
+	{
+		eventLoop.setWakeup(() ->
+		{
+			try
+			{
+				start();
+			} catch(IOException e)
+			{
+				e.printStackTrace();
+			}
+		});
+	}
+	
+	/**
+	 * Returns the {@link EventLoop} driven by the selector loop.
+	 * Executing or scheduling a task starts the selector thread if it isn't running.
+	 *
+	 * @return the {@link EventLoop} driven by the selector loop
+	 */
+	EventLoop eventLoop()
+	{
+		return eventLoop;
+	}
+	
+	/**
+	 * Starts connecting the specified client to the specified address without blocking the calling thread.
+	 * Once the connection has finished (or failed) the client is notified from the selector thread.
+	 *
+	 * @param client which is connecting
+	 * @param address the address that the client will connect to
+	 * @param timeout in milliseconds, if the connection doesn't finish within this timeout
+	 * the connection fails, if {@code 0} or less there is no timeout
+	 * @throws IOException if the selector failed to open
+	 */
+	void connect(ClientSocket client, SocketAddress address, int timeout) throws IOException
+	{
+		SocketChannel socketChannel = client.getSocketChannel();
+		socketChannel.configureBlocking(false);
+		if(socketChannel.connect(address))
+		{
+			register(client);
+			client.connectFinished();
+			return;
+		}
+		long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+		pendingConnects.offer(new PendingConnect(client, deadline));
+		start();
+	}
+	
+	/**
+	 * Registers the specified connected client to this selector for reading and writing.
+	 *
+	 * @param client to register
+	 * @throws IOException if the client's channel failed to become non-blocking or the selector failed to open
+	 */
+	void register(ClientSocket client) throws IOException
+	{
+		client.getSocketChannel().configureBlocking(false);
+		pendingClients.offer(client);
+		start();
+	}
+	
+	/**
+	 * Wakes up the selector thread if it's running so it will notice closed clients.
+	 */
+	void wakeup()
+	{
+		synchronized(this)
+		{
+			if(running)
+			{
+				selector.wakeup();
+			}
+		}
+	}
+	
+	/**
+	 * Starts the selector thread if it isn't running else wakes it up so it will notice new work.
+	 *
+	 * @throws IOException if the selector failed to open
+	 */
+	private void start() throws IOException
+	{
+		synchronized(this)
+		{
+			if(selector == null)
+			{
+				selector = Selector.open();
+			}
+			if(running)
+			{
+				selector.wakeup();
+			} else
+			{
+				running = true;
+				ThreadCreator.newThread(CLIENT_SELECTOR_THREAD_NAME, this::loop);
+			}
+		}
+	}
+	
+	/**
+	 * The selector loop, runs until there are no more registered clients, connections in progress or pending tasks.
+	 */
+	private void loop()
+	{
+		while(!shouldStop())
+		{
+			try
+			{
+				register();
+				int timeout = eventLoop.nextTimeout((int) nextTimeout());
+				if(timeout == -1)
+				{
+					selector.select();
+				} else if(timeout == 0)
+				{
+					selector.selectNow();
+				} else
+				{
+					selector.select(timeout);
+				}
+				eventLoop.runTasks();
+				Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+				while(iterator.hasNext())
+				{
+					SelectionKey key = iterator.next();
+					iterator.remove();
+					if(!key.isValid())
+					{
+						continue;
+					}
+					if(key.isConnectable())
+					{
+						finishConnect((PendingConnect) key.attachment(), key);
+					} else
+					{
+						dispatch(key);
+					}
+				}
+				expire();
+			} catch(IOException e)
+			{
+				//the selector itself has failed, fail every connection in progress
+				for(PendingConnect pendingConnect : connecting)
+				{
+					ClientSocket client = pendingConnect.client;
+					callback(client, () -> client.connectFailed(e));
+				}
+				connecting.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Calls the read and write operations of the client attached to the specified key using the
+	 * {@link #executorService}.
+	 * The key has no interest until the call has finished, so the selector doesn't wait for a slow client
+	 * and a client is never called by two threads at once.
+	 *
+	 * @param key which is ready for reading or writing
+	 */
+	private void dispatch(SelectionKey key)
+	{
+		ClientSocket client = (ClientSocket) key.attachment();
+		int readyOps = key.readyOps();
+		client.manager().startCall();
+		executorService.execute(() ->
+		{
+			try
+			{
+				call(key, client, readyOps);
+			} finally
+			{
+				client.manager().finishCall();
+			}
+		});
+	}
+	
+	/**
+	 * Invokes the read and write operations of the specified client.
+	 *
+	 * @param key of the specified client
+	 * @param client which is ready for reading or writing
+	 * @param readyOps the ready operations of the specified key
+	 */
+	private static void call(SelectionKey key, ClientSocket client, int readyOps)
+	{
+		if(client.isClosed())
+		{
+			return;
+		}
+		try
+		{
+			if((readyOps & SelectionKey.OP_READ) != 0)
+			{
+				client.manager().callRead();
+			}
+			if(key.isValid() && (readyOps & SelectionKey.OP_WRITE) != 0)
+			{
+				client.manager().callWrite();
+			}
+		} catch(CancelledKeyException ignored)
+		{
+			//the client has closed
+		} catch(Throwable e)
+		{
+			client.manager().exception(e);
+		}
+	}
+	
+	/**
+	 * Invokes the specified callback of the specified client, a throwable thrown by the callback is passed to the
+	 * client's exception handlers so it won't stop the selector thread.
+	 *
+	 * @param client whose callback is invoked
+	 * @param callback which invokes the client's listeners
+	 */
+	private static void callback(ClientSocket client, Runnable callback)
+	{
+		try
+		{
+			callback.run();
+		} catch(Throwable e)
+		{
+			client.manager().exception(e);
+		}
+	}
+	
+	/**
+	 * Returns whether the selector loop should stop, if it should then {@link #running} is set to {@code false}.
+	 *
+	 * @return whether the selector loop should stop
+	 */
+	private boolean shouldStop()
+	{
+		synchronized(this)
+		{
+			if(pendingConnects.isEmpty() && pendingClients.isEmpty() && selector.keys().isEmpty() && !eventLoop.hasTasks())
+			{
+				running = false;
+				return true;
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * Registers all {@link #pendingConnects} and {@link #pendingClients} to the {@link #selector}.
+	 */
+	private void register()
+	{
+		PendingConnect pendingConnect;
+		while((pendingConnect = pendingConnects.poll()) != null)
+		{
+			ClientSocket client = pendingConnect.client;
+			try
+			{
+				pendingConnect.key = client.getSocketChannel().register(selector, SelectionKey.OP_CONNECT, pendingConnect);
+				connecting.add(pendingConnect);
+			} catch(IOException e)
+			{
+				callback(client, () -> client.connectFailed(e));
+			}
+		}
+		ClientSocket client;
+		while((client = pendingClients.poll()) != null)
+		{
+			if(client.isClosed())
+			{
+				continue;
+			}
+			try
+			{
+				SelectionKey key = client.getSocketChannel().register(selector, SelectionKey.OP_READ, client);
+				client.manager().setSelectionKey(key);
+				//continue any write which didn't finish before the key existed
+				client.manager().callWrite();
+			} catch(IOException e)
+			{
+				Validator.exceptionClose(client, e);
+			} catch(Throwable e)
+			{
+				client.manager().exception(e);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the amount of milliseconds until the nearest connection deadline or -1 if there is no deadline.
+	 *
+	 * @return the amount of milliseconds until the nearest connection deadline or -1 if there is no deadline
+	 */
+	private long nextTimeout()
+	{
+		long nearest = -1;
+		long now = System.nanoTime();
+		for(PendingConnect pendingConnect : connecting)
+		{
+			if(pendingConnect.deadline != 0)
+			{
+				long remaining = Math.max(1, TimeUnit.NANOSECONDS.toMillis(pendingConnect.deadline - now) + 1);
+				if(nearest == -1 || remaining < nearest)
+				{
+					nearest = remaining;
+				}
+			}
+		}
+		return nearest;
+	}
+	
+	/**
+	 * Finishes the connection of the specified pendingConnect, once finished the same key is used for reading and writing.
+	 *
+	 * @param pendingConnect which is ready to finish connecting
+	 * @param key of the specified pendingConnect
+	 */
+	private void finishConnect(PendingConnect pendingConnect, SelectionKey key)
+	{
+		ClientSocket client = pendingConnect.client;
+		try
+		{
+			if(client.getSocketChannel().finishConnect())
+			{
+				connecting.remove(pendingConnect);
+				key.attach(client);
+				key.interestOps(SelectionKey.OP_READ);
+				client.manager().setSelectionKey(key);
+				callback(client, client::connectFinished);
+			}
+		} catch(IOException e)
+		{
+			connecting.remove(pendingConnect);
+			key.cancel();
+			callback(client, () -> client.connectFailed(e));
+		}
+	}
+	
+	/**
+	 * Fails every connection that has passed it's deadline or has been closed.
+	 */
+	private void expire()
+	{
+		long now = System.nanoTime();
+		Iterator<PendingConnect> iterator = connecting.iterator();
+		while(iterator.hasNext())
+		{
+			PendingConnect pendingConnect = iterator.next();
+			ClientSocket client = pendingConnect.client;
+			if(!pendingConnect.key.isValid())
+			{
+				//the client has been closed while connecting
+				iterator.remove();
+				callback(client, () -> client.connectFailed(new AsynchronousCloseException()));
+			} else if(pendingConnect.deadline != 0 && now - pendingConnect.deadline >= 0)
+			{
+				iterator.remove();
+				pendingConnect.key.cancel();
+				callback(client, () -> client.connectFailed(new SocketTimeoutException("Connection timed out")));
+			}
+		}
+	}
+	
+	private static class PendingConnect
+	{
+		private final ClientSocket client;
+		/**
+		 * The {@link System#nanoTime()} in which this connection fails or {@code 0} if there is no deadline.
+		 */
+		private final long deadline;
+		private SelectionKey key;
+		
+		private PendingConnect(ClientSocket client, long deadline)
+		{
+			this.client = client;
+			this.deadline = deadline;
+		}
+	}
+}
\ No newline at end of file
@@ -26,8 +26,8 @@ import java.util.List;
 import oughttoprevail.asyncnetwork.ClientSocketManager;
 import oughttoprevail.asyncnetwork.Socket;
 import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.EventLoop;
 import oughttoprevail.asyncnetwork.util.ExceptionThrower;
-import oughttoprevail.asyncnetwork.util.ThreadCreator;
 import oughttoprevail.asyncnetwork.util.Validator;
 import oughttoprevail.asyncnetwork.util.reader.Reader;
 import oughttoprevail.asyncnetwork.util.writer.Writer;
@@ -36,7 +36,8 @@ import oughttoprevail.asyncnetwork.util.writer.client.ClientWriter;
 public class ClientSocket extends Socket
 {
 	/***
-	 * The {@link SocketChannel} used by this {@link ClientSocket}, this will be a blocking {@link SocketChannel}.
+	 * The {@link SocketChannel} used by this {@link ClientSocket}, this will be a blocking {@link SocketChannel}
+	 * until it is connected, once connected it is a non-blocking {@link SocketChannel} registered to a shared selector.
 	 */
 	private final SocketChannel socketChannel;
 	/**
@@ -71,6 +72,8 @@ public class ClientSocket extends Socket
 			socketChannel.configureBlocking(true);
 			manager = createClientManager();
 			manager.init();
+			//wake the shared selector so it will notice the closed channel
+			onDisconnect(disconnectionType -> ClientSelector.getInstance().wakeup());
 		} catch(IOException e)
 		{
 			ExceptionThrower.throwException(e);
@@ -84,11 +87,6 @@ public class ClientSocket extends Socket
 	private boolean connected;
 	private int connectionTimeout = -1;
 	
-	/**
-	 * The name used when creating the client {@link Thread}.
-	 */
-	private static final String CLIENT_THREAD_NAME = "Client-Thread";
-	
 	/**
 	 * Connects to the specified address.
 	 *
@@ -106,29 +104,107 @@ public class ClientSocket extends Socket
 			{
 				socketChannel.socket().connect(address, connectionTimeout);
 			}
+			ClientSelector.getInstance().register(this);
 		} catch(IOException e)
 		{
-			for(Consumer<IOException> consumer : onConnectionFailure)
-			{
-				consumer.accept(e);
-			}
-			Validator.exceptionClose(this, e);
+			connectFailed(e);
 			return;
 		}
-		ThreadCreator.newThread(CLIENT_THREAD_NAME, () ->
+		connected = true;
+		callOnConnect();
+	}
+	
+	/**
+	 * Connects to the specified address without blocking the calling thread.
+	 * The connection is finished by a shared selector using {@link java.nio.channels.SelectionKey#OP_CONNECT},
+	 * once it has finished {@link #onConnect(Runnable)} runnables are invoked from the selector thread
+	 * and if it fails or doesn't finish within the timeout set by {@link #setConnectionTimeout(int)}
+	 * {@link #onConnectionFailure(Consumer)} consumers are invoked.
+	 *
+	 * @param address the address that the socket will connect to
+	 * @throws java.nio.channels.AlreadyConnectedException if the socket is already connected
+	 */
+	public void connectAsync(SocketAddress address)
+	{
+		Validator.requireNonNull(address, "Address");
+		try
 		{
-			while(!isClosed())
-			{
-				manager().callRead();
-			}
-		});
+			ClientSelector.getInstance().connect(this, address, connectionTimeout);
+		} catch(IOException e)
+		{
+			connectFailed(e);
+		}
+	}
+	
+	/**
+	 * Connects to the specified host and port without blocking the calling thread.
+	 *
+	 * @param host the host that the socket will connect to
+	 * @param port the port that the socket will connect to
+	 * @throws java.nio.channels.AlreadyConnectedException if the socket is already connected
+	 * @see #connectAsync(SocketAddress)
+	 */
+	public void connectAsync(String host, int port)
+	{
+		Validator.requireNonNull(host, "Host");
+		Validator.validatePort(port);
+		connectAsync(new InetSocketAddress(host, port));
+	}
+	
+	/**
+	 * Connects to the specified port with {@link Socket#LOCAL_ADDRESS} as the host without blocking the calling thread.
+	 *
+	 * @param port the port that the socket will connect to
+	 * @throws java.nio.channels.AlreadyConnectedException if the socket is already connected
+	 * @see #connectAsync(SocketAddress)
+	 */
+	public void connectLocalHostAsync(int port)
+	{
+		Validator.validatePort(port);
+		connectAsync(LOCAL_ADDRESS, port);
+	}
+	
+	/**
+	 * Invoked once a non-blocking connection made by {@link #connectAsync(SocketAddress)} has finished.
+	 */
+	void connectFinished()
+	{
 		connected = true;
-		for(Runnable connectRunnable : onConnect)
+		callOnConnect();
+	}
+	
+	/**
+	 * Invoked once a connection has failed, invokes {@link #onConnectionFailure} and closes the socket if it isn't
+	 * already closed.
+	 *
+	 * @param e the reason the connection has failed
+	 */
+	void connectFailed(IOException e)
+	{
+		for(Consumer<IOException> consumer : onConnectionFailure)
 		{
-			connectRunnable.run();
+			consumer.accept(e);
+		}
+		if(!isClosed())
+		{
+			Validator.exceptionClose(this, e);
+		}
+	}
+	
+	/**
+	 * Invokes all {@link #onConnect} runnables.
+	 */
+	private void callOnConnect()
+	{
+		synchronized(onConnect)
+		{
+			for(Runnable connectRunnable : onConnect)
+			{
+				connectRunnable.run();
+			}
+			//clear since no more than one connection can occur per client.
+			onConnect.clear();
 		}
-		//clear since no more than one connection can occur per client.
-		onConnect.clear();
 	}
 	
 	/**
@@ -170,13 +246,15 @@ public class ClientSocket extends Socket
 	 */
 	public void onConnect(Runnable onConnect)
 	{
-		if(isConnected())
-		{
-			Validator.runRunnable(onConnect);
-		} else
+		synchronized(this.onConnect)
 		{
-			this.onConnect.add(onConnect);
+			if(!isConnected())
+			{
+				this.onConnect.add(onConnect);
+				return;
+			}
 		}
+		Validator.runRunnable(onConnect);
 	}
 	
 	/**
@@ -238,4 +316,15 @@ public class ClientSocket extends Socket
 	{
 		return manager;
 	}
+	
+	/**
+	 * Returns the {@link EventLoop} of the shared client selector loop.
+	 *
+	 * @return the {@link EventLoop} of the shared client selector loop
+	 */
+	@Override
+	public EventLoop eventLoop()
+	{
+		return ClientSelector.getInstance().eventLoop();
+	}
 }
\ No newline at end of file
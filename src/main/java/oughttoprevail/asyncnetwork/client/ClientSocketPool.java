@@ -0,0 +1,537 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.client;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.Validator;
+
+/**
+ * A pool of {@link ClientSocket}s keyed by the remote address they are connected to.
+ * Each remote address has a bounded amount of connections, {@link #acquire(SocketAddress, Consumer, Consumer)}
+ * returns the connection with the least in-flight requests and only opens new connections when every
+ * existing connection is busy.
+ * Connections are started after the pool's lock is released so callbacks of a connection which finishes
+ * immediately aren't invoked while holding it.
+ * Connections which disconnect are evicted from the pool.
+ */
+public class ClientSocketPool
+{
+	/**
+	 * Default maximum connections per remote address.
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS = 8;
+	
+	/**
+	 * The bufferSize used when creating a new {@link ClientSocket}.
+	 */
+	private final int bufferSize;
+	/**
+	 * The maximum amount of connections per remote address.
+	 */
+	private final int maxConnections;
+	/**
+	 * The connection timeout used when creating a new {@link ClientSocket}, -1 if there is no timeout.
+	 */
+	private int connectionTimeout = -1;
+	/**
+	 * The pools of each remote address.
+	 */
+	private final Map<SocketAddress, EndpointPool> pools = new HashMap<>();
+	/**
+	 * The pooled clients of every {@link ClientSocket} in this pool.
+	 */
+	private final Map<ClientSocket, PooledClient> clients = new IdentityHashMap<>();
+	/**
+	 * Whether this pool has closed.
+	 */
+	private boolean closed;
+	
+	/**
+	 * Constructs a new {@link ClientSocketPool} and uses {@link Socket#DEFAULT_BUFFER_SIZE} as the bufferSize
+	 * and {@link #DEFAULT_MAX_CONNECTIONS} as the maximum connections per remote address.
+	 */
+	public ClientSocketPool()
+	{
+		this(Socket.DEFAULT_BUFFER_SIZE, DEFAULT_MAX_CONNECTIONS);
+	}
+	
+	/**
+	 * Constructs a new {@link ClientSocketPool}.
+	 *
+	 * @param bufferSize used when creating a new {@link ClientSocket}
+	 * @param maxConnections the maximum amount of connections per remote address
+	 */
+	public ClientSocketPool(int bufferSize, int maxConnections)
+	{
+		Validator.higherThan0(bufferSize, "Buffer size");
+		Validator.higherThan0(maxConnections, "Max connections");
+		this.bufferSize = bufferSize;
+		this.maxConnections = maxConnections;
+	}
+	
+	/**
+	 * Sets the timeout in milliseconds for new connections to the specified timeout.
+	 *
+	 * @param timeout to set in milliseconds, must be higher or equal to zero
+	 */
+	public void setConnectionTimeout(int timeout)
+	{
+		if(timeout < 0)
+		{
+			throw new IllegalArgumentException("Timeout must be higher or equal to zero!");
+		}
+		this.connectionTimeout = timeout;
+	}
+	
+	/**
+	 * Acquires a connected {@link ClientSocket} to the specified address.
+	 * The connection with the least in-flight requests is chosen, if every connection is busy and the pool of the
+	 * specified address isn't full a new connection is opened for each waiting acquire which isn't covered by a
+	 * connection in progress.
+	 * Every acquire must be followed by {@link #release(ClientSocket)} once the request has finished.
+	 *
+	 * @param address the address to acquire a connection to
+	 * @param onAcquire invoked with the connection once one is available
+	 * @param onFailure invoked if no connection could be established (nullable)
+	 */
+	public void acquire(SocketAddress address, Consumer<ClientSocket> onAcquire, Consumer<IOException> onFailure)
+	{
+		Validator.requireNonNull(address, "Address");
+		Validator.requireNonNull(onAcquire, "onAcquire");
+		EndpointPool pool = pool(address);
+		ClientSocket acquired;
+		List<PooledClient> opened;
+		synchronized(pool)
+		{
+			PooledClient leastInFlight = pool.leastInFlight();
+			int free = maxConnections - pool.clients.size();
+			if(leastInFlight != null && (leastInFlight.inFlight == 0 || free <= 0))
+			{
+				leastInFlight.inFlight++;
+				acquired = leastInFlight.client;
+				opened = null;
+			} else
+			{
+				pool.waiters.offer(new Waiter(onAcquire, onFailure));
+				acquired = null;
+				opened = open(pool, Math.min(pool.waiters.size() - pool.connecting, free));
+			}
+		}
+		if(acquired == null)
+		{
+			connect(opened);
+			return;
+		}
+		onAcquire.accept(acquired);
+	}
+	
+	/**
+	 * Acquires a connected {@link ClientSocket} to the specified host and port.
+	 *
+	 * @param host the host to acquire a connection to
+	 * @param port the port to acquire a connection to
+	 * @param onAcquire invoked with the connection once one is available
+	 * @param onFailure invoked if no connection could be established (nullable)
+	 * @see #acquire(SocketAddress, Consumer, Consumer)
+	 */
+	public void acquire(String host, int port, Consumer<ClientSocket> onAcquire, Consumer<IOException> onFailure)
+	{
+		Validator.requireNonNull(host, "Host");
+		Validator.validatePort(port);
+		acquire(new InetSocketAddress(host, port), onAcquire, onFailure);
+	}
+	
+	/**
+	 * Releases the specified client acquired by {@link #acquire(SocketAddress, Consumer, Consumer)},
+	 * this marks one of the client's in-flight requests as finished.
+	 *
+	 * @param client to release
+	 */
+	public void release(ClientSocket client)
+	{
+		PooledClient pooledClient;
+		synchronized(clients)
+		{
+			pooledClient = clients.get(client);
+		}
+		if(pooledClient == null)
+		{
+			return;
+		}
+		synchronized(pooledClient.pool)
+		{
+			if(pooledClient.inFlight > 0)
+			{
+				pooledClient.inFlight--;
+			}
+		}
+	}
+	
+	/**
+	 * Opens connections to the specified address until the specified amount of connections
+	 * (no more than the maximum connections) exist, so later acquires don't have to wait for a connection.
+	 *
+	 * @param address the address to open connections to
+	 * @param connections the amount of connections that should exist
+	 */
+	public void prewarm(SocketAddress address, int connections)
+	{
+		Validator.requireNonNull(address, "Address");
+		EndpointPool pool = pool(address);
+		List<PooledClient> opened;
+		synchronized(pool)
+		{
+			opened = open(pool, Math.min(connections, maxConnections) - pool.clients.size());
+		}
+		connect(opened);
+	}
+	
+	/**
+	 * Returns the amount of connections (including connections in progress) to the specified address.
+	 *
+	 * @param address the address of the connections
+	 * @return the amount of connections to the specified address
+	 */
+	public int size(SocketAddress address)
+	{
+		EndpointPool pool;
+		synchronized(pools)
+		{
+			pool = pools.get(address);
+		}
+		if(pool == null)
+		{
+			return 0;
+		}
+		synchronized(pool)
+		{
+			return pool.clients.size();
+		}
+	}
+	
+	/**
+	 * Closes every connection in this pool, later acquires will fail.
+	 */
+	public void close()
+	{
+		List<EndpointPool> closedPools;
+		List<ClientSocket> toClose;
+		synchronized(pools)
+		{
+			closed = true;
+			closedPools = new ArrayList<>(pools.values());
+			pools.clear();
+		}
+		List<Waiter> failed = new ArrayList<>();
+		for(EndpointPool pool : closedPools)
+		{
+			synchronized(pool)
+			{
+				failed.addAll(pool.waiters);
+				pool.waiters.clear();
+			}
+		}
+		synchronized(clients)
+		{
+			toClose = new ArrayList<>(clients.keySet());
+			clients.clear();
+		}
+		for(ClientSocket client : toClose)
+		{
+			client.close();
+		}
+		fail(failed, new ClosedChannelException());
+	}
+	
+	/**
+	 * Returns the pool of the specified address.
+	 *
+	 * @param address of the pool
+	 * @return the pool of the specified address
+	 */
+	private EndpointPool pool(SocketAddress address)
+	{
+		synchronized(pools)
+		{
+			if(closed)
+			{
+				throw new IllegalStateException("ClientSocketPool is closed!");
+			}
+			EndpointPool pool = pools.get(address);
+			if(pool == null)
+			{
+				pool = new EndpointPool(address);
+				pools.put(address, pool);
+			}
+			return pool;
+		}
+	}
+	
+	/**
+	 * Adds the specified amount of new connections to the specified pool, must be invoked while holding the pool's lock.
+	 * The connections must be started by {@link #connect(List)} once the pool's lock has been released.
+	 *
+	 * @param pool which the new connections belong to
+	 * @param connections the amount of connections to add, nothing is added if it isn't positive
+	 * @return the added connections
+	 */
+	private List<PooledClient> open(EndpointPool pool, int connections)
+	{
+		List<PooledClient> opened = new ArrayList<>();
+		for(int i = 0; i < connections; i++)
+		{
+			ClientSocket client = new ClientSocket(bufferSize);
+			PooledClient pooledClient = new PooledClient(pool, client);
+			pool.clients.add(pooledClient);
+			pool.connecting++;
+			synchronized(clients)
+			{
+				clients.put(client, pooledClient);
+			}
+			if(connectionTimeout != -1)
+			{
+				client.setConnectionTimeout(connectionTimeout);
+			}
+			client.onConnect(() -> connected(pooledClient));
+			client.onConnectionFailure(e -> connectionFailed(pooledClient, e));
+			client.onDisconnect(disconnectionType -> evict(pooledClient));
+			opened.add(pooledClient);
+		}
+		return opened;
+	}
+	
+	/**
+	 * Starts the connections of the specified pooledClients added by {@link #open(EndpointPool, int)},
+	 * must be invoked without holding the pool's lock.
+	 *
+	 * @param pooledClients to connect
+	 */
+	private static void connect(List<PooledClient> pooledClients)
+	{
+		for(PooledClient pooledClient : pooledClients)
+		{
+			pooledClient.client.connectAsync(pooledClient.pool.address);
+		}
+	}
+	
+	/**
+	 * Invoked once the specified pooledClient has connected, hands the connection to waiting acquires.
+	 *
+	 * @param pooledClient that has connected
+	 */
+	private void connected(PooledClient pooledClient)
+	{
+		EndpointPool pool = pooledClient.pool;
+		List<Waiter> ready;
+		synchronized(pool)
+		{
+			if(!pooledClient.connecting)
+			{
+				//closed before the connection has finished
+				return;
+			}
+			pooledClient.connecting = false;
+			pool.connecting--;
+			pooledClient.connected = true;
+			ready = pool.assignWaiters();
+		}
+		for(Waiter waiter : ready)
+		{
+			waiter.onAcquire.accept(waiter.client);
+		}
+	}
+	
+	/**
+	 * Invoked once the specified pooledClient has failed to connect or has closed while connecting,
+	 * fails waiting acquires if there are no other connections which can take them.
+	 *
+	 * @param pooledClient that failed to connect
+	 * @param e the reason the connection failed
+	 */
+	private void connectionFailed(PooledClient pooledClient, IOException e)
+	{
+		EndpointPool pool = pooledClient.pool;
+		List<Waiter> ready;
+		List<Waiter> failed = new ArrayList<>();
+		synchronized(pool)
+		{
+			pool.clients.remove(pooledClient);
+			if(!pooledClient.connecting)
+			{
+				//already handled
+				return;
+			}
+			pooledClient.connecting = false;
+			pool.connecting--;
+			//waiters can still be served by existing connections, else they fail once no connection is in progress
+			ready = pool.assignWaiters();
+			if(pool.connecting == 0)
+			{
+				failed.addAll(pool.waiters);
+				pool.waiters.clear();
+			}
+		}
+		for(Waiter waiter : ready)
+		{
+			waiter.onAcquire.accept(waiter.client);
+		}
+		fail(failed, e);
+	}
+	
+	/**
+	 * Invokes the onFailure of every specified waiter with the specified exception.
+	 *
+	 * @param waiters to fail
+	 * @param e the reason the waiters have failed
+	 */
+	private static void fail(List<Waiter> waiters, IOException e)
+	{
+		for(Waiter waiter : waiters)
+		{
+			if(waiter.onFailure != null)
+			{
+				waiter.onFailure.accept(e);
+			}
+		}
+	}
+	
+	/**
+	 * Removes the specified pooledClient from the pool because it has disconnected.
+	 *
+	 * @param pooledClient that has disconnected
+	 */
+	private void evict(PooledClient pooledClient)
+	{
+		synchronized(clients)
+		{
+			clients.remove(pooledClient.client);
+		}
+		EndpointPool pool = pooledClient.pool;
+		boolean connecting;
+		synchronized(pool)
+		{
+			pool.clients.remove(pooledClient);
+			connecting = pooledClient.connecting;
+		}
+		if(connecting)
+		{
+			//closed before the connection has finished, the connection won't finish so waiters must be handled
+			connectionFailed(pooledClient, new AsynchronousCloseException());
+		}
+	}
+	
+	private static class EndpointPool
+	{
+		private final SocketAddress address;
+		private final List<PooledClient> clients = new ArrayList<>();
+		private final Queue<Waiter> waiters = new ArrayDeque<>();
+		/**
+		 * The amount of connections in progress.
+		 */
+		private int connecting;
+		
+		private EndpointPool(SocketAddress address)
+		{
+			this.address = address;
+		}
+		
+		/**
+		 * Returns the connected client with the least in-flight requests or {@code null} if there is no connected client.
+		 *
+		 * @return the connected client with the least in-flight requests or {@code null} if there is no connected client
+		 */
+		private PooledClient leastInFlight()
+		{
+			PooledClient leastInFlight = null;
+			for(PooledClient pooledClient : clients)
+			{
+				if(pooledClient.connected && !pooledClient.client.isClosed() &&
+				   (leastInFlight == null || pooledClient.inFlight < leastInFlight.inFlight))
+				{
+					leastInFlight = pooledClient;
+				}
+			}
+			return leastInFlight;
+		}
+		
+		/**
+		 * Assigns every waiter to the connected client with the least in-flight requests.
+		 *
+		 * @return the assigned waiters or an empty list if there is no connected client
+		 */
+		private List<Waiter> assignWaiters()
+		{
+			List<Waiter> ready = new ArrayList<>();
+			PooledClient leastInFlight;
+			while(!waiters.isEmpty() && (leastInFlight = leastInFlight()) != null)
+			{
+				Waiter waiter = waiters.poll();
+				leastInFlight.inFlight++;
+				waiter.client = leastInFlight.client;
+				ready.add(waiter);
+			}
+			return ready;
+		}
+	}
+	
+	private static class PooledClient
+	{
+		private final EndpointPool pool;
+		private final ClientSocket client;
+		/**
+		 * Whether the connection is still in progress and counted by {@link EndpointPool#connecting}.
+		 */
+		private boolean connecting = true;
+		private boolean connected;
+		private int inFlight;
+		
+		private PooledClient(EndpointPool pool, ClientSocket client)
+		{
+			this.pool = pool;
+			this.client = client;
+		}
+	}
+	
+	private static class Waiter
+	{
+		private final Consumer<ClientSocket> onAcquire;
+		private final Consumer<IOException> onFailure;
+		/**
+		 * The client this waiter has been assigned to.
+		 */
+		private ClientSocket client;
+		
+		private Waiter(Consumer<ClientSocket> onAcquire, Consumer<IOException> onFailure)
+		{
+			this.onAcquire = onAcquire;
+			this.onFailure = onFailure;
+		}
+	}
+}
\ No newline at end of file
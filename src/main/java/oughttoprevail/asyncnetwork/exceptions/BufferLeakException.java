@@ -0,0 +1,36 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.exceptions;
+
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
+
+/**
+ * Reported when a {@link PooledByteBuffer} has been garbage collected without being released,
+ * the stack trace of this exception is where the buffer was created.
+ */
+public class BufferLeakException extends RuntimeException
+{
+	/**
+	 * Constructs an {@link BufferLeakException} which is reported when a {@link PooledByteBuffer} of the
+	 * specified size has been garbage collected without being released.
+	 *
+	 * @param size of the leaked buffer
+	 */
+	public BufferLeakException(int size)
+	{
+		super("A PooledByteBuffer of " + size + " bytes was garbage collected without being released, it was created at:");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,235 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet;
+
+import java.util.concurrent.TimeUnit;
+
+import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.SocketManager;
+import oughttoprevail.asyncnetwork.packet.read.OpcodePacketBuilder;
+import oughttoprevail.asyncnetwork.packet.read.PassedNumber;
+import oughttoprevail.asyncnetwork.packet.read.ReadablePacket;
+import oughttoprevail.asyncnetwork.packet.write.WritablePacket;
+import oughttoprevail.asyncnetwork.packet.write.WritablePacketBuilder;
+import oughttoprevail.asyncnetwork.util.DisconnectionType;
+import oughttoprevail.asyncnetwork.util.Util;
+import oughttoprevail.asyncnetwork.util.Validator;
+import oughttoprevail.asyncnetwork.util.timer.Timeout;
+
+/**
+ * A ping/pong keepalive on top of an {@link OpcodePacketBuilder} protocol.
+ * The ping and pong packets are encoded once and shared by all sockets, a socket is only pinged once
+ * nothing has been read from it for the interval and is closed with {@link DisconnectionType#HEARTBEAT_TIMEOUT}
+ * if the pong doesn't arrive within the timeout.
+ * Every pong updates the socket's {@link Socket#getRoundTripTime()}.
+ * <p>
+ * Both sides must {@link #register(OpcodePacketBuilder)} the heartbeat, only the side which checks liveness
+ * (usually the server) has to {@link #start(Socket)} it.
+ */
+public class Heartbeat
+{
+	/**
+	 * Default interval in milliseconds.
+	 */
+	public static final long DEFAULT_INTERVAL = 15000;
+	/**
+	 * Default timeout in milliseconds.
+	 */
+	public static final long DEFAULT_TIMEOUT = 10000;
+	
+	private final int pingOpcode;
+	private final int pongOpcode;
+	private final WritablePacket ping;
+	private final WritablePacket pong;
+	/**
+	 * The interval in nanoseconds.
+	 */
+	private final long interval;
+	/**
+	 * The timeout in nanoseconds.
+	 */
+	private final long timeout;
+	
+	/**
+	 * Constructs a new {@link Heartbeat} with {@link #DEFAULT_INTERVAL} and {@link #DEFAULT_TIMEOUT}.
+	 *
+	 * @param passedNumber the {@link PassedNumber} of the {@link OpcodePacketBuilder} this heartbeat is registered to
+	 * @param pingOpcode the opcode of the ping packet
+	 * @param pongOpcode the opcode of the pong packet
+	 */
+	public Heartbeat(PassedNumber passedNumber, int pingOpcode, int pongOpcode)
+	{
+		this(passedNumber, pingOpcode, pongOpcode, DEFAULT_INTERVAL, DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Constructs a new {@link Heartbeat}.
+	 *
+	 * @param passedNumber the {@link PassedNumber} of the {@link OpcodePacketBuilder} this heartbeat is registered to
+	 * @param pingOpcode the opcode of the ping packet
+	 * @param pongOpcode the opcode of the pong packet
+	 * @param interval how long a socket must be quiet before it's pinged
+	 * @param timeout how long to wait for a pong before closing the socket
+	 * @param unit the unit of the specified interval and timeout
+	 */
+	public Heartbeat(PassedNumber passedNumber, int pingOpcode, int pongOpcode, long interval, long timeout, TimeUnit unit)
+	{
+		Validator.requireNonNull(passedNumber, "PassedNumber");
+		Validator.requireNonNull(unit, "Unit");
+		if(interval <= 0 || timeout <= 0)
+		{
+			throw new IllegalArgumentException("Interval and timeout must be larger than 0!");
+		}
+		this.pingOpcode = pingOpcode;
+		this.pongOpcode = pongOpcode;
+		this.ping = opcodePacket(passedNumber, pingOpcode);
+		this.pong = opcodePacket(passedNumber, pongOpcode);
+		this.interval = unit.toNanos(interval);
+		this.timeout = unit.toNanos(timeout);
+	}
+	
+	/**
+	 * Returns an immutable packet containing only the specified opcode, so it can be written to every socket
+	 * without retaining a pooled buffer.
+	 *
+	 * @param passedNumber the {@link PassedNumber} of the specified opcode
+	 * @param opcode to encode
+	 * @return an immutable packet containing only the specified opcode
+	 */
+	private static WritablePacket opcodePacket(PassedNumber passedNumber, int opcode)
+	{
+		WritablePacketBuilder builder = WritablePacketBuilder.create();
+		if(passedNumber == PassedNumber.VARINT)
+		{
+			return WritablePacket.immutable(builder.putVarInt(opcode));
+		}
+		switch(passedNumber.getSize())
+		{
+			case Util.BYTE_BYTES:
+			{
+				builder.putByte(opcode);
+				break;
+			}
+			case Util.SHORT_BYTES:
+			{
+				builder.putShort((short) opcode);
+				break;
+			}
+			default:
+			{
+				builder.putInt(opcode);
+				break;
+			}
+		}
+		return WritablePacket.immutable(builder);
+	}
+	
+	/**
+	 * Registers the ping and pong packets to the specified builder.
+	 * A received ping is answered with a pong and a received pong finishes the socket's pending ping.
+	 *
+	 * @param builder to register the ping and pong packets to
+	 * @param <E> the permission enum of the specified builder
+	 * @return the specified builder
+	 */
+	public <E extends Enum<E>> OpcodePacketBuilder<E> register(OpcodePacketBuilder<E> builder)
+	{
+		Validator.requireNonNull(builder, "Builder");
+		builder.register(pingOpcode, ReadablePacket.EMPTY, readResult -> pong.write(readResult.socket()));
+		builder.register(pongOpcode, ReadablePacket.EMPTY, readResult -> readResult.socket().manager().pong());
+		return builder;
+	}
+	
+	/**
+	 * Starts checking the liveness of the specified socket until it has closed.
+	 *
+	 * @param socket to check
+	 */
+	public void start(Socket socket)
+	{
+		Validator.requireNonNull(socket, "Socket");
+		HeartbeatTimeout heartbeatTimeout = new HeartbeatTimeout(socket);
+		heartbeatTimeout.schedule(interval);
+		socket.onDisconnect(disconnectionType -> heartbeatTimeout.cancel());
+	}
+	
+	/**
+	 * Re-armed by itself for as long as the socket is open.
+	 */
+	private class HeartbeatTimeout implements Runnable
+	{
+		private final Socket socket;
+		private volatile Timeout scheduled;
+		private volatile boolean cancelled;
+		
+		private HeartbeatTimeout(Socket socket)
+		{
+			this.socket = socket;
+		}
+		
+		@Override
+		public void run()
+		{
+			if(cancelled || socket.isClosed())
+			{
+				return;
+			}
+			SocketManager manager = socket.manager();
+			long now = System.nanoTime();
+			long pingTime = manager.getPingTime();
+			if(pingTime != 0)
+			{
+				long remaining = timeout - (now - pingTime);
+				if(remaining <= 0)
+				{
+					manager.close(DisconnectionType.HEARTBEAT_TIMEOUT);
+				} else
+				{
+					schedule(remaining);
+				}
+				return;
+			}
+			long remaining = interval - (now - manager.getLastReadTime());
+			if(remaining > 0)
+			{
+				schedule(remaining);
+				return;
+			}
+			manager.ping();
+			ping.write(socket);
+			schedule(timeout);
+		}
+		
+		private void schedule(long delay)
+		{
+			scheduled = socket.schedule(this, delay, TimeUnit.NANOSECONDS);
+			if(cancelled)
+			{
+				scheduled.cancel();
+			}
+		}
+		
+		private void cancel()
+		{
+			cancelled = true;
+			Timeout scheduled = this.scheduled;
+			if(scheduled != null)
+			{
+				scheduled.cancel();
+			}
+		}
+	}
+}
\ No newline at end of file
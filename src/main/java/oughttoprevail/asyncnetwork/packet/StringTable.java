@@ -0,0 +1,332 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded dictionary of strings for a single direction of a connection.
+ * Once a string has been sent in full it is assigned an id and any later occurrence is sent as that id instead.
+ * Both peers keep a table of the same capacity and apply the same operations in the same order, so when the table is
+ * full both evict the least recently used string and reuse it's id for the new string without having to tell each other.
+ * <p>
+ * Strings are written with {@link oughttoprevail.asyncnetwork.packet.write.WritablePacketBuilder#putTableString(StringTable, String)}
+ * and read with {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aTableString()}.
+ * Since the tables are synchronized by order, packets using the outbound table must be written in the same order
+ * they were built in, for example by building them in {@link oughttoprevail.asyncnetwork.Socket#encode(oughttoprevail.asyncnetwork.util.Consumer)}.
+ * A builder which is discarded before it has been built (or encoded) rolls back it's operations using {@link #mark()}
+ * and {@link #rollback(int)}, but a packet which has been built has changed the table for good so if it is never
+ * written the tables are out of sync and the connection must be closed.
+ */
+public class StringTable
+{
+	/**
+	 * The id sent in place of a string which isn't in the table yet, the string itself follows it.
+	 */
+	public static final int NEW_STRING = 0;
+	/**
+	 * Used in place of an id by {@link #older} and {@link #newer} when there is no such string.
+	 */
+	private static final int NONE = -1;
+	
+	/**
+	 * The strings in this table by their id.
+	 */
+	private final String[] strings;
+	/**
+	 * The ids of the strings in this table.
+	 */
+	private final Map<String, Integer> ids;
+	/**
+	 * The id of the string used right before the string with the index id, the strings are linked from least to most
+	 * recently used.
+	 */
+	private final int[] older;
+	/**
+	 * The id of the string used right after the string with the index id.
+	 */
+	private final int[] newer;
+	private int oldest = NONE;
+	private int newest = NONE;
+	/**
+	 * The operations since the first {@link #mark()} which has yet to be committed or rolled back.
+	 */
+	private final List<Operation> journal = new ArrayList<>();
+	/**
+	 * The amount of marks which have yet to be committed or rolled back, operations are only journaled while there are.
+	 */
+	private int marks;
+	
+	public StringTable(int capacity)
+	{
+		if(capacity <= 0)
+		{
+			throw new IllegalArgumentException("Capacity must be larger than 0!");
+		}
+		this.strings = new String[capacity];
+		this.ids = new HashMap<>(capacity * 4 / 3 + 1);
+		this.older = new int[capacity];
+		this.newer = new int[capacity];
+	}
+	
+	/**
+	 * Returns the id of the specified string marking it as the most recently used string or adds it to this table
+	 * and returns {@link #NEW_STRING} if it isn't in this table.
+	 * The returned id is offset by {@code 1} so it never conflicts with {@link #NEW_STRING}.
+	 *
+	 * @param s the string to look up
+	 * @return the id of the specified string or {@link #NEW_STRING} if it has been added
+	 */
+	public synchronized int lookup(String s)
+	{
+		Integer id = ids.get(s);
+		if(id == null)
+		{
+			add(s);
+			return NEW_STRING;
+		}
+		use(id);
+		return id + 1;
+	}
+	
+	/**
+	 * Returns the string with the specified id marking it as the most recently used string.
+	 *
+	 * @param id the id returned by {@link #lookup(String)}
+	 * @return the string with the specified id
+	 * @throws IllegalArgumentException if there is no string with the specified id
+	 */
+	public synchronized String get(int id)
+	{
+		String s = id > 0 && id <= strings.length ? strings[id - 1] : null;
+		if(s == null)
+		{
+			throw new IllegalArgumentException("Unknown string id " + id + "!");
+		}
+		use(id - 1);
+		return s;
+	}
+	
+	/**
+	 * Adds the specified string to this table, if this table is full the least recently used string is evicted and
+	 * it's id is given to the specified string.
+	 *
+	 * @param s the string to add
+	 */
+	public synchronized void add(String s)
+	{
+		int id = ids.size();
+		String evicted = null;
+		if(id == strings.length)
+		{
+			id = oldest;
+			evicted = strings[id];
+			ids.remove(evicted);
+			unlink(id);
+		}
+		strings[id] = s;
+		ids.put(s, id);
+		link(id, newest);
+		if(marks != 0)
+		{
+			journal.add(new Operation(id, true, evicted, NONE));
+		}
+	}
+	
+	/**
+	 * Marks the string with the specified id as the most recently used string.
+	 *
+	 * @param id of the string
+	 */
+	private void use(int id)
+	{
+		if(id == newest)
+		{
+			return;
+		}
+		if(marks != 0)
+		{
+			journal.add(new Operation(id, false, null, older[id]));
+		}
+		unlink(id);
+		link(id, newest);
+	}
+	
+	/**
+	 * Links the specified id right after the specified after id.
+	 *
+	 * @param id to link
+	 * @param after the id to link after or {@link #NONE} to link the specified id as the least recently used
+	 */
+	private void link(int id, int after)
+	{
+		int next = after == NONE ? oldest : newer[after];
+		older[id] = after;
+		newer[id] = next;
+		if(after == NONE)
+		{
+			oldest = id;
+		} else
+		{
+			newer[after] = id;
+		}
+		if(next == NONE)
+		{
+			newest = id;
+		} else
+		{
+			older[next] = id;
+		}
+	}
+	
+	/**
+	 * Unlinks the specified id from the order of use.
+	 *
+	 * @param id to unlink
+	 */
+	private void unlink(int id)
+	{
+		int before = older[id];
+		int after = newer[id];
+		if(before == NONE)
+		{
+			oldest = after;
+		} else
+		{
+			newer[before] = after;
+		}
+		if(after == NONE)
+		{
+			newest = before;
+		} else
+		{
+			older[after] = before;
+		}
+	}
+	
+	/**
+	 * Marks the current state of this table so the operations after it can be rolled back,
+	 * every mark must be followed by either {@link #commit(int)} or {@link #rollback(int)}.
+	 * Rolling back undoes every operation since the mark, so packets using the same table must be built one at a time.
+	 *
+	 * @return the mark to pass to {@link #commit(int)} or {@link #rollback(int)}
+	 */
+	public synchronized int mark()
+	{
+		marks++;
+		return journal.size();
+	}
+	
+	/**
+	 * Keeps the operations since the specified mark.
+	 *
+	 * @param mark returned by {@link #mark()}
+	 */
+	public synchronized void commit(int mark)
+	{
+		if(--marks == 0)
+		{
+			journal.clear();
+		}
+	}
+	
+	/**
+	 * Undoes the operations since the specified mark, restoring the ids and the order of use they have changed.
+	 *
+	 * @param mark returned by {@link #mark()}
+	 */
+	public synchronized void rollback(int mark)
+	{
+		for(int i = journal.size() - 1; i >= mark; i--)
+		{
+			Operation operation = journal.remove(i);
+			int id = operation.id;
+			unlink(id);
+			if(operation.added)
+			{
+				ids.remove(strings[id]);
+				strings[id] = operation.evicted;
+				if(operation.evicted != null)
+				{
+					ids.put(operation.evicted, id);
+					//the evicted string was the least recently used string
+					link(id, NONE);
+				}
+			} else
+			{
+				link(id, operation.older);
+			}
+		}
+		if(--marks == 0)
+		{
+			journal.clear();
+		}
+	}
+	
+	/**
+	 * Returns the amount of strings in this table.
+	 *
+	 * @return the amount of strings in this table
+	 */
+	public synchronized int size()
+	{
+		return ids.size();
+	}
+	
+	/**
+	 * Returns the maximum amount of strings in this table.
+	 *
+	 * @return the maximum amount of strings in this table
+	 */
+	public int getCapacity()
+	{
+		return strings.length;
+	}
+	
+	/**
+	 * An operation which may be rolled back.
+	 */
+	private static class Operation
+	{
+		/**
+		 * The id of the string which has been added or used.
+		 */
+		private final int id;
+		/**
+		 * Whether the string has been added, else it has been used.
+		 */
+		private final boolean added;
+		/**
+		 * The string an add has evicted or {@code null} if it hasn't evicted any.
+		 */
+		private final String evicted;
+		/**
+		 * The id of the string used right before the used string or {@link #NONE} if it was the least recently used.
+		 */
+		private final int older;
+		
+		private Operation(int id, boolean added, String evicted, int older)
+		{
+			this.id = id;
+			this.added = added;
+			this.evicted = evicted;
+			this.older = older;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.read;
+
+import oughttoprevail.asyncnetwork.packet.Deserializer;
+import oughttoprevail.asyncnetwork.util.BiConsumer;
+
+/**
+ * Deserializes a primitive array with the length the specified {@link PassedNumber} returns.
+ */
+class ArrayDeserializer implements Deserializer<Object>
+{
+	private static final String PASSED_NUMBER_SECTION = "ArrayDeserializer_PassedNumber";
+	
+	private final PassedNumber passedNumber;
+	/**
+	 * Adds the instruction reading the array with the given length.
+	 */
+	private final BiConsumer<ReadablePacketBuilder, Integer> arrayInstruction;
+	
+	ArrayDeserializer(PassedNumber passedNumber, BiConsumer<ReadablePacketBuilder, Integer> arrayInstruction)
+	{
+		this.passedNumber = passedNumber;
+		this.arrayInstruction = arrayInstruction;
+	}
+	
+	@Override
+	public void prepareDeserialization(ReadablePacketBuilder builder)
+	{
+		builder.section(PASSED_NUMBER_SECTION).aObject(passedNumber).endSection().dependent((builder1, readResult) ->
+		{
+			Number value = readResult.peekLast();
+			arrayInstruction.accept(builder1, value.intValue());
+		});
+	}
+	
+	@Override
+	public Object deserialize(ReadResult readResult)
+	{
+		readResult.section(PASSED_NUMBER_SECTION).poll();
+		return readResult.pollLast();
+	}
+}
\ No newline at end of file
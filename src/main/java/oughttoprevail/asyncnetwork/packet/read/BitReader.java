@@ -0,0 +1,154 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.read;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.Function;
+
+/**
+ * Reads consecutive bit instructions of a single {@link ReadResult}, bits are unpacked lowest bit first from bytes
+ * which are requested only when the previously requested bytes don't have enough unclaimed bits.
+ * A new {@link BitReader} is used after every byte aligned instruction, any bits left in the last byte are skipped
+ * just like they were padded by {@link oughttoprevail.asyncnetwork.packet.write.WritablePacketBuilder#putBits(long, int)}.
+ */
+class BitReader
+{
+	/**
+	 * Bits of requested bytes which haven't been claimed by an instruction yet.
+	 * This is counted when instructions are added, before the bytes have been read.
+	 */
+	private int unclaimedBits;
+	/**
+	 * Bits which have been read but not yet given to a request, the first read bit is the lowest bit.
+	 */
+	private long bits;
+	/**
+	 * The amount of {@link #bits}.
+	 */
+	private int bitCount;
+	/**
+	 * Requests waiting for their bits, in the order they were added.
+	 */
+	private final Deque<BitsRequest> requests = new ArrayDeque<>();
+	
+	/**
+	 * Reads the specified amount of bits, once read the specified function is invoked with them and the result is
+	 * added to the specified readResult.
+	 *
+	 * @param readResult to add the result to
+	 * @param bitsToRead the amount of bits to read
+	 * @param function which converts the read bits to the result
+	 */
+	synchronized void read(ReadResult readResult, int bitsToRead, Function<Long, Object> function)
+	{
+		requests.addLast(new BitsRequest(bitsToRead, function));
+		if(bitsToRead <= unclaimedBits)
+		{
+			//the bits are in a byte which has already been requested
+			unclaimedBits -= bitsToRead;
+			resolve(readResult);
+			return;
+		}
+		int bytes = (bitsToRead - unclaimedBits + Byte.SIZE - 1) / Byte.SIZE;
+		unclaimedBits += bytes * Byte.SIZE - bitsToRead;
+		Socket socket = readResult.socket();
+		socket.readByteBuffer(byteBuffer ->
+		{
+			try
+			{
+				received(readResult, byteBuffer);
+			} catch(Throwable e)
+			{
+				socket.manager().exception(e);
+			}
+		}, bytes);
+	}
+	
+	private synchronized void received(ReadResult readResult, ByteBuffer byteBuffer)
+	{
+		while(byteBuffer.hasRemaining())
+		{
+			bits |= (byteBuffer.get() & 0xFFL) << bitCount;
+			bitCount += Byte.SIZE;
+			resolve(readResult);
+		}
+	}
+	
+	/**
+	 * Gives the read {@link #bits} to the waiting requests in order, every request which received all of it's
+	 * bits is completed.
+	 *
+	 * @param readResult to add the results to
+	 */
+	private void resolve(ReadResult readResult)
+	{
+		BitsRequest request;
+		while(bitCount != 0 && (request = requests.peekFirst()) != null)
+		{
+			int take = Math.min(request.bits - request.received, bitCount);
+			request.value |= (bits & ((1L << take) - 1)) << request.received;
+			request.received += take;
+			bits >>>= take;
+			bitCount -= take;
+			if(request.received != request.bits)
+			{
+				return;
+			}
+			requests.pollFirst();
+			readResult.add(request.function.apply(request.value));
+		}
+	}
+	
+	/**
+	 * An instruction reading bits with the {@link BitReader} of the {@link ReadResult}.
+	 */
+	static class Instruction implements Consumer<ReadResult>
+	{
+		private final int bits;
+		private final Function<Long, Object> function;
+		
+		Instruction(int bits, Function<Long, Object> function)
+		{
+			this.bits = bits;
+			this.function = function;
+		}
+		
+		@Override
+		public void accept(ReadResult readResult)
+		{
+			readResult.bitReader().read(readResult, bits, function);
+		}
+	}
+	
+	private static class BitsRequest
+	{
+		private final int bits;
+		private final Function<Long, Object> function;
+		private long value;
+		private int received;
+		
+		private BitsRequest(int bits, Function<Long, Object> function)
+		{
+			this.bits = bits;
+			this.function = function;
+		}
+	}
+}
\ No newline at end of file
@@ -50,6 +50,11 @@ class LoopUtil
 			{
 				//registered consumer
 				Consumer<ReadResult> consumer = (Consumer<ReadResult>) obj;
+				if(!(consumer instanceof BitReader.Instruction))
+				{
+					//byte aligned instructions skip the bits left in the last read byte
+					readResult.alignBits();
+				}
 				consumer.accept(readResult);
 				readResult.futureAdd();
 			} else if(obj instanceof BiConsumer)
@@ -167,4 +167,34 @@ public interface PassedNumber<T extends Number> extends Deserializer<T>
 			return Util.INT_BYTES;
 		}
 	};
+	/**
+	 * An {@code int} encoded as a varint, smaller values take less bytes.
+	 * Since the size of a varint is only known once it has been read {@link #getSize()} returns the max size.
+	 */
+	PassedNumber<Integer> VARINT = new PassedNumber<Integer>()
+	{
+		@Override
+		public void prepareDeserialization(ReadablePacketBuilder builder)
+		{
+			builder.aVarInt();
+		}
+		
+		@Override
+		public Integer deserialize(ReadResult readResult)
+		{
+			return readResult.pollLast();
+		}
+		
+		@Override
+		public Integer convert(ByteBuffer byteBuffer)
+		{
+			return (int) Util.getVarLong(byteBuffer, Util.MAX_VAR_INT_BYTES);
+		}
+		
+		@Override
+		public int getSize()
+		{
+			return Util.MAX_VAR_INT_BYTES;
+		}
+	};
 }
\ No newline at end of file
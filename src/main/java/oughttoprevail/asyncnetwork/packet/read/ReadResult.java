@@ -31,6 +31,11 @@ public class ReadResult
 	private final Object lock = new Object();
 	private Runnable whenReachedGoal;
 	private int goal;
+	/**
+	 * The {@link BitReader} of the current consecutive bit instructions or {@code null} if the last instruction was
+	 * byte aligned.
+	 */
+	private BitReader bitReader;
 	
 	public ReadResult(Socket socket)
 	{
@@ -49,6 +54,29 @@ public class ReadResult
 		goal++;
 	}
 	
+	/**
+	 * Returns the {@link BitReader} of the current consecutive bit instructions, creating one if the last
+	 * instruction was byte aligned.
+	 *
+	 * @return the {@link BitReader} of the current consecutive bit instructions
+	 */
+	BitReader bitReader()
+	{
+		if(bitReader == null)
+		{
+			bitReader = new BitReader();
+		}
+		return bitReader;
+	}
+	
+	/**
+	 * Ends the current consecutive bit instructions so the next instruction starts at a new byte.
+	 */
+	void alignBits()
+	{
+		bitReader = null;
+	}
+	
 	/**
 	 * Adds the specified obj to the results queue.
 	 * If after adding the specified obj the results queue size is equal
@@ -17,10 +17,12 @@ package oughttoprevail.asyncnetwork.packet.read;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import oughttoprevail.asyncnetwork.Socket;
 import oughttoprevail.asyncnetwork.util.Consumer;
 import oughttoprevail.asyncnetwork.util.Validator;
+import oughttoprevail.asyncnetwork.util.timer.Timeout;
 
 public class ReadablePacket
 {
@@ -49,4 +51,27 @@ public class ReadablePacket
 		loopUtil.continueLoop();
 		return this;
 	}
+	
+	/**
+	 * Reads from the specified socket, once the read has finished the specified consumer will be
+	 * invoked with the results.
+	 * If the read hasn't finished within the specified timeout the socket is closed with
+	 * {@link oughttoprevail.asyncnetwork.util.DisconnectionType#READ_TIMEOUT}.
+	 *
+	 * @param socket to read from
+	 * @param consumer to invoke with the results once the read operation has completed
+	 * @param timeout the maximum time the read may take
+	 * @param unit the unit of the specified timeout
+	 * @return this
+	 */
+	public ReadablePacket read(Socket socket, Consumer<ReadResult> consumer, long timeout, TimeUnit unit)
+	{
+		Validator.requireNonNull(consumer, "Consumer");
+		Timeout readTimeout = socket.readTimeout(timeout, unit);
+		return read(socket, readResult ->
+		{
+			readTimeout.cancel();
+			consumer.accept(readResult);
+		});
+	}
 }
\ No newline at end of file
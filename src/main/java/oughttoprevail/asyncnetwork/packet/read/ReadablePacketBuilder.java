@@ -16,15 +16,23 @@ limitations under the License.
 package oughttoprevail.asyncnetwork.packet.read;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 
+import oughttoprevail.asyncnetwork.Socket;
 import oughttoprevail.asyncnetwork.packet.Deserializer;
 import oughttoprevail.asyncnetwork.util.BiConsumer;
 import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.DisconnectionType;
 import oughttoprevail.asyncnetwork.util.Function;
 import oughttoprevail.asyncnetwork.util.Predicate;
+import oughttoprevail.asyncnetwork.util.TriConsumer;
+import oughttoprevail.asyncnetwork.util.Utf8;
 import oughttoprevail.asyncnetwork.util.Util;
 import oughttoprevail.asyncnetwork.util.Validator;
 
@@ -106,6 +114,18 @@ public class ReadablePacketBuilder
 		}, bytes);
 	}
 	
+	/**
+	 * Reads a {@link String} of the specified amount of UTF-8 encoded bytes, the string is decoded straight from
+	 * the read buffer.
+	 *
+	 * @param bytes the size in bytes of the string
+	 * @return this
+	 */
+	ReadablePacketBuilder aUtf8(int bytes)
+	{
+		return aByteBuffer(byteBuffer -> Utf8.get(byteBuffer, bytes), bytes);
+	}
+	
 	/**
 	 * Reads a single {@code byte}.
 	 *
@@ -140,6 +160,80 @@ public class ReadablePacketBuilder
 		return aObject(new BytesDeserializer(passedNumber));
 	}
 	
+	/**
+	 * Reads bits packed by {@link oughttoprevail.asyncnetwork.packet.write.WritablePacketBuilder#putBits(long, int)}
+	 * and invokes the specified function with them.
+	 * The result (return value) of the function will go in the {@link ReadResult}.
+	 *
+	 * @param bits the amount of bits to read
+	 * @param function to invoke with the read bits
+	 * @return this
+	 */
+	private ReadablePacketBuilder aBits(int bits, Function<Long, Object> function)
+	{
+		add(new BitReader.Instruction(bits, function));
+		return this;
+	}
+	
+	/**
+	 * Reads an {@code int} from the specified amount of bits, the bits are read right after the previously read
+	 * bits without aligning them to a byte.
+	 *
+	 * @param bits the amount of bits to read, between 1 and 32
+	 * @return this
+	 */
+	public ReadablePacketBuilder aBits(int bits)
+	{
+		if(bits <= 0 || bits > Integer.SIZE)
+		{
+			throw new IllegalArgumentException("Bits must be between 1 and 32!");
+		}
+		return aBits(bits, Long::intValue);
+	}
+	
+	/**
+	 * Reads a {@code long} from the specified amount of bits, the bits are read right after the previously read
+	 * bits without aligning them to a byte.
+	 *
+	 * @param bits the amount of bits to read, between 1 and 64
+	 * @return this
+	 */
+	public ReadablePacketBuilder aLongBits(int bits)
+	{
+		if(bits <= 0 || bits > Long.SIZE)
+		{
+			throw new IllegalArgumentException("Bits must be between 1 and 64!");
+		}
+		return aBits(bits, value -> value);
+	}
+	
+	/**
+	 * Reads a single bit and converts it to a {@code boolean}.
+	 *
+	 * @return this
+	 * @see #aBits(int)
+	 */
+	public ReadablePacketBuilder aBit()
+	{
+		return aBits(1, value -> value == 1);
+	}
+	
+	/**
+	 * Reads a {@code float} quantized to the specified amount of bits by
+	 * {@link oughttoprevail.asyncnetwork.packet.write.WritablePacketBuilder#putQuantizedFloat(float, float, float, int)}.
+	 *
+	 * @param min the lowest value the float may have
+	 * @param max the highest value the float may have
+	 * @param bits the amount of bits to read, between 1 and 32
+	 * @return this
+	 * @see #aBits(int)
+	 */
+	public ReadablePacketBuilder aQuantizedFloat(float min, float max, int bits)
+	{
+		Util.quantizationSteps(min, max, bits);
+		return aBits(bits, value -> Util.dequantize(value, min, max, bits));
+	}
+	
 	/**
 	 * Reads a single {@code byte} and converts it to a {@code boolean}.
 	 * The conversation is done by checking whether the {@code byte} is equal to 1,
@@ -202,6 +296,316 @@ public class ReadablePacketBuilder
 		return aByteBuffer(ByteBuffer::getLong, Util.LONG_BYTES);
 	}
 	
+	/**
+	 * Reads a varint of at most the specified amount of bytes one byte at a time since it's size is only known once
+	 * it's last byte has been read.
+	 * The result of the specified function with the decoded value will go in the {@link ReadResult}.
+	 * If the varint is malformed or the rest of the packet fails with it's value (like a negative length) the socket
+	 * is closed since the rest of the stream can't be read anymore.
+	 *
+	 * @param maxBytes the max size in bytes of the varint
+	 * @param function to invoke with the decoded value
+	 * @return this
+	 */
+	private ReadablePacketBuilder aVarNumber(int maxBytes, Function<Long, Object> function)
+	{
+		add((Consumer<ReadResult>) readResult ->
+		{
+			long[] value = new long[1];
+			int[] read = new int[1];
+			readResult.socket().readByteBufferUntil(byteBuffer ->
+			{
+				try
+				{
+					byte b = byteBuffer.get();
+					value[0] |= (long) (b & 0x7F) << (read[0]++ * 7);
+					if(b < 0)
+					{
+						if(read[0] == maxBytes)
+						{
+							throw new IllegalArgumentException("Varint is longer than " + maxBytes + " bytes!");
+						}
+						return true;
+					}
+					readResult.add(function.apply(value[0]));
+				} catch(Throwable e)
+				{
+					Socket socket = readResult.socket();
+					socket.manager().exception(e);
+					socket.manager().close(DisconnectionType.EXCEPTION_CLOSE);
+				}
+				return false;
+			}, Util.BYTE_BYTES);
+		});
+		return this;
+	}
+	
+	/**
+	 * Reads a single {@code int} encoded as a varint.
+	 *
+	 * @return this
+	 */
+	public ReadablePacketBuilder aVarInt()
+	{
+		return aVarNumber(Util.MAX_VAR_INT_BYTES, Long::intValue);
+	}
+	
+	/**
+	 * Reads a single {@code long} encoded as a varint.
+	 *
+	 * @return this
+	 */
+	public ReadablePacketBuilder aVarLong()
+	{
+		return aVarNumber(Util.MAX_VAR_LONG_BYTES, value -> value);
+	}
+	
+	/**
+	 * Reads a single {@code int} encoded as a zigzag varint.
+	 *
+	 * @return this
+	 */
+	public ReadablePacketBuilder aZigZagInt()
+	{
+		return aVarNumber(Util.MAX_VAR_INT_BYTES, value -> Util.decodeZigZag(value.intValue()));
+	}
+	
+	/**
+	 * Reads a single {@code long} encoded as a zigzag varint.
+	 *
+	 * @return this
+	 */
+	public ReadablePacketBuilder aZigZagLong()
+	{
+		return aVarNumber(Util.MAX_VAR_LONG_BYTES, Util::decodeZigZag);
+	}
+	
+	/**
+	 * Reads a {@code int[]} with the specified length in big-endian byte order.
+	 *
+	 * @param length length of the wanted {@code int[]}
+	 * @return this
+	 */
+	public ReadablePacketBuilder aInts(int length)
+	{
+		return aInts(length, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Reads a {@code int[]} with the specified length in the specified byte order.
+	 *
+	 * @param length length of the wanted {@code int[]}
+	 * @param order the byte order of the ints
+	 * @return this
+	 */
+	public ReadablePacketBuilder aInts(int length, ByteOrder order)
+	{
+		return anArray(length, int[]::new, Util.INT_BYTES, order, (byteBuffer, ints, offset) ->
+		{
+			IntBuffer view = byteBuffer.asIntBuffer();
+			view.get(ints, offset, view.remaining());
+		});
+	}
+	
+	/**
+	 * Reads a {@code int[]} with the length the specified passedNumber returns in big-endian byte order.
+	 *
+	 * @param passedNumber which will return the length of the wanted {@code int[]}
+	 * @return this
+	 */
+	public ReadablePacketBuilder aInts(PassedNumber passedNumber)
+	{
+		return aInts(passedNumber, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Reads a {@code int[]} with the length the specified passedNumber returns in the specified byte order.
+	 *
+	 * @param passedNumber which will return the length of the wanted {@code int[]}
+	 * @param order the byte order of the ints
+	 * @return this
+	 */
+	public ReadablePacketBuilder aInts(PassedNumber passedNumber, ByteOrder order)
+	{
+		Validator.requireNonNull(passedNumber, "PassedNumber");
+		return aObject(new ArrayDeserializer(passedNumber, (builder, length) -> builder.aInts(length, order)));
+	}
+	
+	/**
+	 * Reads a {@code float[]} with the specified length in big-endian byte order.
+	 *
+	 * @param length length of the wanted {@code float[]}
+	 * @return this
+	 */
+	public ReadablePacketBuilder aFloats(int length)
+	{
+		return aFloats(length, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Reads a {@code float[]} with the specified length in the specified byte order.
+	 *
+	 * @param length length of the wanted {@code float[]}
+	 * @param order the byte order of the floats
+	 * @return this
+	 */
+	public ReadablePacketBuilder aFloats(int length, ByteOrder order)
+	{
+		return anArray(length, float[]::new, Util.FLOAT_BYTES, order, (byteBuffer, floats, offset) ->
+		{
+			FloatBuffer view = byteBuffer.asFloatBuffer();
+			view.get(floats, offset, view.remaining());
+		});
+	}
+	
+	/**
+	 * Reads a {@code float[]} with the length the specified passedNumber returns in big-endian byte order.
+	 *
+	 * @param passedNumber which will return the length of the wanted {@code float[]}
+	 * @return this
+	 */
+	public ReadablePacketBuilder aFloats(PassedNumber passedNumber)
+	{
+		return aFloats(passedNumber, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Reads a {@code float[]} with the length the specified passedNumber returns in the specified byte order.
+	 *
+	 * @param passedNumber which will return the length of the wanted {@code float[]}
+	 * @param order the byte order of the floats
+	 * @return this
+	 */
+	public ReadablePacketBuilder aFloats(PassedNumber passedNumber, ByteOrder order)
+	{
+		Validator.requireNonNull(passedNumber, "PassedNumber");
+		return aObject(new ArrayDeserializer(passedNumber, (builder, length) -> builder.aFloats(length, order)));
+	}
+	
+	/**
+	 * Reads a {@code long[]} with the specified length in big-endian byte order.
+	 *
+	 * @param length length of the wanted {@code long[]}
+	 * @return this
+	 */
+	public ReadablePacketBuilder aLongs(int length)
+	{
+		return aLongs(length, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Reads a {@code long[]} with the specified length in the specified byte order.
+	 *
+	 * @param length length of the wanted {@code long[]}
+	 * @param order the byte order of the longs
+	 * @return this
+	 */
+	public ReadablePacketBuilder aLongs(int length, ByteOrder order)
+	{
+		return anArray(length, long[]::new, Util.LONG_BYTES, order, (byteBuffer, longs, offset) ->
+		{
+			LongBuffer view = byteBuffer.asLongBuffer();
+			view.get(longs, offset, view.remaining());
+		});
+	}
+	
+	/**
+	 * Reads a {@code long[]} with the length the specified passedNumber returns in big-endian byte order.
+	 *
+	 * @param passedNumber which will return the length of the wanted {@code long[]}
+	 * @return this
+	 */
+	public ReadablePacketBuilder aLongs(PassedNumber passedNumber)
+	{
+		return aLongs(passedNumber, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Reads a {@code long[]} with the length the specified passedNumber returns in the specified byte order.
+	 *
+	 * @param passedNumber which will return the length of the wanted {@code long[]}
+	 * @param order the byte order of the longs
+	 * @return this
+	 */
+	public ReadablePacketBuilder aLongs(PassedNumber passedNumber, ByteOrder order)
+	{
+		Validator.requireNonNull(passedNumber, "PassedNumber");
+		return aObject(new ArrayDeserializer(passedNumber, (builder, length) -> builder.aLongs(length, order)));
+	}
+	
+	/**
+	 * Reads the specified array with the specified length, the array is read in chunks which fit in the socket's
+	 * read buffer and each chunk is bulk copied into the array using the specified copier.
+	 *
+	 * @param length length of the array
+	 * @param newArray creates an array with the given length
+	 * @param elementBytes the size in bytes of a single element
+	 * @param order the byte order of the array
+	 * @param copier copies a chunk into the array starting at the given offset
+	 * @param <A> type of the array
+	 * @return this
+	 */
+	private <A> ReadablePacketBuilder anArray(int length,
+	                                          Function<Integer, A> newArray,
+	                                          int elementBytes,
+	                                          ByteOrder order,
+	                                          TriConsumer<ByteBuffer, A, Integer> copier)
+	{
+		Validator.requireNonNull(order, "ByteOrder");
+		if(length < 0)
+		{
+			throw new IllegalArgumentException("Length cannot be negative!");
+		}
+		add((Consumer<ReadResult>) readResult ->
+		{
+			A array = newArray.apply(length);
+			if(length == 0)
+			{
+				readResult.add(array);
+			} else
+			{
+				readArray(readResult, array, 0, length, elementBytes, order, copier);
+			}
+		});
+		return this;
+	}
+	
+	/**
+	 * Reads the next chunk of the specified array starting at the specified offset, once the whole array has been
+	 * read it is added to the specified readResult.
+	 * If the copier fails the socket is closed since the rest of the array and the stream can't be read anymore.
+	 */
+	private static <A> void readArray(ReadResult readResult,
+	                                  A array,
+	                                  int offset,
+	                                  int length,
+	                                  int elementBytes,
+	                                  ByteOrder order,
+	                                  TriConsumer<ByteBuffer, A, Integer> copier)
+	{
+		Socket socket = readResult.socket();
+		int elements = Math.min(length - offset, Math.max(1, socket.getBufferSize() / elementBytes));
+		socket.readByteBuffer(byteBuffer ->
+		{
+			try
+			{
+				copier.accept(byteBuffer.order(order), array, offset);
+			} catch(Throwable e)
+			{
+				socket.manager().exception(e);
+				socket.manager().close(DisconnectionType.EXCEPTION_CLOSE);
+				return;
+			}
+			if(offset + elements == length)
+			{
+				readResult.add(array);
+			} else
+			{
+				readArray(readResult, array, offset + elements, length, elementBytes, order, copier);
+			}
+		}, elements * elementBytes);
+	}
+	
 	/**
 	 * Reads a single {@link E} as if the received ordinal was a byte.
 	 *
@@ -274,6 +678,33 @@ public class ReadablePacketBuilder
 		return aObject(StringDeserializer.STRING_DESERIALIZER);
 	}
 	
+	/**
+	 * Reads a single {@link String} by reading it's length using the specified passedNumber then a {@code byte[]}
+	 * which is then converted to a {@link String} with {@link String#String(byte[], Charset)} with the
+	 * {@link Charset} specified as {@link Util#UTF_8}.
+	 *
+	 * @param passedNumber which will return the length of the {@link String} in bytes
+	 * @return this
+	 */
+	public ReadablePacketBuilder aString(PassedNumber passedNumber)
+	{
+		Validator.requireNonNull(passedNumber, "PassedNumber");
+		return aObject(new StringDeserializer(passedNumber));
+	}
+	
+	/**
+	 * Reads a single {@link String} written by
+	 * {@link oughttoprevail.asyncnetwork.packet.write.WritablePacketBuilder#putTableString(oughttoprevail.asyncnetwork.packet.StringTable, String)}
+	 * using the inbound {@link oughttoprevail.asyncnetwork.packet.StringTable} of the socket.
+	 *
+	 * @return this
+	 * @see oughttoprevail.asyncnetwork.Socket#enableStringTables(int)
+	 */
+	public ReadablePacketBuilder aTableString()
+	{
+		return aObject(TableStringDeserializer.TABLE_STRING_DESERIALIZER);
+	}
+	
 	/**
 	 * Reads a single {@link Object}.
 	 *
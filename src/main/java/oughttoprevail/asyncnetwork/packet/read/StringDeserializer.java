@@ -16,22 +16,50 @@ limitations under the License.
 package oughttoprevail.asyncnetwork.packet.read;
 
 import oughttoprevail.asyncnetwork.packet.Deserializer;
-import oughttoprevail.asyncnetwork.util.Util;
 
 public class StringDeserializer implements Deserializer<String>
 {
 	public static final Deserializer<String> STRING_DESERIALIZER = new StringDeserializer();
 	
+	private static final String PASSED_NUMBER_SECTION = "StringDeserializer_PassedNumber";
+	
+	/**
+	 * The {@link PassedNumber} of the length of the string.
+	 */
+	private final PassedNumber passedNumber;
+	
+	public StringDeserializer()
+	{
+		this(PassedNumber.PASSABLE_INTEGER);
+	}
+	
+	public StringDeserializer(PassedNumber passedNumber)
+	{
+		this.passedNumber = passedNumber;
+	}
+	
 	@Override
 	public void prepareDeserialization(ReadablePacketBuilder builder)
 	{
-		builder.bytes(PassedNumber.PASSABLE_INTEGER);
+		builder.section(PASSED_NUMBER_SECTION).aObject(passedNumber).endSection().dependent((builder1, readResult) ->
+		{
+			Number value = readResult.peekLast();
+			int length = value.intValue();
+			if(length != 0)
+			{
+				builder1.aUtf8(length);
+			}
+		});
 	}
 	
 	@Override
 	public String deserialize(ReadResult readResult)
 	{
-		byte[] bytes = readResult.pollLast();
-		return new String(bytes, Util.UTF_8);
+		int length = ((Number) readResult.section(PASSED_NUMBER_SECTION).poll()).intValue();
+		if(length == 0)
+		{
+			return "";
+		}
+		return readResult.pollLast();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.read;
+
+import oughttoprevail.asyncnetwork.packet.Deserializer;
+import oughttoprevail.asyncnetwork.packet.StringTable;
+
+/**
+ * Deserializes strings written by {@link oughttoprevail.asyncnetwork.packet.write.WritablePacketBuilder#putTableString(StringTable, String)}
+ * using the inbound {@link StringTable} of the socket being read from.
+ * Deserialization happens in the order the strings were received which keeps the table synchronized with the
+ * remote peer's outbound table.
+ */
+class TableStringDeserializer implements Deserializer<String>
+{
+	static final Deserializer<String> TABLE_STRING_DESERIALIZER = new TableStringDeserializer();
+	
+	private static final String ID_SECTION = "TableStringDeserializer_Id";
+	
+	private static final Deserializer<String> NEW_STRING_DESERIALIZER = new StringDeserializer(PassedNumber.VARINT);
+	
+	@Override
+	public void prepareDeserialization(ReadablePacketBuilder builder)
+	{
+		builder.section(ID_SECTION).aVarInt().endSection().dependent((builder1, readResult) ->
+		{
+			int id = readResult.peekLast();
+			if(id == StringTable.NEW_STRING)
+			{
+				builder1.aObject(NEW_STRING_DESERIALIZER);
+			}
+		});
+	}
+	
+	@Override
+	public String deserialize(ReadResult readResult)
+	{
+		int id = readResult.section(ID_SECTION).poll();
+		StringTable table = readResult.socket().getInboundStringTable();
+		if(id == StringTable.NEW_STRING)
+		{
+			String s = readResult.pollLast();
+			table.add(s);
+			return s;
+		}
+		return table.get(id);
+	}
+}
\ No newline at end of file
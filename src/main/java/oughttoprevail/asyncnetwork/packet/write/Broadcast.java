@@ -0,0 +1,130 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.write;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.util.ConditionWaiter;
+import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.Validator;
+
+/**
+ * The progress of a broadcast started by {@link WritablePacket#broadcast(java.util.Collection)}.
+ * A broadcast is done once every socket has either finished writing the packet or will never finish
+ * (for example because it has closed), at that point the packet's buffer has been given back to the pool.
+ */
+public class Broadcast
+{
+	/**
+	 * The amount of sockets the packet was written to.
+	 */
+	private int sockets;
+	/**
+	 * The amount of sockets which have finished writing the packet.
+	 */
+	private final AtomicInteger written = new AtomicInteger();
+	/**
+	 * Invoked by writers once a socket has finished writing the packet.
+	 */
+	final Consumer<ByteBuffer> onWriteFinished = byteBuffer -> written.incrementAndGet();
+	private final List<Runnable> onDone = new ArrayList<>();
+	private final ConditionWaiter waiter = new ConditionWaiter();
+	private volatile boolean done;
+	
+	void add()
+	{
+		sockets++;
+	}
+	
+	void finish()
+	{
+		List<Runnable> onDone;
+		synchronized(this.onDone)
+		{
+			done = true;
+			onDone = new ArrayList<>(this.onDone);
+			this.onDone.clear();
+		}
+		waiter.finish();
+		for(Runnable runnable : onDone)
+		{
+			runnable.run();
+		}
+	}
+	
+	/**
+	 * Returns the amount of sockets the packet was written to, closed sockets are skipped.
+	 *
+	 * @return the amount of sockets the packet was written to
+	 */
+	public int getSockets()
+	{
+		return sockets;
+	}
+	
+	/**
+	 * Returns the amount of sockets which have finished writing the packet.
+	 * Once the broadcast is done the sockets which haven't finished writing it have failed to.
+	 *
+	 * @return the amount of sockets which have finished writing the packet
+	 */
+	public int getWritten()
+	{
+		return written.get();
+	}
+	
+	/**
+	 * Returns whether every write of the broadcast has either finished or failed.
+	 *
+	 * @return whether every write of the broadcast has either finished or failed
+	 */
+	public boolean isDone()
+	{
+		return done;
+	}
+	
+	/**
+	 * Invokes the specified runnable once the broadcast is done, if it is already done the specified runnable is
+	 * invoked immediately.
+	 *
+	 * @param onDone the runnable that will be called once the broadcast is done
+	 */
+	public void onDone(Runnable onDone)
+	{
+		Validator.requireNonNull(onDone, "Runnable");
+		synchronized(this.onDone)
+		{
+			if(!done)
+			{
+				this.onDone.add(onDone);
+				return;
+			}
+		}
+		onDone.run();
+	}
+	
+	/**
+	 * Blocks until the broadcast is done.
+	 */
+	public void await()
+	{
+		waiter.await();
+	}
+}
\ No newline at end of file
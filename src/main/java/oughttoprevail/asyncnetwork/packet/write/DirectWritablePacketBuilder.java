@@ -0,0 +1,265 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.write;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
+import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.Utf8;
+import oughttoprevail.asyncnetwork.util.Util;
+
+/**
+ * A {@link WritablePacketBuilder} which puts every element in a {@link PooledByteBuffer} right away instead of
+ * enqueuing instructions, when the buffer is full it is replaced by a buffer twice as big.
+ * Once built the buffer is given to the {@link WritablePacket} and the next packet starts with a buffer the size of
+ * the previous packet, so building similar packets doesn't need to grow the buffer.
+ */
+class DirectWritablePacketBuilder extends WritablePacketBuilder
+{
+	/**
+	 * The capacity of the first buffer if no packet has been built yet.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/**
+	 * The buffer elements are put in or {@code null} if no element has been put since the last build.
+	 */
+	PooledByteBuffer pooledBuffer;
+	ByteBuffer buffer;
+	/**
+	 * The index in the {@link #buffer} of the first byte of the packet being built.
+	 */
+	int start;
+	int elements;
+	/**
+	 * The size of the previously built packet.
+	 */
+	private int previousSize = INITIAL_CAPACITY;
+	
+	/**
+	 * Discards every element put since the last build so this builder can be reused.
+	 *
+	 * @return this
+	 */
+	DirectWritablePacketBuilder reset()
+	{
+		if(buffer != null)
+		{
+			buffer.clear();
+		}
+		elements = 0;
+		discardBits();
+		rollbackStringTable();
+		return this;
+	}
+	
+	/**
+	 * Byte aligns the packet then makes sure the {@link #buffer} has the specified amount of bytes remaining and
+	 * counts a new element.
+	 *
+	 * @param bytes which are about to be put
+	 * @return the {@link #buffer}
+	 */
+	private ByteBuffer ensure(int bytes)
+	{
+		alignBits();
+		return reserve(bytes);
+	}
+	
+	/**
+	 * Makes sure the {@link #buffer} has the specified amount of bytes remaining and counts a new element.
+	 *
+	 * @param bytes which are about to be put
+	 * @return the {@link #buffer}
+	 */
+	private ByteBuffer reserve(int bytes)
+	{
+		elements++;
+		if(buffer == null)
+		{
+			pooledBuffer = new PooledByteBuffer(Math.max(bytes, initialCapacity()));
+			buffer = pooledBuffer.getByteBuffer();
+			start = 0;
+		} else if(buffer.remaining() < bytes)
+		{
+			//move the packet being built to a bigger buffer
+			PooledByteBuffer grown = new PooledByteBuffer(grownCapacity(size() + bytes));
+			ByteBuffer grownBuffer = grown.getByteBuffer();
+			buffer.limit(buffer.position());
+			buffer.position(start);
+			grownBuffer.put(buffer);
+			pooledBuffer.close();
+			pooledBuffer = grown;
+			buffer = grownBuffer;
+			start = 0;
+		}
+		return buffer;
+	}
+	
+	/**
+	 * Returns the capacity of a new buffer if there is no buffer.
+	 *
+	 * @return the capacity of a new buffer
+	 */
+	int initialCapacity()
+	{
+		return previousSize;
+	}
+	
+	/**
+	 * Returns the capacity of a buffer replacing a full buffer.
+	 *
+	 * @param needed the amount of bytes the new buffer must fit
+	 * @return the capacity of a buffer replacing a full buffer
+	 */
+	int grownCapacity(int needed)
+	{
+		return Math.max(needed, buffer.capacity() << 1);
+	}
+	
+	@Override
+	public WritablePacketBuilder putByte(int b)
+	{
+		ensure(Util.BYTE_BYTES).put((byte) b);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putBytes(byte[] bytes)
+	{
+		ensure(bytes.length).put(bytes);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putBytes(byte[] bytes, int offset, int length)
+	{
+		int totalLength = checkRange(bytes, offset, length);
+		ensure(totalLength).put(bytes, offset, totalLength);
+		return this;
+	}
+	
+	@Override
+	void putBitsByte(byte b)
+	{
+		reserve(Util.BYTE_BYTES).put(b);
+	}
+	
+	@Override
+	WritablePacketBuilder putArray(Consumer<ByteBuffer> viewPut, int bytes, ByteOrder order)
+	{
+		putArray(ensure(bytes), viewPut, bytes, order);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putChar(char c)
+	{
+		ensure(Util.CHAR_BYTES).putChar(c);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putDouble(double d)
+	{
+		ensure(Util.DOUBLE_BYTES).putDouble(d);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putFloat(float f)
+	{
+		ensure(Util.FLOAT_BYTES).putFloat(f);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putInt(int i)
+	{
+		ensure(Util.INT_BYTES).putInt(i);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putLong(long l)
+	{
+		ensure(Util.LONG_BYTES).putLong(l);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putVarLong(long l)
+	{
+		Util.putVarLong(ensure(Util.varLongSize(l)), l);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putString(String s)
+	{
+		int length = Utf8.length(s);
+		ByteBuffer byteBuffer = ensure(Util.INT_BYTES + length);
+		byteBuffer.putInt(length);
+		Utf8.put(byteBuffer, s);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putVarIntString(String s)
+	{
+		int length = Utf8.length(s);
+		ByteBuffer byteBuffer = ensure(Util.varLongSize(length) + length);
+		Util.putVarLong(byteBuffer, length);
+		Utf8.put(byteBuffer, s);
+		return this;
+	}
+	
+	@Override
+	public WritablePacketBuilder putShort(short s)
+	{
+		ensure(Util.SHORT_BYTES).putShort(s);
+		return this;
+	}
+	
+	@Override
+	public int size()
+	{
+		return (buffer == null ? 0 : buffer.position() - start) + pendingBytes();
+	}
+	
+	@Override
+	public int elements()
+	{
+		return elements;
+	}
+	
+	@Override
+	public WritablePacket build()
+	{
+		ensure(0);
+		//like the buffers of other packets the position is at the end, the limit is the size of the packet
+		buffer.limit(buffer.position());
+		commitStringTable();
+		WritablePacket packet = new WritablePacket(pooledBuffer);
+		previousSize = Math.max(INITIAL_CAPACITY, buffer.limit());
+		pooledBuffer = null;
+		buffer = null;
+		elements = 0;
+		return packet;
+	}
+}
\ No newline at end of file
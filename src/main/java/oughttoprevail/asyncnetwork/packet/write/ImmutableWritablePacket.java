@@ -0,0 +1,49 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.write;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A packet created by {@link WritablePacket#immutable(WritablePacketBuilder)}, it's buffer isn't pooled and it is
+ * never closed.
+ */
+class ImmutableWritablePacket extends WritablePacket
+{
+	ImmutableWritablePacket(ByteBuffer packetBuffer)
+	{
+		super(packetBuffer);
+	}
+	
+	/**
+	 * Returns a duplicate of this packet's buffer since the buffer is shared by every write of this packet.
+	 *
+	 * @return a duplicate of this packet's buffer
+	 */
+	@Override
+	public ByteBuffer getByteBuffer()
+	{
+		return super.getByteBuffer().duplicate();
+	}
+	
+	/**
+	 * Does nothing, an immutable packet is never closed.
+	 */
+	@Override
+	public void close()
+	{
+	}
+}
\ No newline at end of file
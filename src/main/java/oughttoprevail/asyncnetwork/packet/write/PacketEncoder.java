@@ -0,0 +1,154 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.write;
+
+import java.nio.ByteBuffer;
+
+import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.exceptions.SocketClosedException;
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
+import oughttoprevail.asyncnetwork.util.Consumer;
+
+/**
+ * The outbound buffer of a single {@link Socket}, used by {@link Socket#encode(Consumer)}.
+ * Packets are encoded one after the other into a shared pooled chunk and every packet is written as a slice of the
+ * chunk, writes which can't finish immediately retain the chunk until they have.
+ * Once a packet doesn't fit the rest of the chunk it is moved to a new chunk,
+ * if every write of the chunk has finished the next packet is encoded at the start of the same chunk instead.
+ */
+public class PacketEncoder extends DirectWritablePacketBuilder
+{
+	/**
+	 * The capacity of a chunk, packets bigger than this get a chunk of their own.
+	 */
+	public static final int CHUNK_SIZE = 16 * 1024;
+	
+	private final Socket socket;
+	/**
+	 * Whether a packet is being encoded, used to detect a packet encoded while encoding another one.
+	 */
+	private boolean encoding;
+	private boolean closed;
+	
+	public PacketEncoder(Socket socket)
+	{
+		this.socket = socket;
+	}
+	
+	/**
+	 * Invokes the specified consumer with a {@link PacketOutput} which encodes a packet straight into the chunk and
+	 * then writes the packet to the socket.
+	 * If the specified consumer throws the packet is discarded along with it's changes to the outbound
+	 * {@link oughttoprevail.asyncnetwork.packet.StringTable}.
+	 *
+	 * @param consumer which puts the elements of the packet
+	 * @throws SocketClosedException if the socket is closed
+	 * @throws IllegalStateException if the specified consumer encodes another packet to the same socket
+	 */
+	public synchronized void encode(Consumer<PacketOutput> consumer)
+	{
+		if(closed)
+		{
+			throw new SocketClosedException();
+		}
+		if(encoding)
+		{
+			throw new IllegalStateException("Cannot encode a packet while encoding another packet!");
+		}
+		if(buffer != null)
+		{
+			//only this encoder references the chunk so every write of it has finished
+			if(pooledBuffer.referenceCount() == 1)
+			{
+				buffer.clear();
+			}
+			start = buffer.position();
+		}
+		elements = 0;
+		encoding = true;
+		try
+		{
+			consumer.accept(this);
+		} catch(Throwable throwable)
+		{
+			if(buffer != null)
+			{
+				buffer.position(start);
+			}
+			discardBits();
+			rollbackStringTable();
+			throw throwable;
+		} finally
+		{
+			encoding = false;
+		}
+		alignBits();
+		commitStringTable();
+		int size = size();
+		if(size == 0)
+		{
+			return;
+		}
+		int end = buffer.position();
+		ByteBuffer packet = buffer.duplicate();
+		packet.position(start);
+		packet.limit(end);
+		packet = packet.slice();
+		//like the buffers of other packets the position is at the end
+		packet.position(size);
+		start = end;
+		socket.write(packet, pooledBuffer, null);
+	}
+	
+	/**
+	 * Releases the chunk, invoked once the socket has closed.
+	 */
+	public synchronized void close()
+	{
+		closed = true;
+		if(pooledBuffer != null)
+		{
+			pooledBuffer.release();
+			pooledBuffer = null;
+			buffer = null;
+		}
+	}
+	
+	@Override
+	int initialCapacity()
+	{
+		return CHUNK_SIZE;
+	}
+	
+	@Override
+	int grownCapacity(int needed)
+	{
+		return Math.max(needed, CHUNK_SIZE);
+	}
+	
+	/**
+	 * Unsupported, packets are written once they have been encoded.
+	 * Encode consumers are given a {@link PacketOutput} so this is only reachable through a cast or a
+	 * {@link oughttoprevail.asyncnetwork.packet.Serializer}.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public WritablePacket build()
+	{
+		throw new UnsupportedOperationException("Encoded packets are written by encode!");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,328 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.write;
+
+import java.nio.ByteOrder;
+
+import oughttoprevail.asyncnetwork.packet.Serializer;
+import oughttoprevail.asyncnetwork.packet.StringTable;
+
+/**
+ * The elements which can be put in a packet without building it, implemented by {@link WritablePacketBuilder}.
+ * This is given to {@link oughttoprevail.asyncnetwork.Socket#encode(oughttoprevail.asyncnetwork.util.Consumer)}
+ * consumers since an encoded packet is written by the socket rather than built.
+ */
+public interface PacketOutput
+{
+	/**
+	 * Puts the specified byte in the packet
+	 *
+	 * @param b the byte that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putByte(int b);
+	
+	/**
+	 * Puts the specified bytes in the packet.
+	 *
+	 * @param bytes the bytes that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putBytes(byte[] bytes);
+	
+	/**
+	 * Puts the specified bytes in the packet.
+	 *
+	 * @param bytes the bytes that will be put in the packet
+	 * @param offset index of the first byte that will be put in the packet
+	 * @param length index after the last byte that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putBytes(byte[] bytes, int offset, int length);
+	
+	/**
+	 * Puts the specified ints in the packet in big-endian byte order.
+	 *
+	 * @param ints the ints that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putInts(int[] ints);
+	
+	/**
+	 * Puts the specified ints in the packet in the specified byte order with a single bulk copy.
+	 *
+	 * @param ints the ints that will be put in the packet
+	 * @param order the byte order of the put ints
+	 * @return this
+	 */
+	PacketOutput putInts(int[] ints, ByteOrder order);
+	
+	/**
+	 * Puts the specified floats in the packet in big-endian byte order.
+	 *
+	 * @param floats the floats that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putFloats(float[] floats);
+	
+	/**
+	 * Puts the specified floats in the packet in the specified byte order with a single bulk copy.
+	 *
+	 * @param floats the floats that will be put in the packet
+	 * @param order the byte order of the put floats
+	 * @return this
+	 */
+	PacketOutput putFloats(float[] floats, ByteOrder order);
+	
+	/**
+	 * Puts the specified longs in the packet in big-endian byte order.
+	 *
+	 * @param longs the longs that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putLongs(long[] longs);
+	
+	/**
+	 * Puts the specified longs in the packet in the specified byte order with a single bulk copy.
+	 *
+	 * @param longs the longs that will be put in the packet
+	 * @param order the byte order of the put longs
+	 * @return this
+	 */
+	PacketOutput putLongs(long[] longs, ByteOrder order);
+	
+	/**
+	 * Puts the specified char in the packet.
+	 *
+	 * @param c the char that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putChar(char c);
+	
+	/**
+	 * Puts the specified double in packet.
+	 *
+	 * @param d the double that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putDouble(double d);
+	
+	/**
+	 * Puts the specified float in the packet.
+	 *
+	 * @param f the float that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putFloat(float f);
+	
+	/**
+	 * Puts the specified int in the packet.
+	 *
+	 * @param i the int that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putInt(int i);
+	
+	/**
+	 * Puts the specified long in the packet.
+	 *
+	 * @param l the long that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putLong(long l);
+	
+	/**
+	 * Puts the specified short in the packet.
+	 *
+	 * @param s the short that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putShort(short s);
+	
+	/**
+	 * Puts the specified int in the packet as a varint, smaller values take less bytes.
+	 * The int is encoded as an unsigned value so negative ints take 5 bytes, use {@link #putZigZagInt(int)} for
+	 * ints which may be negative.
+	 *
+	 * @param i the int that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putVarInt(int i);
+	
+	/**
+	 * Puts the specified long in the packet as a varint, smaller values take less bytes.
+	 * The long is encoded as an unsigned value so negative longs take 10 bytes, use {@link #putZigZagLong(long)} for
+	 * longs which may be negative.
+	 *
+	 * @param l the long that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putVarLong(long l);
+	
+	/**
+	 * Puts the specified int in the packet as a zigzag encoded varint, values closer to 0 take less bytes.
+	 *
+	 * @param i the int that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putZigZagInt(int i);
+	
+	/**
+	 * Puts the specified long in the packet as a zigzag encoded varint, values closer to 0 take less bytes.
+	 *
+	 * @param l the long that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putZigZagLong(long l);
+	
+	/**
+	 * Puts the lowest bits of the specified value in the packet without aligning them to a byte, the bits are
+	 * packed right after the previously put bits, lowest bit first.
+	 * Once a byte has been filled it is put in the packet, a partially filled byte is padded with zeros and put
+	 * before the next byte aligned element or when the packet is built.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aBits(int)} or
+	 * {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aLongBits(int)}.
+	 *
+	 * @param value the value whose lowest bits will be put in the packet
+	 * @param bits the amount of bits to put, between 1 and 64
+	 * @return this
+	 */
+	PacketOutput putBits(long value, int bits);
+	
+	/**
+	 * Puts the specified boolean in the packet as a single bit.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aBit()}.
+	 *
+	 * @param b the boolean that will be put in the packet
+	 * @return this
+	 * @see #putBits(long, int)
+	 */
+	PacketOutput putBit(boolean b);
+	
+	/**
+	 * Puts the specified float in the packet quantized to the specified amount of bits.
+	 * The float is clamped between the specified min and max and mapped to one of {@code 2^bits} evenly
+	 * spaced values.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aQuantizedFloat(float, float, int)}
+	 * with the same min, max and bits.
+	 *
+	 * @param f the float that will be put in the packet
+	 * @param min the lowest value the float may have
+	 * @param max the highest value the float may have
+	 * @param bits the amount of bits to put, between 1 and 32
+	 * @return this
+	 * @see #putBits(long, int)
+	 */
+	PacketOutput putQuantizedFloat(float f, float min, float max, int bits);
+	
+	/**
+	 * Puts the specified boolean in the packet.
+	 *
+	 * @param b the boolean that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putBoolean(boolean b);
+	
+	/**
+	 * Puts the specified enum's {@link Enum#ordinal()} as a byte in the packet.
+	 *
+	 * @param e the enum that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putEnumByte(Enum e);
+	
+	/**
+	 * Puts the specified enum's {@link Enum#ordinal()} as a short in the packet.
+	 *
+	 * @param e the enum that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putEnumShort(Enum e);
+	
+	/**
+	 * Puts the specified enum's {@link Enum#ordinal()} as a int in the packet.
+	 *
+	 * @param e the enum that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putEnumInt(Enum e);
+	
+	/**
+	 * Puts the specified string in thee packet.
+	 *
+	 * @param s the string that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putString(String s);
+	
+	/**
+	 * Puts the specified string in the packet with it's length as a varint.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aString(oughttoprevail.asyncnetwork.packet.read.PassedNumber)}
+	 * with {@link oughttoprevail.asyncnetwork.packet.read.PassedNumber#VARINT}.
+	 *
+	 * @param s the string that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putVarIntString(String s);
+	
+	/**
+	 * Puts the specified string in the packet using the specified {@link StringTable}.
+	 * If the string is in the table only it's id is put as a varint, else {@link StringTable#NEW_STRING} is put
+	 * followed by the string as if by {@link #putVarIntString(String)}.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aTableString()}.
+	 * The table is changed right away, if this packet is discarded without being built the changes are rolled back
+	 * but once it has been built it must be written or the connection must be closed.
+	 *
+	 * @param table the outbound {@link StringTable} of the socket this packet will be written to
+	 * @param s the string that will be put in the packet
+	 * @return this
+	 * @throws IllegalArgumentException if this packet has already used a different {@link StringTable}
+	 */
+	PacketOutput putTableString(StringTable table, String s);
+	
+	/**
+	 * Puts the specified bytes in the packet with their length as a varint.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#bytes(oughttoprevail.asyncnetwork.packet.read.PassedNumber)}
+	 * with {@link oughttoprevail.asyncnetwork.packet.read.PassedNumber#VARINT}.
+	 *
+	 * @param bytes the bytes that will be put in the packet
+	 * @return this
+	 */
+	PacketOutput putVarIntBytes(byte[] bytes);
+	
+	/**
+	 * Puts the specified object in the packet after serialization made by specified serializer.
+	 *
+	 * @param object to put in the packet
+	 * @param serializer serializes the specified object
+	 * @return this
+	 */
+	<T> PacketOutput putObject(T object, Serializer<T> serializer);
+	
+	/**
+	 * Returns the total size in bytes of the packet.
+	 *
+	 * @return the total size in bytes of the packet
+	 */
+	int size();
+	
+	/**
+	 * Returns the total amount elements in this packet (each "put" call is an element).
+	 *
+	 * @return the total amount of elements in this packet
+	 */
+	int elements();
+}
\ No newline at end of file
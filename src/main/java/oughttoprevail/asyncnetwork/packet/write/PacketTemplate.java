@@ -0,0 +1,90 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.write;
+
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
+
+/**
+ * A compiled packet layout created by {@link PacketTemplateBuilder#compile()}.
+ * Every packet of the template starts as a copy of the template's bytes and only it's fields are patched,
+ * so sending a packet doesn't replay the elements of a builder.
+ */
+public class PacketTemplate
+{
+	/**
+	 * The bytes of the template with every field set to {@code 0}.
+	 */
+	private final byte[] bytes;
+	private final int[] offsets;
+	private final int[] sizes;
+	
+	PacketTemplate(byte[] bytes, int[] offsets, int[] sizes)
+	{
+		this.bytes = bytes;
+		this.offsets = offsets;
+		this.sizes = sizes;
+	}
+	
+	/**
+	 * Returns a new packet with the bytes of this template, the fields are patched using the returned
+	 * {@link TemplatePacket}.
+	 *
+	 * @return a new packet with the bytes of this template
+	 */
+	public TemplatePacket newPacket()
+	{
+		PooledByteBuffer pooledPacketBuffer = new PooledByteBuffer(bytes.length);
+		pooledPacketBuffer.getByteBuffer().put(bytes);
+		return new TemplatePacket(pooledPacketBuffer, this);
+	}
+	
+	/**
+	 * Returns the offset of the specified field.
+	 *
+	 * @param field the index of the field
+	 * @param size the size in bytes of the value which is put in the field
+	 * @return the offset of the specified field
+	 * @throws IllegalArgumentException if the field's size isn't the specified size
+	 */
+	int offset(int field, int size)
+	{
+		if(sizes[field] != size)
+		{
+			throw new IllegalArgumentException("Field " + field + " is " + sizes[field] + " bytes, not " + size + " bytes!");
+		}
+		return offsets[field];
+	}
+	
+	/**
+	 * Returns the total size in bytes of the packets of this template.
+	 *
+	 * @return the total size in bytes of the packets of this template
+	 */
+	public int getSize()
+	{
+		return bytes.length;
+	}
+	
+	/**
+	 * Returns the amount of fields in this template.
+	 *
+	 * @return the amount of fields in this template
+	 */
+	public int getFields()
+	{
+		return offsets.length;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.write;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import oughttoprevail.asyncnetwork.util.Util;
+
+/**
+ * Describes a {@link PacketTemplate}, constant elements are put like in any {@link WritablePacketBuilder} and
+ * elements which change between packets are added as fields using the {@code field} methods.
+ * Every field method puts a zero placeholder and returns the index of the field used to patch it.
+ * <p>
+ * For example:
+ * <pre>{@code
+ * PacketTemplateBuilder builder = PacketTemplateBuilder.create();
+ * builder.putByte(MOVE_OPCODE);
+ * int entity = builder.fieldInt();
+ * int x = builder.fieldFloat();
+ * int y = builder.fieldFloat();
+ * PacketTemplate move = builder.compile();
+ * move.newPacket().putInt(entity, id).putFloat(x, 1).putFloat(y, 2).writeAndClose(socket);
+ * }</pre>
+ */
+public class PacketTemplateBuilder extends WritablePacketBuilder
+{
+	public static PacketTemplateBuilder create()
+	{
+		return new PacketTemplateBuilder();
+	}
+	
+	/**
+	 * The offset in the packet of every field.
+	 */
+	private int[] offsets = new int[8];
+	/**
+	 * The size in bytes of every field.
+	 */
+	private int[] sizes = new int[8];
+	private int fields;
+	
+	/**
+	 * Adds a field at the current end of the packet.
+	 *
+	 * @param size of the field in bytes
+	 * @return the index of the field
+	 */
+	private int field(int size)
+	{
+		if(fields == offsets.length)
+		{
+			offsets = Arrays.copyOf(offsets, fields << 1);
+			sizes = Arrays.copyOf(sizes, fields << 1);
+		}
+		//the field starts at a new byte
+		alignBits();
+		offsets[fields] = size();
+		sizes[fields] = size;
+		return fields++;
+	}
+	
+	/**
+	 * Puts a byte field in the packet.
+	 *
+	 * @return the index of the field
+	 */
+	public int fieldByte()
+	{
+		int field = field(Util.BYTE_BYTES);
+		putByte(0);
+		return field;
+	}
+	
+	/**
+	 * Puts a char field in the packet.
+	 *
+	 * @return the index of the field
+	 */
+	public int fieldChar()
+	{
+		int field = field(Util.CHAR_BYTES);
+		putChar((char) 0);
+		return field;
+	}
+	
+	/**
+	 * Puts a short field in the packet.
+	 *
+	 * @return the index of the field
+	 */
+	public int fieldShort()
+	{
+		int field = field(Util.SHORT_BYTES);
+		putShort((short) 0);
+		return field;
+	}
+	
+	/**
+	 * Puts an int field in the packet.
+	 *
+	 * @return the index of the field
+	 */
+	public int fieldInt()
+	{
+		int field = field(Util.INT_BYTES);
+		putInt(0);
+		return field;
+	}
+	
+	/**
+	 * Puts a long field in the packet.
+	 *
+	 * @return the index of the field
+	 */
+	public int fieldLong()
+	{
+		int field = field(Util.LONG_BYTES);
+		putLong(0);
+		return field;
+	}
+	
+	/**
+	 * Puts a float field in the packet.
+	 *
+	 * @return the index of the field
+	 */
+	public int fieldFloat()
+	{
+		int field = field(Util.FLOAT_BYTES);
+		putFloat(0);
+		return field;
+	}
+	
+	/**
+	 * Puts a double field in the packet.
+	 *
+	 * @return the index of the field
+	 */
+	public int fieldDouble()
+	{
+		int field = field(Util.DOUBLE_BYTES);
+		putDouble(0);
+		return field;
+	}
+	
+	/**
+	 * Returns a new {@link PacketTemplate} of the entered elements and fields.
+	 *
+	 * @return a new {@link PacketTemplate} of the entered elements and fields
+	 */
+	public PacketTemplate compile()
+	{
+		WritablePacket packet = build();
+		try
+		{
+			ByteBuffer packetBuffer = packet.getByteBuffer().duplicate();
+			packetBuffer.flip();
+			byte[] bytes = new byte[packetBuffer.remaining()];
+			packetBuffer.get(bytes);
+			return new PacketTemplate(bytes, Arrays.copyOf(offsets, fields), Arrays.copyOf(sizes, fields));
+		} finally
+		{
+			packet.close();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.write;
+
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
+import oughttoprevail.asyncnetwork.util.Util;
+
+/**
+ * A packet of a {@link PacketTemplate}, fields are patched with absolute puts at the offsets of the template.
+ */
+public class TemplatePacket extends WritablePacket
+{
+	private final PacketTemplate template;
+	
+	TemplatePacket(PooledByteBuffer pooledPacketBuffer, PacketTemplate template)
+	{
+		super(pooledPacketBuffer);
+		this.template = template;
+	}
+	
+	/**
+	 * Puts the specified byte in the specified byte field.
+	 *
+	 * @param field the index of the field
+	 * @param b the byte that will be put in the field
+	 * @return this
+	 */
+	public TemplatePacket putByte(int field, int b)
+	{
+		getByteBuffer().put(template.offset(field, Util.BYTE_BYTES), (byte) b);
+		return this;
+	}
+	
+	/**
+	 * Puts the specified boolean in the specified byte field.
+	 *
+	 * @param field the index of the field
+	 * @param b the boolean that will be put in the field
+	 * @return this
+	 */
+	public TemplatePacket putBoolean(int field, boolean b)
+	{
+		return putByte(field, Util.toByte(b));
+	}
+	
+	/**
+	 * Puts the specified char in the specified char field.
+	 *
+	 * @param field the index of the field
+	 * @param c the char that will be put in the field
+	 * @return this
+	 */
+	public TemplatePacket putChar(int field, char c)
+	{
+		getByteBuffer().putChar(template.offset(field, Util.CHAR_BYTES), c);
+		return this;
+	}
+	
+	/**
+	 * Puts the specified short in the specified short field.
+	 *
+	 * @param field the index of the field
+	 * @param s the short that will be put in the field
+	 * @return this
+	 */
+	public TemplatePacket putShort(int field, short s)
+	{
+		getByteBuffer().putShort(template.offset(field, Util.SHORT_BYTES), s);
+		return this;
+	}
+	
+	/**
+	 * Puts the specified int in the specified int field.
+	 *
+	 * @param field the index of the field
+	 * @param i the int that will be put in the field
+	 * @return this
+	 */
+	public TemplatePacket putInt(int field, int i)
+	{
+		getByteBuffer().putInt(template.offset(field, Util.INT_BYTES), i);
+		return this;
+	}
+	
+	/**
+	 * Puts the specified long in the specified long field.
+	 *
+	 * @param field the index of the field
+	 * @param l the long that will be put in the field
+	 * @return this
+	 */
+	public TemplatePacket putLong(int field, long l)
+	{
+		getByteBuffer().putLong(template.offset(field, Util.LONG_BYTES), l);
+		return this;
+	}
+	
+	/**
+	 * Puts the specified float in the specified float field.
+	 *
+	 * @param field the index of the field
+	 * @param f the float that will be put in the field
+	 * @return this
+	 */
+	public TemplatePacket putFloat(int field, float f)
+	{
+		getByteBuffer().putFloat(template.offset(field, Util.FLOAT_BYTES), f);
+		return this;
+	}
+	
+	/**
+	 * Puts the specified double in the specified double field.
+	 *
+	 * @param field the index of the field
+	 * @param d the double that will be put in the field
+	 * @return this
+	 */
+	public TemplatePacket putDouble(int field, double d)
+	{
+		getByteBuffer().putDouble(template.offset(field, Util.DOUBLE_BYTES), d);
+		return this;
+	}
+}
\ No newline at end of file
@@ -21,15 +21,44 @@ import java.util.Collection;
 import oughttoprevail.asyncnetwork.Socket;
 import oughttoprevail.asyncnetwork.client.ClientSocket;
 import oughttoprevail.asyncnetwork.exceptions.PacketClosedException;
+import oughttoprevail.asyncnetwork.exceptions.SocketClosedException;
 import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 import oughttoprevail.asyncnetwork.util.Consumer;
 import oughttoprevail.asyncnetwork.util.Validator;
 
 public class WritablePacket
 {
+	/**
+	 * Returns a packet with the elements of the specified builder which is never closed.
+	 * The packet's buffer is a read only direct buffer owned by the packet instead of a pooled buffer, so the packet
+	 * can be written to any number of sockets at the same time for as long as it is referenced and writing it
+	 * doesn't retain or release anything. This is meant for constant packets which are kept in a static field.
+	 * Closing the returned packet does nothing.
+	 *
+	 * @param builder the builder of the packet
+	 * @return an immutable packet with the elements of the specified builder
+	 */
+	public static WritablePacket immutable(WritablePacketBuilder builder)
+	{
+		Validator.requireNonNull(builder, "Builder");
+		WritablePacket built = builder.build();
+		try
+		{
+			ByteBuffer builtBuffer = built.getByteBuffer().duplicate();
+			builtBuffer.flip();
+			ByteBuffer packetBuffer = ByteBuffer.allocateDirect(builtBuffer.remaining());
+			packetBuffer.put(builtBuffer);
+			return new ImmutableWritablePacket(packetBuffer.asReadOnlyBuffer());
+		} finally
+		{
+			built.close();
+		}
+	}
+	
 	/**
 	 * The {@link PooledByteBuffer} the {@link #packetBuffer} is taken from.
 	 * This will be given back to the {@link PooledByteBuffer} when the packet has closed.
+	 * This is {@code null} if the packet is immutable.
 	 */
 	private PooledByteBuffer pooledPacketBuffer;
 	/**
@@ -44,6 +73,16 @@ public class WritablePacket
 		this.packetBuffer = pooledPacketBuffer.getByteBuffer();
 	}
 	
+	/**
+	 * Creates a packet of the specified buffer which isn't pooled.
+	 *
+	 * @param packetBuffer the buffer of the packet, the position is at the end of the packet
+	 */
+	WritablePacket(ByteBuffer packetBuffer)
+	{
+		this.packetBuffer = packetBuffer;
+	}
+	
 	private void ensureNotClosed()
 	{
 		if(isClosed())
@@ -82,7 +121,7 @@ public class WritablePacket
 		{
 			if(socket != null)
 			{
-				socket.write(packetBuffer.duplicate());
+				socket.write(packetBuffer.duplicate(), pooledPacketBuffer, null);
 			}
 		}
 		return this;
@@ -106,7 +145,7 @@ public class WritablePacket
 		{
 			if(socket != null)
 			{
-				socket.write(packetBuffer.duplicate(), onWriteFinished);
+				socket.write(packetBuffer.duplicate(), pooledPacketBuffer, onWriteFinished);
 			}
 		}
 		return this;
@@ -125,7 +164,7 @@ public class WritablePacket
 		{
 			if(socket != null)
 			{
-				socket.write(packetBuffer.duplicate());
+				socket.write(packetBuffer.duplicate(), pooledPacketBuffer, null);
 			}
 		}
 		return this;
@@ -149,7 +188,7 @@ public class WritablePacket
 		{
 			if(socket != null)
 			{
-				socket.write(packetBuffer.duplicate(), onWriteFinished);
+				socket.write(packetBuffer.duplicate(), pooledPacketBuffer, onWriteFinished);
 			}
 		}
 		return this;
@@ -205,6 +244,102 @@ public class WritablePacket
 		write(onWriteFinished, sockets).close();
 	}
 	
+	/**
+	 * Writes this packet to the specified sockets and then closes this packet.
+	 * Every socket is given a read only view of the packet's buffer, the buffer is given back to the pool once
+	 * every write has either finished or failed and then the returned {@link Broadcast} is done.
+	 *
+	 * @param sockets who write the packet
+	 * @return the progress of the broadcast
+	 */
+	public Broadcast broadcast(Socket... sockets)
+	{
+		ensureWritable(sockets);
+		Broadcast broadcast = start();
+		for(Socket socket : sockets)
+		{
+			broadcast(broadcast, socket);
+		}
+		finish(broadcast);
+		return broadcast;
+	}
+	
+	/**
+	 * Writes this packet to the specified sockets and then closes this packet.
+	 * Every socket is given a read only view of the packet's buffer, the buffer is given back to the pool once
+	 * every write has either finished or failed and then the returned {@link Broadcast} is done.
+	 *
+	 * @param sockets who write the packet
+	 * @return the progress of the broadcast
+	 */
+	public Broadcast broadcast(Collection<? extends Socket> sockets)
+	{
+		ensureWritable(sockets);
+		Broadcast broadcast = start();
+		for(Socket socket : sockets)
+		{
+			broadcast(broadcast, socket);
+		}
+		finish(broadcast);
+		return broadcast;
+	}
+	
+	/**
+	 * Creates a {@link Broadcast} which is done once the packet's buffer has been given back to the pool.
+	 *
+	 * @return a new {@link Broadcast} of this packet
+	 */
+	private Broadcast start()
+	{
+		Broadcast broadcast = new Broadcast();
+		if(pooledPacketBuffer != null)
+		{
+			pooledPacketBuffer.onRelease(broadcast::finish);
+		}
+		return broadcast;
+	}
+	
+	/**
+	 * Closes this packet once every socket of the specified broadcast has been given the packet,
+	 * the broadcast is done once the packet's buffer has been given back to the pool.
+	 * An immutable packet is never given back to the pool so it's broadcast is done once every socket has been given
+	 * the packet.
+	 *
+	 * @param broadcast the broadcast of this packet
+	 */
+	private void finish(Broadcast broadcast)
+	{
+		if(pooledPacketBuffer == null)
+		{
+			broadcast.finish();
+		} else
+		{
+			close();
+		}
+	}
+	
+	/**
+	 * Writes this packet to the specified socket as part of the specified broadcast, closed sockets are skipped.
+	 *
+	 * @param broadcast the broadcast the write belongs to
+	 * @param socket who writes the packet
+	 */
+	private void broadcast(Broadcast broadcast, Socket socket)
+	{
+		if(socket == null || socket.isClosed())
+		{
+			return;
+		}
+		broadcast.add();
+		try
+		{
+			socket.write(packetBuffer.asReadOnlyBuffer(), pooledPacketBuffer, broadcast.onWriteFinished);
+		} catch(SocketClosedException ignored)
+		{
+			//the socket has closed since it was checked
+		}
+	}
+	
 	/**
 	 * Returns this packet as a {@link ByteBuffer}.
 	 *
@@ -218,6 +353,7 @@ public class WritablePacket
 	
 	/**
 	 * Closes this packet.
+	 * Writes of this packet which haven't finished yet keep the packet's buffer until they have.
 	 */
 	public void close()
 	{
@@ -16,22 +16,86 @@ limitations under the License.
 package oughttoprevail.asyncnetwork.packet.write;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
 import oughttoprevail.asyncnetwork.packet.Serializer;
+import oughttoprevail.asyncnetwork.packet.StringTable;
 import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 import oughttoprevail.asyncnetwork.util.BiConsumer;
 import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.Utf8;
 import oughttoprevail.asyncnetwork.util.Util;
 
-public class WritablePacketBuilder
+public class WritablePacketBuilder implements PacketOutput
 {
+	/**
+	 * The builder returned by {@link #local()} for every thread.
+	 */
+	private static final ThreadLocal<DirectWritablePacketBuilder> LOCAL = new ThreadLocal<DirectWritablePacketBuilder>()
+	{
+		@Override
+		protected DirectWritablePacketBuilder initialValue()
+		{
+			return new DirectWritablePacketBuilder();
+		}
+	};
+	
 	public static WritablePacketBuilder create()
 	{
 		return new WritablePacketBuilder();
 	}
 	
+	/**
+	 * Returns a new builder which puts every element in a growable pooled buffer right away
+	 * instead of enqueuing an instruction for every element and replaying them in {@link #build()}.
+	 * Elements put in a builder which is never built are kept from the pool until the builder is garbage collected.
+	 *
+	 * @return a new builder which puts every element in a pooled buffer right away
+	 */
+	public static WritablePacketBuilder direct()
+	{
+		return new DirectWritablePacketBuilder();
+	}
+	
+	/**
+	 * Returns the {@link #direct()} builder of the current thread after discarding every element put in it since
+	 * it was last built, the builder starts with a buffer the size of the last packet it built.
+	 * The builder must be built before {@link #local()} is invoked again by the same thread,
+	 * so it mustn't be used to build a packet while building another one (for example inside a {@link Serializer}).
+	 *
+	 * @return the {@link #direct()} builder of the current thread
+	 */
+	public static WritablePacketBuilder local()
+	{
+		return LOCAL.get().reset();
+	}
+	
+	/**
+	 * Validates the range of {@link #putBytes(byte[], int, int)}.
+	 *
+	 * @param bytes the bytes that will be put in the packet
+	 * @param offset index of the first byte that will be put in the packet
+	 * @param length index after the last byte that will be put in the packet
+	 * @return the amount of bytes in the range
+	 */
+	static int checkRange(byte[] bytes, int offset, int length)
+	{
+		int totalLength = length - offset;
+		if(offset < 0 || length < 0 || length <= offset || bytes.length < length)
+		{
+			throw new IndexOutOfBoundsException("Parameters (bytesLength: " +
+			                                    bytes.length +
+			                                    ", offset: " +
+			                                    offset +
+			                                    ", length: " +
+			                                    length +
+			                                    ") are wrong!");
+		}
+		return totalLength;
+	}
+	
 	/**
 	 * A queue of instructions of how to create a {@link ByteBuffer}
 	 * for a packet.
@@ -41,6 +105,23 @@ public class WritablePacketBuilder
 	 * Size all {@link #instructions} put in the {@link ByteBuffer}.
 	 */
 	private int size;
+	/**
+	 * Bits put by {@link #putBits(long, int)} which don't fill a whole byte yet, the first bit put is the lowest bit.
+	 */
+	private long pendingBits;
+	/**
+	 * The amount of {@link #pendingBits}, always less than 8.
+	 */
+	private int pendingBitCount;
+	/**
+	 * The {@link StringTable} used by {@link #putTableString(StringTable, String)} since this packet was started
+	 * or {@code null} if none was used.
+	 */
+	private StringTable stringTable;
+	/**
+	 * The {@link StringTable#mark()} of the {@link #stringTable} before this packet used it.
+	 */
+	private int stringTableMark;
 	
 	public WritablePacketBuilder()
 	{
@@ -54,6 +135,19 @@ public class WritablePacketBuilder
 		putBytes(Util.getBytes(byteBuffer, byteBuffer.remaining()));
 	}
 	
+	/**
+	 * Byte aligns the packet then enqueues the specified instruction.
+	 *
+	 * @param instruction to enqueue to instructions deque
+	 * @param instructionSize is how much in bytes this instruction will add
+	 * @return this
+	 */
+	private WritablePacketBuilder enqueue(Consumer<ByteBuffer> instruction, int instructionSize)
+	{
+		alignBits();
+		return append(instruction, instructionSize);
+	}
+	
 	/**
 	 * Enqueues the specified instruction and adds the specified instructionSize to
 	 * the current {@link #size}.
@@ -62,7 +156,7 @@ public class WritablePacketBuilder
 	 * @param instructionSize is how much in bytes this instruction will add
 	 * @return this
 	 */
-	private WritablePacketBuilder enqueue(Consumer<ByteBuffer> instruction, int instructionSize)
+	private WritablePacketBuilder append(Consumer<ByteBuffer> instruction, int instructionSize)
 	{
 		size += instructionSize;
 		instructions.addLast(instruction);
@@ -95,24 +189,120 @@ public class WritablePacketBuilder
 	 * Puts the specified bytes in the packet.
 	 *
 	 * @param bytes the bytes that will be put in the packet
-	 * @param offset the offset that will be used when putting in the packet
-	 * @param length the length that will be used when putting in the packet
+	 * @param offset index of the first byte that will be put in the packet
+	 * @param length index after the last byte that will be put in the packet
 	 * @return this
 	 */
 	public WritablePacketBuilder putBytes(byte[] bytes, int offset, int length)
 	{
-		int totalLength = length - offset;
-		if(offset < 0 || length < 0 || length <= offset || bytes.length < totalLength)
+		int totalLength = checkRange(bytes, offset, length);
+		return enqueue(byteBuffer -> byteBuffer.put(bytes, offset, totalLength), totalLength);
+	}
+	
+	/**
+	 * Puts the specified ints in the packet in big-endian byte order.
+	 *
+	 * @param ints the ints that will be put in the packet
+	 * @return this
+	 */
+	public WritablePacketBuilder putInts(int[] ints)
+	{
+		return putInts(ints, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Puts the specified ints in the packet in the specified byte order with a single bulk copy.
+	 *
+	 * @param ints the ints that will be put in the packet
+	 * @param order the byte order of the put ints
+	 * @return this
+	 */
+	public WritablePacketBuilder putInts(int[] ints, ByteOrder order)
+	{
+		return putArray(byteBuffer -> byteBuffer.asIntBuffer().put(ints), ints.length * Util.INT_BYTES, order);
+	}
+	
+	/**
+	 * Puts the specified floats in the packet in big-endian byte order.
+	 *
+	 * @param floats the floats that will be put in the packet
+	 * @return this
+	 */
+	public WritablePacketBuilder putFloats(float[] floats)
+	{
+		return putFloats(floats, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Puts the specified floats in the packet in the specified byte order with a single bulk copy.
+	 *
+	 * @param floats the floats that will be put in the packet
+	 * @param order the byte order of the put floats
+	 * @return this
+	 */
+	public WritablePacketBuilder putFloats(float[] floats, ByteOrder order)
+	{
+		return putArray(byteBuffer -> byteBuffer.asFloatBuffer().put(floats), floats.length * Util.FLOAT_BYTES, order);
+	}
+	
+	/**
+	 * Puts the specified longs in the packet in big-endian byte order.
+	 *
+	 * @param longs the longs that will be put in the packet
+	 * @return this
+	 */
+	public WritablePacketBuilder putLongs(long[] longs)
+	{
+		return putLongs(longs, ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Puts the specified longs in the packet in the specified byte order with a single bulk copy.
+	 *
+	 * @param longs the longs that will be put in the packet
+	 * @param order the byte order of the put longs
+	 * @return this
+	 */
+	public WritablePacketBuilder putLongs(long[] longs, ByteOrder order)
+	{
+		return putArray(byteBuffer -> byteBuffer.asLongBuffer().put(longs), longs.length * Util.LONG_BYTES, order);
+	}
+	
+	/**
+	 * Puts an array in the packet using the specified viewPut which bulk copies the array into a view of the
+	 * {@link ByteBuffer} created in the specified byte order.
+	 *
+	 * @param viewPut puts the array in a view of the {@link ByteBuffer}
+	 * @param bytes the size in bytes of the array
+	 * @param order the byte order of the array
+	 * @return this
+	 */
+	WritablePacketBuilder putArray(Consumer<ByteBuffer> viewPut, int bytes, ByteOrder order)
+	{
+		return enqueue(byteBuffer -> putArray(byteBuffer, viewPut, bytes, order), bytes);
+	}
+	
+	/**
+	 * Invokes the specified viewPut with the specified byteBuffer in the specified byte order then restores the
+	 * byteBuffer's byte order and moves it's position past the put array.
+	 *
+	 * @param byteBuffer the {@link ByteBuffer} to put the array in
+	 * @param viewPut puts the array in a view of the {@link ByteBuffer}
+	 * @param bytes the size in bytes of the array
+	 * @param order the byte order of the array
+	 */
+	static void putArray(ByteBuffer byteBuffer, Consumer<ByteBuffer> viewPut, int bytes, ByteOrder order)
+	{
+		ByteOrder previousOrder = byteBuffer.order();
+		byteBuffer.order(order);
+		try
 		{
-			throw new IndexOutOfBoundsException("Parameters (bytesLength: " +
-			                                    bytes.length +
-			                                    ", offset: " +
-			                                    offset +
-			                                    ", length: " +
-			                                    length +
-			                                    ") are wrong!");
+			viewPut.accept(byteBuffer);
+		} finally
+		{
+			byteBuffer.order(previousOrder);
 		}
-		return enqueue(byteBuffer -> byteBuffer.put(bytes, offset, length), totalLength);
+		byteBuffer.position(byteBuffer.position() + bytes);
 	}
 	
 	/**
@@ -181,6 +371,164 @@ public class WritablePacketBuilder
 		return enqueue(byteBuffer -> byteBuffer.putShort(s), Util.SHORT_BYTES);
 	}
 	
+	/**
+	 * Puts the specified int in the packet as a varint, smaller values take less bytes.
+	 * The int is encoded as an unsigned value so negative ints take 5 bytes, use {@link #putZigZagInt(int)} for
+	 * ints which may be negative.
+	 *
+	 * @param i the int that will be put in the packet
+	 * @return this
+	 */
+	public WritablePacketBuilder putVarInt(int i)
+	{
+		return putVarLong(i & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Puts the specified long in the packet as a varint, smaller values take less bytes.
+	 * The long is encoded as an unsigned value so negative longs take 10 bytes, use {@link #putZigZagLong(long)} for
+	 * longs which may be negative.
+	 *
+	 * @param l the long that will be put in the packet
+	 * @return this
+	 */
+	public WritablePacketBuilder putVarLong(long l)
+	{
+		return enqueue(byteBuffer -> Util.putVarLong(byteBuffer, l), Util.varLongSize(l));
+	}
+	
+	/**
+	 * Puts the specified int in the packet as a zigzag encoded varint, values closer to 0 take less bytes.
+	 *
+	 * @param i the int that will be put in the packet
+	 * @return this
+	 */
+	public WritablePacketBuilder putZigZagInt(int i)
+	{
+		return putVarInt(Util.encodeZigZag(i));
+	}
+	
+	/**
+	 * Puts the specified long in the packet as a zigzag encoded varint, values closer to 0 take less bytes.
+	 *
+	 * @param l the long that will be put in the packet
+	 * @return this
+	 */
+	public WritablePacketBuilder putZigZagLong(long l)
+	{
+		return putVarLong(Util.encodeZigZag(l));
+	}
+	
+	/**
+	 * Puts the lowest bits of the specified value in the packet without aligning them to a byte, the bits are
+	 * packed right after the previously put bits, lowest bit first.
+	 * Once a byte has been filled it is put in the packet, a partially filled byte is padded with zeros and put
+	 * before the next byte aligned element or when the packet is built.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aBits(int)} or
+	 * {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aLongBits(int)}.
+	 *
+	 * @param value the value whose lowest bits will be put in the packet
+	 * @param bits the amount of bits to put, between 1 and 64
+	 * @return this
+	 */
+	public WritablePacketBuilder putBits(long value, int bits)
+	{
+		if(bits <= 0 || bits > Long.SIZE)
+		{
+			throw new IllegalArgumentException("Bits must be between 1 and 64!");
+		}
+		if(bits > Integer.SIZE)
+		{
+			//keep the pending bits within a long
+			putBits(value, Integer.SIZE);
+			return putBits(value >>> Integer.SIZE, bits - Integer.SIZE);
+		}
+		pendingBits |= (value & (-1L >>> (Long.SIZE - bits))) << pendingBitCount;
+		pendingBitCount += bits;
+		while(pendingBitCount >= Byte.SIZE)
+		{
+			byte b = (byte) pendingBits;
+			pendingBits >>>= Byte.SIZE;
+			pendingBitCount -= Byte.SIZE;
+			putBitsByte(b);
+		}
+		return this;
+	}
+	
+	/**
+	 * Puts the specified boolean in the packet as a single bit.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aBit()}.
+	 *
+	 * @param b the boolean that will be put in the packet
+	 * @return this
+	 * @see #putBits(long, int)
+	 */
+	public WritablePacketBuilder putBit(boolean b)
+	{
+		return putBits(b ? 1 : 0, 1);
+	}
+	
+	/**
+	 * Puts the specified float in the packet quantized to the specified amount of bits.
+	 * The float is clamped between the specified min and max and mapped to one of {@code 2^bits} evenly
+	 * spaced values.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aQuantizedFloat(float, float, int)}
+	 * with the same min, max and bits.
+	 *
+	 * @param f the float that will be put in the packet
+	 * @param min the lowest value the float may have
+	 * @param max the highest value the float may have
+	 * @param bits the amount of bits to put, between 1 and 32
+	 * @return this
+	 * @see #putBits(long, int)
+	 */
+	public WritablePacketBuilder putQuantizedFloat(float f, float min, float max, int bits)
+	{
+		return putBits(Util.quantize(f, min, max, bits), bits);
+	}
+	
+	/**
+	 * Puts the specified byte of bits in the packet without aligning the packet.
+	 *
+	 * @param b a byte filled by {@link #putBits(long, int)}
+	 */
+	void putBitsByte(byte b)
+	{
+		append(byteBuffer -> byteBuffer.put(b), Util.BYTE_BYTES);
+	}
+	
+	/**
+	 * Puts the partially filled byte of bits in the packet if there is one so the next element starts at a new byte.
+	 */
+	void alignBits()
+	{
+		if(pendingBitCount != 0)
+		{
+			byte b = (byte) pendingBits;
+			discardBits();
+			putBitsByte(b);
+		}
+	}
+	
+	/**
+	 * Discards the partially filled byte of bits.
+	 */
+	void discardBits()
+	{
+		pendingBits = 0;
+		pendingBitCount = 0;
+	}
+	
+	/**
+	 * Returns the amount of bytes the partially filled byte of bits will take once the packet is byte aligned.
+	 *
+	 * @return {@code 1} if there is a partially filled byte of bits else {@code 0}
+	 */
+	int pendingBytes()
+	{
+		return pendingBitCount == 0 ? 0 : 1;
+	}
+	
 	/**
 	 * Puts the specified boolean in the packet.
 	 *
@@ -233,9 +581,72 @@ public class WritablePacketBuilder
 	 */
 	public WritablePacketBuilder putString(String s)
 	{
-		byte[] bytes = s.getBytes(Util.UTF_8);
-		int length = bytes.length;
-		return putInt(length).putBytes(bytes);
+		int length = Utf8.length(s);
+		return enqueue(byteBuffer ->
+		{
+			byteBuffer.putInt(length);
+			Utf8.put(byteBuffer, s);
+		}, Util.INT_BYTES + length);
+	}
+	
+	/**
+	 * Puts the specified string in the packet with it's length as a varint.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aString(oughttoprevail.asyncnetwork.packet.read.PassedNumber)}
+	 * with {@link oughttoprevail.asyncnetwork.packet.read.PassedNumber#VARINT}.
+	 *
+	 * @param s the string that will be put in the packet
+	 * @return this
+	 */
+	public WritablePacketBuilder putVarIntString(String s)
+	{
+		int length = Utf8.length(s);
+		return enqueue(byteBuffer ->
+		{
+			Util.putVarLong(byteBuffer, length);
+			Utf8.put(byteBuffer, s);
+		}, Util.varLongSize(length) + length);
+	}
+	
+	/**
+	 * Puts the specified string in the packet using the specified {@link StringTable}.
+	 * If the string is in the table only it's id is put as a varint, else {@link StringTable#NEW_STRING} is put
+	 * followed by the string as if by {@link #putVarIntString(String)}.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#aTableString()}.
+	 * The table is changed right away, if this packet is discarded without being built the changes are rolled back
+	 * but once it has been built it must be written or the connection must be closed.
+	 *
+	 * @param table the outbound {@link StringTable} of the socket this packet will be written to
+	 * @param s the string that will be put in the packet
+	 * @return this
+	 * @throws IllegalArgumentException if this packet has already used a different {@link StringTable}
+	 */
+	public WritablePacketBuilder putTableString(StringTable table, String s)
+	{
+		if(stringTable != table)
+		{
+			if(stringTable != null)
+			{
+				throw new IllegalArgumentException("A packet can only use a single StringTable!");
+			}
+			stringTableMark = table.mark();
+			stringTable = table;
+		}
+		int id = table.lookup(s);
+		putVarInt(id);
+		return id == StringTable.NEW_STRING ? putVarIntString(s) : this;
+	}
+	
+	/**
+	 * Puts the specified bytes in the packet with their length as a varint.
+	 * This is read by {@link oughttoprevail.asyncnetwork.packet.read.ReadablePacketBuilder#bytes(oughttoprevail.asyncnetwork.packet.read.PassedNumber)}
+	 * with {@link oughttoprevail.asyncnetwork.packet.read.PassedNumber#VARINT}.
+	 *
+	 * @param bytes the bytes that will be put in the packet
+	 * @return this
+	 */
+	public WritablePacketBuilder putVarIntBytes(byte[] bytes)
+	{
+		return putVarInt(bytes.length).putBytes(bytes);
 	}
 	
 	/**
@@ -269,6 +680,30 @@ public class WritablePacketBuilder
 		return this;
 	}
 	
+	/**
+	 * Keeps the changes this packet has made to it's {@link #stringTable}, invoked once the packet has been built.
+	 */
+	void commitStringTable()
+	{
+		if(stringTable != null)
+		{
+			stringTable.commit(stringTableMark);
+			stringTable = null;
+		}
+	}
+	
+	/**
+	 * Undoes the changes this packet has made to it's {@link #stringTable}, invoked once the packet has been discarded.
+	 */
+	void rollbackStringTable()
+	{
+		if(stringTable != null)
+		{
+			stringTable.rollback(stringTableMark);
+			stringTable = null;
+		}
+	}
+	
 	/**
 	 * Returns the total size in bytes of the packet.
 	 *
@@ -276,7 +711,7 @@ public class WritablePacketBuilder
 	 */
 	public int size()
 	{
-		return size;
+		return size + pendingBytes();
 	}
 	
 	/**
@@ -296,6 +731,8 @@ public class WritablePacketBuilder
 	 */
 	public WritablePacket build()
 	{
+		alignBits();
+		commitStringTable();
 		PooledByteBuffer pooledPacketBuffer = new PooledByteBuffer(size);
 		ByteBuffer packetBuffer = pooledPacketBuffer.getByteBuffer();
 		for(Consumer<ByteBuffer> instruction : instructions)
@@ -23,21 +23,37 @@
  */
 package oughttoprevail.asyncnetwork.pool;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.ArrayDeque;
-import java.util.Collection;
-import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.NavigableMap;
-import java.util.TreeMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.ThreadCreator;
 import oughttoprevail.asyncnetwork.util.Util;
+import oughttoprevail.asyncnetwork.util.Validator;
 
 /**
  * A direct {@link ByteBuffer} pool
  * <br><br>
  * {@link ByteBuffer}s dispatched from this pool will be reused, resulting in significant performance improvements from
  * not having to constantly allocate new {@link ByteBuffer}s.
+ * <br><br>
+ * Buffers are allocated in power of two size classes, a requested size is rounded up to it's size class
+ * and the buffer is sliced to the requested size.
+ * Every thread has it's own {@link PoolThreadCache} for small size classes and is assigned one of a few shared
+ * {@link PoolArena}s, so threads rarely contend on the same lock.
+ * Sizes bigger than the biggest size class aren't pooled.
+ * If {@link PoolConfiguration#isSlabs()} then new buffers are sliced from large slabs using a {@link SlabAllocator},
+ * if {@link PoolConfiguration#getMappedSize()} isn't {@code 0} then the slabs are taken from a {@link MappedRegion}.
  *
  * @author Jacob G.
  * @since February 23, 2019
@@ -45,9 +61,15 @@ import oughttoprevail.asyncnetwork.util.Util;
 class ByteBufferPool
 {
 	/**
-	 * Static INSTANCE of this {@link ByteBufferPool}.
+	 * Holds the static INSTANCE of this {@link ByteBufferPool} so it's only created when first used.
 	 */
-	private static final ByteBufferPool INSTANCE = new ByteBufferPool();
+	private static class Holder
+	{
+		/**
+		 * Static INSTANCE of this {@link ByteBufferPool}.
+		 */
+		private static final ByteBufferPool INSTANCE = new ByteBufferPool(useConfiguration());
+	}
 	
 	/**
 	 * Returns a static instance of this {@link ByteBufferPool}.
@@ -56,119 +78,438 @@ class ByteBufferPool
 	 */
 	static ByteBufferPool getInstance()
 	{
-		return INSTANCE;
+		return Holder.INSTANCE;
 	}
 	
-	private static final int POWER_MAX = 13;
 	/**
-	 * Max direct buffer to be allocated, equals to 8 mega bytes.
+	 * The configuration the static instance is created with.
 	 */
-	private static final int EIGHT_MB = 1000000 * 8;
+	private static PoolConfiguration configuration = PoolConfiguration.DEFAULT;
 	/**
-	 * Max range between buffers that should be created.
+	 * Whether the static instance has been created.
 	 */
-	private static final int RANGE = 512;
+	private static boolean created;
 	
 	/**
-	 * The buffer map, the key is the size of the buffers in the value,
-	 * the value is the {@link Deque} containing the buffers.
+	 * Sets the configuration the static instance is created with.
+	 *
+	 * @param configuration the configuration the static instance will be created with
+	 * @throws IllegalStateException if the static instance has already been created
 	 */
-	private final NavigableMap<Integer, Deque<ByteBuffer>> buffers = new TreeMap<>();
+	static synchronized void configure(PoolConfiguration configuration)
+	{
+		Validator.requireNonNull(configuration, "Configuration");
+		if(created)
+		{
+			throw new IllegalStateException("Cannot configure the pool after it has been used!");
+		}
+		ByteBufferPool.configuration = configuration;
+	}
 	
 	/**
-	 * Current size of direct {@link ByteBuffer} allocated by this {@link ByteBufferPool}.
+	 * Consumers of exceptions reported by the pool.
 	 */
-	private int size;
+	private static final List<Consumer<Throwable>> onException = new CopyOnWriteArrayList<>();
 	
-	private ByteBufferPool()
+	/**
+	 * Invokes the specified consumer with exceptions reported by the pool.
+	 *
+	 * @param onException the consumer that will be called with the reported exceptions
+	 */
+	static void onException(Consumer<Throwable> onException)
 	{
-		for(int i = 1; i <= POWER_MAX; i++)
-		{
-			//set the buffer size powered by 2
-			int bufferSize = 1 << i;
-			Deque<ByteBuffer> deque = new ArrayDeque<>();
-			deque.offerLast(create(bufferSize));
-			buffers.put(bufferSize, deque);
-		}
+		ByteBufferPool.onException.add(onException);
+	}
+	
+	private static synchronized PoolConfiguration useConfiguration()
+	{
+		created = true;
+		return configuration;
 	}
 	
 	/**
-	 * Takes a more (no bigger than {@code size + ByteBufferPool.RANGE}) or equal to the specified size direct {@link ByteBuffer} from the queue if one
-	 * exists, if one doesn't exist a new {@link ByteBuffer} with the specified size is created.
-	 *
-	 * @param size of the requested {@link ByteBuffer}
-	 * @return a direct {@link ByteBuffer} from the queue if one
-	 * exists, if one doesn't exist a new {@link ByteBuffer} is created
+	 * The power of two of the smallest size class.
 	 */
-	public ByteBufferElement take(int size)
+	private static final int MIN_POWER = 4;
+	/**
+	 * The power of two of the biggest size class, bigger buffers aren't pooled.
+	 */
+	private static final int MAX_POWER = 22;
+	/**
+	 * The power of two of the biggest size class which is created when this pool is created.
+	 */
+	private static final int POWER_MAX = 13;
+	/**
+	 * The biggest size which is cached by the {@link PoolThreadCache}s, bigger size classes go straight to the
+	 * {@link PoolArena}s.
+	 */
+	static final int MAX_CACHED_SIZE = 1 << 16;
+	/**
+	 * The amount of size classes.
+	 */
+	private static final int SIZE_CLASSES = MAX_POWER - MIN_POWER + 1;
+	/**
+	 * The name used when creating the trimming {@link Thread}.
+	 */
+	private static final String TRIM_THREAD_NAME = "ByteBufferPoolTrimmer";
+	/**
+	 * The name used when creating a warm up {@link Thread}.
+	 */
+	private static final String WARM_UP_THREAD_NAME = "ByteBufferPoolWarmUp";
+	
+	/**
+	 * The shared {@link PoolArena}s.
+	 */
+	private final PoolArena[] arenas;
+	/**
+	 * Used to assign {@link PoolArena}s to threads in a round robin.
+	 */
+	private final AtomicInteger nextArena = new AtomicInteger();
+	/**
+	 * The {@link PoolThreadCache} of every thread.
+	 */
+	private final ThreadLocal<PoolThreadCache> threadCache;
+	/**
+	 * Every {@link PoolThreadCache} which hasn't been drained yet, caches of dead threads are drained by
+	 * {@link #drainDeadCaches()} on the trim thread so their buffers aren't lost with the thread.
+	 */
+	private final Queue<PoolThreadCache> threadCaches = new ConcurrentLinkedQueue<>();
+	/**
+	 * The biggest size which is cached by the {@link PoolThreadCache}s, no more than {@link #MAX_CACHED_SIZE}
+	 * and no more than the configured thread cache size.
+	 */
+	private final int maxCachedSize;
+	/**
+	 * The max amount of bytes of a single size class each {@link PoolThreadCache} may hold.
+	 */
+	private final int threadCacheSize;
+	/**
+	 * Current size of direct {@link ByteBuffer} retained by the {@link PoolArena}s of this {@link ByteBufferPool}.
+	 */
+	private final AtomicLong size = new AtomicLong();
+	/**
+	 * The {@link SlabAllocator} new buffers are allocated from or {@code null} if slabs aren't used.
+	 */
+	private final SlabAllocator slabAllocator;
+	/**
+	 * Max amount of bytes to be retained by the {@link PoolArena}s.
+	 */
+	private final long maxRetained;
+	private final LeakDetector leakDetector;
+	private final PoolStatistics statistics;
+	
+	private ByteBufferPool(PoolConfiguration configuration)
 	{
-		synchronized(buffers)
+		//slots are found by their address so slabs can only be used if it can be read
+		boolean addressable = Util.address(ByteBuffer.allocateDirect(1)) != -1;
+		MappedRegion region = null;
+		if(addressable && configuration.getMappedSize() > 0)
 		{
-			Entry<Integer, Deque<ByteBuffer>> entry = buffers.ceilingEntry(size);
-			
-			// If entry is null, there exists no ByteBuffer within the map with a capacity greater than or equal to
-			// the value requested. For that reason, one should be created.
-			if(entry == null || entry.getKey() > size + RANGE)
+			try
 			{
-				buffers.put(size, new ArrayDeque<>(3));
-				return new ByteBufferElement(create(size));
+				region = MappedRegion.map(configuration.getMappedDirectory(),
+						configuration.getMappedSize(),
+						configuration.getSlabSize(),
+						configuration.isPreTouch());
+			} catch(IOException e)
+			{
+				//continue with directly allocated slabs
+				exception(e);
 			}
-			
-			// Even though the entry isn't null, the deque that was found may not be. If it isn't, a ByteBuffer
-			// should be taken from there and returned.
-			Deque<ByteBuffer> deque = entry.getValue();
-			if(!deque.isEmpty())
+		}
+		boolean slabs = addressable && (configuration.isSlabs() || configuration.getMappedSize() > 0);
+		slabAllocator = slabs ? new SlabAllocator(SIZE_CLASSES, configuration.getSlabSize(), region) : null;
+		maxRetained = configuration.getMaxRetained();
+		leakDetector = new LeakDetector(this, configuration.getLeakDetectionLevel(), configuration.getLeakSamplingInterval());
+		statistics = new PoolStatistics(this, SIZE_CLASSES);
+		int arenaCount = Math.min(8, Runtime.getRuntime().availableProcessors());
+		arenas = new PoolArena[arenaCount];
+		for(int i = 0; i < arenaCount; i++)
+		{
+			PoolArena arena = new PoolArena(this, SIZE_CLASSES, configuration.getMaxPerClass());
+			for(int power = MIN_POWER; power <= POWER_MAX; power++)
 			{
-				return prepare(deque.poll(), size);
+				int sizeClass = power - MIN_POWER;
+				arena.give(sizeClass, allocate(sizeClass));
 			}
-			
-			// The first entry that was found had no ByteBuffers available, so we must now look at greater
-			// entry that doesn't instructionPass the ByteBufferPool.RANGE to see if one can be found.
-			// If one still cannot be found, allocate a new one.
-			Collection<Deque<ByteBuffer>> tailMap = buffers.subMap(size, size + RANGE).values();
-			for(Deque<ByteBuffer> byteBuffers : tailMap)
-			{
-				if(!byteBuffers.isEmpty())
-				{
-					return prepare(byteBuffers.poll(), size);
-				}
+			arenas[i] = arena;
+		}
+		threadCache = new ThreadLocal<PoolThreadCache>()
+		{
+			@Override
+			protected PoolThreadCache initialValue()
+			{
+				return newThreadCache();
+			}
+		};
+		threadCacheSize = configuration.getThreadCacheSize();
+		maxCachedSize = Math.min(MAX_CACHED_SIZE, Integer.highestOneBit(threadCacheSize));
+		long trimInterval = configuration.getTrimInterval();
+		//the trim thread also drains caches of dead threads so it runs even if the pool isn't trimmed
+		ThreadCreator.newDaemonThread(TRIM_THREAD_NAME, () -> trimLoop(trimInterval));
+		if(configuration.isJmx())
+		{
+			try
+			{
+				PoolMBeanRegistration.register(statistics);
+			} catch(Exception e)
+			{
+				exception(e);
 			}
-			return new ByteBufferElement(create(size));
 		}
 	}
 	
 	/**
-	 * Creates a new direct {@link ByteBuffer}.
-	 * If the current {@link #size} is more than {@link #EIGHT_MB}
-	 * then clean the biggest {@link ByteBuffer} from {@link #buffers}
-	 * until we return to less than {@link #EIGHT_MB} or
-	 * {@link #buffers} is empty.
+	 * Starts allocating the buffers of the specified profile in a background thread.
+	 * The buffers are spread across the {@link PoolArena}s and are kept from being trimmed.
 	 *
-	 * @param size to create the direct {@link ByteBuffer}
-	 * @return a new direct {@link ByteBuffer}
+	 * @param profile to allocate
+	 * @return the progress of the warm up
 	 */
-	private ByteBuffer create(int size)
+	WarmUp warmUp(WarmUpProfile profile)
 	{
-		this.size += size;
-		if(this.size > EIGHT_MB)
+		WarmUp warmUp = new WarmUp(profile.getTotal());
+		Map<Integer, Integer> counts = new LinkedHashMap<>(profile.getCounts());
+		ThreadCreator.newDaemonThread(WARM_UP_THREAD_NAME, () ->
 		{
-			//Clean buffers until there isn't more than 8 MB of space or the buffers is empty
-			mainLoop:
-			for(Deque<ByteBuffer> deque : buffers.descendingMap().values())
+			try
 			{
-				while(!deque.isEmpty())
+				for(Entry<Integer, Integer> entry : counts.entrySet())
 				{
-					ByteBuffer value = deque.poll();
-					Util.dispose(value);
-					this.size -= value.capacity();
-					if(this.size <= EIGHT_MB)
+					int sizeClass = sizeClass(entry.getKey());
+					int count = entry.getValue();
+					int i = 0;
+					//buffers bigger than the biggest size class aren't pooled
+					if(sizeClass != SIZE_CLASSES)
 					{
-						break mainLoop;
+						for(; i < count; i++)
+						{
+							if(!arenas[i % arenas.length].reserve(sizeClass, allocate(sizeClass)))
+							{
+								break;
+							}
+							warmUp.retained();
+						}
 					}
+					warmUp.skipped(count - i);
 				}
+			} catch(Throwable throwable)
+			{
+				exception(throwable);
+			} finally
+			{
+				warmUp.finish();
+			}
+		});
+		return warmUp;
+	}
+	
+	/**
+	 * Creates and registers the {@link PoolThreadCache} of the current thread.
+	 *
+	 * @return the {@link PoolThreadCache} of the current thread
+	 */
+	private PoolThreadCache newThreadCache()
+	{
+		PoolArena arena = arenas[(nextArena.getAndIncrement() & Integer.MAX_VALUE) % arenas.length];
+		int cachedClasses = maxCachedSize < classSize(0) ? 0 : sizeClass(maxCachedSize) + 1;
+		PoolThreadCache cache = new PoolThreadCache(arena, statistics, cachedClasses, threadCacheSize, Thread.currentThread());
+		threadCaches.offer(cache);
+		return cache;
+	}
+	
+	/**
+	 * Drains the {@link PoolThreadCache}s of threads which have died back to their {@link PoolArena}s.
+	 */
+	private void drainDeadCaches()
+	{
+		Iterator<PoolThreadCache> iterator = threadCaches.iterator();
+		while(iterator.hasNext())
+		{
+			PoolThreadCache cache = iterator.next();
+			if(!cache.isOwnerAlive())
+			{
+				iterator.remove();
+				cache.drain();
+			}
+		}
+	}
+	
+	/**
+	 * Drains the caches of dead threads, trims the {@link PoolArena}s and requests the {@link PoolThreadCache}s to
+	 * trim every specified trimInterval.
+	 * If the specified trimInterval is {@code 0} only caches of dead threads are drained every
+	 * {@link PoolConfigurationBuilder#DEFAULT_TRIM_INTERVAL}.
+	 *
+	 * @param trimInterval in milliseconds
+	 */
+	private void trimLoop(long trimInterval)
+	{
+		boolean trimming = trimInterval > 0;
+		long interval = trimming ? trimInterval : PoolConfigurationBuilder.DEFAULT_TRIM_INTERVAL;
+		while(true)
+		{
+			try
+			{
+				Thread.sleep(interval);
+			} catch(InterruptedException e)
+			{
+				return;
+			}
+			drainDeadCaches();
+			if(!trimming)
+			{
+				continue;
+			}
+			for(PoolThreadCache cache : threadCaches)
+			{
+				cache.requestTrim();
+			}
+			for(PoolArena arena : arenas)
+			{
+				arena.trim();
 			}
 		}
-		return ByteBuffer.allocateDirect(size);
+	}
+	
+	/**
+	 * Returns the size class of the specified size, if the specified size is bigger than the biggest size class
+	 * {@link #SIZE_CLASSES} is returned.
+	 *
+	 * @param size to get the size class of
+	 * @return the size class of the specified size
+	 */
+	static int sizeClass(int size)
+	{
+		if(size <= 1 << MIN_POWER)
+		{
+			return 0;
+		}
+		int power = Integer.SIZE - Integer.numberOfLeadingZeros(size - 1);
+		return Math.min(power - MIN_POWER, SIZE_CLASSES);
+	}
+	
+	/**
+	 * Returns the capacity of buffers in the specified size class.
+	 *
+	 * @param sizeClass to get the capacity of
+	 * @return the capacity of buffers in the specified size class
+	 */
+	static int classSize(int sizeClass)
+	{
+		return 1 << (sizeClass + MIN_POWER);
+	}
+	
+	/**
+	 * Takes a direct {@link ByteBuffer} of the specified size from the pool if one
+	 * exists, if one doesn't exist a new {@link ByteBuffer} is created.
+	 *
+	 * @param size of the requested {@link ByteBuffer}
+	 * @return a direct {@link ByteBuffer} from the pool if one
+	 * exists, if one doesn't exist a new {@link ByteBuffer} is created
+	 */
+	public ByteBufferElement take(int size)
+	{
+		int sizeClass = sizeClass(size);
+		if(sizeClass == SIZE_CLASSES)
+		{
+			statistics.unpooled();
+			statistics.used(size);
+			return new ByteBufferElement(ByteBuffer.allocateDirect(size));
+		}
+		statistics.used(classSize(sizeClass));
+		ByteBuffer byteBuffer;
+		if(classSize(sizeClass) <= maxCachedSize)
+		{
+			byteBuffer = threadCache.get().take(sizeClass);
+		} else
+		{
+			byteBuffer = threadCache.get().getArena().take(sizeClass);
+		}
+		return prepare(byteBuffer, size);
+	}
+	
+	/**
+	 * Returns the {@link LeakDetector} of this pool.
+	 *
+	 * @return the {@link LeakDetector} of this pool
+	 */
+	LeakDetector getLeakDetector()
+	{
+		return leakDetector;
+	}
+	
+	/**
+	 * Returns the {@link PoolStatistics} of this pool.
+	 *
+	 * @return the {@link PoolStatistics} of this pool
+	 */
+	PoolStatistics getStatistics()
+	{
+		return statistics;
+	}
+	
+	/**
+	 * Returns the amount of bytes retained by the {@link PoolArena}s.
+	 *
+	 * @return the amount of bytes retained by the {@link PoolArena}s
+	 */
+	long getRetained()
+	{
+		return size.get();
+	}
+	
+	/**
+	 * Returns the max amount of bytes to be retained by the {@link PoolArena}s.
+	 *
+	 * @return the max amount of bytes to be retained by the {@link PoolArena}s
+	 */
+	long getMaxRetained()
+	{
+		return maxRetained;
+	}
+	
+	/**
+	 * Invokes the {@link #onException(Consumer)} consumers with the specified throwable.
+	 *
+	 * @param throwable to report
+	 */
+	void exception(Throwable throwable)
+	{
+		Util.exception(onException, throwable);
+	}
+	
+	/**
+	 * Allocates a new buffer of the specified size class.
+	 *
+	 * @param sizeClass of the buffer
+	 * @return a new buffer of the specified size class
+	 */
+	ByteBuffer allocate(int sizeClass)
+	{
+		if(slabAllocator != null)
+		{
+			ByteBuffer slot = slabAllocator.allocate(sizeClass);
+			if(slot != null)
+			{
+				return slot;
+			}
+		}
+		return ByteBuffer.allocateDirect(classSize(sizeClass));
+	}
+	
+	/**
+	 * Disposes the specified buffer of the specified size class, if it was sliced from a slab it's slot is freed.
+	 *
+	 * @param sizeClass of the specified byteBuffer
+	 * @param byteBuffer to dispose
+	 */
+	void dispose(int sizeClass, ByteBuffer byteBuffer)
+	{
+		if(slabAllocator == null || !slabAllocator.free(sizeClass, byteBuffer))
+		{
+			Util.dispose(byteBuffer);
+		}
 	}
 	
 	/**
@@ -180,29 +521,73 @@ class ByteBufferPool
 	 */
 	private ByteBufferElement prepare(ByteBuffer byteBuffer, int size)
 	{
+		if(byteBuffer.capacity() == size)
+		{
+			return new ByteBufferElement(byteBuffer);
+		}
 		byteBuffer.limit(size);
 		return new ByteBufferElement(byteBuffer.slice(), byteBuffer);
 	}
 	
 	/**
-	 * Gives the specified element to the queue.
+	 * Gives the specified element to the pool.
 	 *
-	 * @param element to give to the queue
+	 * @param element to give to the pool
 	 */
 	public void give(ByteBufferElement element)
 	{
-		synchronized(buffers)
+		ByteBuffer byteBuffer = element.getOriginal();
+		int capacity = byteBuffer.capacity();
+		int sizeClass = sizeClass(capacity);
+		if(sizeClass == SIZE_CLASSES)
+		{
+			statistics.used(-capacity);
+			Util.dispose(byteBuffer);
+			return;
+		}
+		if(classSize(sizeClass) != capacity)
+		{
+			Util.dispose(byteBuffer);
+			return;
+		}
+		statistics.used(-capacity);
+		byteBuffer.clear();
+		if(capacity <= maxCachedSize)
+		{
+			threadCache.get().give(sizeClass, byteBuffer);
+		} else
+		{
+			threadCache.get().getArena().give(sizeClass, byteBuffer);
+		}
+	}
+	
+	/**
+	 * Adds the specified amount of bytes to the retained {@link #size} if it won't pass {@link #maxRetained}.
+	 *
+	 * @param bytes which are about to be retained
+	 * @return whether the bytes may be retained
+	 */
+	boolean retain(int bytes)
+	{
+		long current;
+		do
 		{
-			ByteBuffer byteBuffer = element.getOriginal();
-			int capacity = byteBuffer.capacity();
-			Deque<ByteBuffer> byteBuffers = buffers.get(capacity);
-			if(byteBuffers == null)
+			current = size.get();
+			if(current + bytes > maxRetained)
 			{
-				byteBuffers = new ArrayDeque<>();
-				buffers.put(capacity, byteBuffers);
+				return false;
 			}
-			byteBuffer.clear();
-			byteBuffers.offerLast(byteBuffer);
-		}
+		} while(!size.compareAndSet(current, current + bytes));
+		return true;
+	}
+	
+	/**
+	 * Removes the specified amount of bytes from the retained {@link #size}.
+	 *
+	 * @param bytes which are no longer retained
+	 */
+	void released(int bytes)
+	{
+		size.addAndGet(-bytes);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+/**
+ * How many {@link PooledByteBuffer}s are tracked by the leak detection of the pool.
+ */
+public enum LeakDetectionLevel
+{
+	/**
+	 * No buffers are tracked, leak detection has no overhead.
+	 */
+	DISABLED,
+	/**
+	 * One of every {@link PoolConfiguration#getLeakSamplingInterval()} buffers is tracked.
+	 */
+	SIMPLE,
+	/**
+	 * Every buffer is tracked, this should only be used while looking for a leak.
+	 */
+	PARANOID
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import oughttoprevail.asyncnetwork.exceptions.BufferLeakException;
+
+/**
+ * Detects {@link PooledByteBuffer}s which have been garbage collected without being released.
+ * A sampled buffer is tracked by a {@link LeakTracker} which records where it was created, once the buffer has been
+ * garbage collected while it is still tracked a {@link BufferLeakException} is reported to the pool.
+ * Garbage collected buffers are looked for whenever a new buffer is tracked.
+ */
+class LeakDetector
+{
+	private final ByteBufferPool pool;
+	private final LeakDetectionLevel level;
+	private final int samplingInterval;
+	private final ReferenceQueue<PooledByteBuffer> referenceQueue = new ReferenceQueue<>();
+	/**
+	 * Trackers of the buffers which have yet to be released, this keeps the trackers from being garbage collected.
+	 */
+	private final Set<LeakTracker> trackers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	/**
+	 * The amount of leaks which have been detected.
+	 */
+	private final AtomicLong leaks = new AtomicLong();
+	
+	LeakDetector(ByteBufferPool pool, LeakDetectionLevel level, int samplingInterval)
+	{
+		this.pool = pool;
+		this.level = level;
+		this.samplingInterval = samplingInterval;
+	}
+	
+	/**
+	 * Tracks the specified buffer if it's sampled.
+	 *
+	 * @param buffer which has been created
+	 * @param size of the specified buffer
+	 * @return the {@link LeakTracker} of the specified buffer or {@code null} if it isn't tracked
+	 */
+	LeakTracker track(PooledByteBuffer buffer, int size)
+	{
+		switch(level)
+		{
+			case DISABLED:
+				return null;
+			case SIMPLE:
+				if(ThreadLocalRandom.current().nextInt(samplingInterval) != 0)
+				{
+					return null;
+				}
+		}
+		reportLeaks();
+		LeakTracker tracker = new LeakTracker(buffer, size);
+		trackers.add(tracker);
+		return tracker;
+	}
+	
+	/**
+	 * Reports every tracked buffer which has been garbage collected without being released.
+	 */
+	private void reportLeaks()
+	{
+		LeakTracker tracker;
+		while((tracker = (LeakTracker) referenceQueue.poll()) != null)
+		{
+			if(trackers.remove(tracker))
+			{
+				leaks.incrementAndGet();
+				pool.exception(tracker.creation);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the amount of leaks which have been detected.
+	 *
+	 * @return the amount of leaks which have been detected
+	 */
+	long getLeaks()
+	{
+		return leaks.get();
+	}
+	
+	/**
+	 * Tracks a single {@link PooledByteBuffer}.
+	 */
+	class LeakTracker extends PhantomReference<PooledByteBuffer>
+	{
+		/**
+		 * Created with the buffer so it's stack trace is where the buffer was created.
+		 */
+		private final BufferLeakException creation;
+		
+		private LeakTracker(PooledByteBuffer buffer, int size)
+		{
+			super(buffer, referenceQueue);
+			this.creation = new BufferLeakException(size);
+			//start the stack trace at the creator of the buffer
+			StackTraceElement[] stackTrace = creation.getStackTrace();
+			int start = 0;
+			for(int i = 0; i < stackTrace.length; i++)
+			{
+				if(stackTrace[i].getClassName().equals(PooledByteBuffer.class.getName()))
+				{
+					start = i + 1;
+				}
+			}
+			creation.setStackTrace(Arrays.copyOfRange(stackTrace, start, stackTrace.length));
+		}
+		
+		/**
+		 * Stops tracking the buffer, invoked once it has been released.
+		 */
+		void close()
+		{
+			trackers.remove(this);
+			clear();
+		}
+	}
+}
\ No newline at end of file
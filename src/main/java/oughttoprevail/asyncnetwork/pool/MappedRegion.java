@@ -0,0 +1,158 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import oughttoprevail.asyncnetwork.util.Util;
+
+/**
+ * A single memory mapped region which is divided into equally sized chunks for {@link PoolSlab}s.
+ * The region is mapped from a temporary file which is deleted right after it has been mapped,
+ * mapping it from a memory file system such as {@code /dev/shm} keeps it in memory.
+ */
+class MappedRegion
+{
+	/**
+	 * The directory the region is mapped from if it exists and no other directory has been specified.
+	 */
+	private static final String SHARED_MEMORY_DIRECTORY = "/dev/shm";
+	/**
+	 * The size of a page which is touched by pre touching.
+	 */
+	private static final int PAGE_SIZE = 4096;
+	
+	/**
+	 * Maps a new region.
+	 *
+	 * @param directory the directory of the temporary file or {@code null} to use {@link #SHARED_MEMORY_DIRECTORY}
+	 * if it exists and the default temporary directory otherwise
+	 * @param size of the region
+	 * @param chunkSize the size of every chunk
+	 * @param preTouch whether to write to every page of the region so it is backed by memory right away
+	 * @return the new region
+	 * @throws IOException if the region failed to map
+	 */
+	static MappedRegion map(String directory, int size, int chunkSize, boolean preTouch) throws IOException
+	{
+		File directoryFile;
+		if(directory != null)
+		{
+			directoryFile = new File(directory);
+		} else
+		{
+			File sharedMemory = new File(SHARED_MEMORY_DIRECTORY);
+			directoryFile = sharedMemory.isDirectory() && sharedMemory.canWrite() ? sharedMemory : null;
+		}
+		File file = File.createTempFile("AsyncNetworkPool", ".mem", directoryFile);
+		MappedByteBuffer region;
+		try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"))
+		{
+			randomAccessFile.setLength(size);
+			region = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} finally
+		{
+			//the mapping stays valid after the file is deleted
+			if(!file.delete())
+			{
+				file.deleteOnExit();
+			}
+		}
+		if(preTouch)
+		{
+			for(int i = 0; i < size; i += PAGE_SIZE)
+			{
+				region.put(i, (byte) 0);
+			}
+		}
+		return new MappedRegion(region, chunkSize);
+	}
+	
+	private final MappedByteBuffer region;
+	private final long address;
+	private final int chunkSize;
+	private final int chunks;
+	/**
+	 * Indexes of the free chunks used as a stack.
+	 */
+	private final int[] free;
+	private int freeCount;
+	
+	private MappedRegion(MappedByteBuffer region, int chunkSize)
+	{
+		this.region = region;
+		this.address = Util.address(region);
+		//keep every chunk aligned so a slab can use all of it
+		this.chunkSize = chunkSize & -PoolSlab.ALIGNMENT;
+		this.chunks = this.chunkSize == 0 ? 0 : region.capacity() / this.chunkSize;
+		this.free = new int[chunks];
+		//hand out chunks from the start of the region first
+		for(int i = 0; i < chunks; i++)
+		{
+			free[i] = chunks - 1 - i;
+		}
+		this.freeCount = chunks;
+	}
+	
+	/**
+	 * Returns the size of every chunk.
+	 *
+	 * @return the size of every chunk
+	 */
+	int getChunkSize()
+	{
+		return chunkSize;
+	}
+	
+	/**
+	 * Takes a free chunk.
+	 *
+	 * @return a free chunk or {@code null} if all chunks are in use
+	 */
+	synchronized ByteBuffer allocate()
+	{
+		if(freeCount == 0)
+		{
+			return null;
+		}
+		int position = free[--freeCount] * chunkSize;
+		ByteBuffer chunk = region.duplicate();
+		chunk.limit(position + chunkSize).position(position);
+		return chunk.slice();
+	}
+	
+	/**
+	 * Gives back the specified chunk if it's a chunk of this region.
+	 *
+	 * @param chunk to give back
+	 * @return whether the specified chunk was a chunk of this region
+	 */
+	synchronized boolean free(ByteBuffer chunk)
+	{
+		long chunkAddress = Util.address(chunk);
+		if(chunkAddress < address || chunkAddress >= address + (long) chunks * chunkSize)
+		{
+			return false;
+		}
+		free[freeCount++] = (int) ((chunkAddress - address) / chunkSize);
+		return true;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A shared arena of a {@link ByteBufferPool}, it holds a free list for every size class.
+ * Threads are spread across a few arenas so they don't all contend on the same lock.
+ * <p>
+ * Free lists are used as stacks so the buffers at the head are the ones which haven't been used for the longest time,
+ * {@link #trim()} disposes the buffers which haven't been taken since the previous trim.
+ */
+class PoolArena
+{
+	private final ByteBufferPool pool;
+	/**
+	 * The max amount of buffers a free list may hold.
+	 */
+	private final int maxPerClass;
+	/**
+	 * The free lists, the index is the size class of the buffers in the {@link Deque}.
+	 */
+	private final Deque<ByteBuffer>[] buffers;
+	/**
+	 * The smallest size of every free list since the previous trim,
+	 * this is the amount of buffers in the free list which haven't been used since.
+	 */
+	private final int[] lowWatermarks;
+	/**
+	 * The amount of buffers of every size class which were added by a warm up, trimming keeps at least this many.
+	 */
+	private final int[] reserved;
+	
+	@SuppressWarnings("unchecked")
+	PoolArena(ByteBufferPool pool, int sizeClasses, int maxPerClass)
+	{
+		this.pool = pool;
+		this.maxPerClass = maxPerClass;
+		this.buffers = new Deque[sizeClasses];
+		this.lowWatermarks = new int[sizeClasses];
+		this.reserved = new int[sizeClasses];
+		for(int i = 0; i < sizeClasses; i++)
+		{
+			buffers[i] = new ArrayDeque<>();
+		}
+	}
+	
+	/**
+	 * Takes a buffer of the specified size class from this arena or allocates a new one if this arena has none.
+	 *
+	 * @param sizeClass of the buffer
+	 * @return a buffer of the specified size class
+	 */
+	ByteBuffer take(int sizeClass)
+	{
+		ByteBuffer byteBuffer;
+		synchronized(this)
+		{
+			Deque<ByteBuffer> deque = buffers[sizeClass];
+			byteBuffer = deque.pollLast();
+			lowWatermarks[sizeClass] = Math.min(lowWatermarks[sizeClass], deque.size());
+		}
+		PoolStatistics statistics = pool.getStatistics();
+		if(byteBuffer == null)
+		{
+			long start = System.nanoTime();
+			byteBuffer = pool.allocate(sizeClass);
+			statistics.miss(sizeClass, System.nanoTime() - start);
+			return byteBuffer;
+		}
+		statistics.hit(sizeClass);
+		pool.released(byteBuffer.capacity());
+		return byteBuffer;
+	}
+	
+	/**
+	 * Gives the specified buffer of the specified size class to this arena.
+	 * If the free list is full or the pool is already retaining it's max size the buffer is disposed instead.
+	 *
+	 * @param sizeClass of the specified byteBuffer
+	 * @param byteBuffer to give
+	 */
+	void give(int sizeClass, ByteBuffer byteBuffer)
+	{
+		synchronized(this)
+		{
+			Deque<ByteBuffer> deque = buffers[sizeClass];
+			if(deque.size() < maxPerClass && pool.retain(byteBuffer.capacity()))
+			{
+				deque.offerLast(byteBuffer);
+				return;
+			}
+		}
+		pool.getStatistics().evicted(1);
+		pool.dispose(sizeClass, byteBuffer);
+	}
+	
+	/**
+	 * Gives the specified buffer to this arena and keeps it from being trimmed.
+	 * If the free list is full or the pool is already retaining it's max size the buffer is disposed instead.
+	 *
+	 * @param sizeClass of the specified byteBuffer
+	 * @param byteBuffer to reserve
+	 * @return whether the specified byteBuffer has been retained
+	 */
+	boolean reserve(int sizeClass, ByteBuffer byteBuffer)
+	{
+		synchronized(this)
+		{
+			Deque<ByteBuffer> deque = buffers[sizeClass];
+			if(deque.size() < maxPerClass && pool.retain(byteBuffer.capacity()))
+			{
+				deque.offerLast(byteBuffer);
+				reserved[sizeClass]++;
+				return true;
+			}
+		}
+		pool.dispose(sizeClass, byteBuffer);
+		return false;
+	}
+	
+	/**
+	 * Gives the buffers in the specified range of the specified array to this arena with a single lock.
+	 * Buffers which can't be retained are disposed after the lock has been released.
+	 *
+	 * @param sizeClass of the buffers
+	 * @param byteBuffers array containing the buffers
+	 * @param from index of the first buffer to give
+	 * @param to index after the last buffer to give
+	 */
+	void giveAll(int sizeClass, ByteBuffer[] byteBuffers, int from, int to)
+	{
+		int capacity = ByteBufferPool.classSize(sizeClass);
+		int retained = from;
+		synchronized(this)
+		{
+			Deque<ByteBuffer> deque = buffers[sizeClass];
+			while(retained < to && deque.size() < maxPerClass && pool.retain(capacity))
+			{
+				deque.offerLast(byteBuffers[retained]);
+				byteBuffers[retained++] = null;
+			}
+		}
+		pool.getStatistics().evicted(to - retained);
+		for(int i = retained; i < to; i++)
+		{
+			pool.dispose(sizeClass, byteBuffers[i]);
+			byteBuffers[i] = null;
+		}
+	}
+	
+	/**
+	 * Disposes every buffer which hasn't been used since the previous trim, except for reserved buffers.
+	 * Buffers are disposed after the lock has been released.
+	 */
+	void trim()
+	{
+		for(int sizeClass = 0; sizeClass < buffers.length; sizeClass++)
+		{
+			ByteBuffer[] trimmed;
+			synchronized(this)
+			{
+				Deque<ByteBuffer> deque = buffers[sizeClass];
+				int unused = Math.max(0, Math.min(lowWatermarks[sizeClass], deque.size() - reserved[sizeClass]));
+				trimmed = new ByteBuffer[unused];
+				for(int i = 0; i < unused; i++)
+				{
+					trimmed[i] = deque.pollFirst();
+				}
+				lowWatermarks[sizeClass] = deque.size();
+			}
+			pool.getStatistics().trimmed(trimmed.length);
+			for(ByteBuffer byteBuffer : trimmed)
+			{
+				pool.released(byteBuffer.capacity());
+				pool.dispose(sizeClass, byteBuffer);
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,190 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+/**
+ * The configuration of the pool used by {@link PooledByteBuffer}s.
+ * A configuration is created using {@link PoolConfigurationBuilder} and applied using
+ * {@link PooledByteBuffer#configure(PoolConfiguration)}.
+ */
+public class PoolConfiguration
+{
+	/**
+	 * The default configuration.
+	 */
+	public static final PoolConfiguration DEFAULT = PoolConfigurationBuilder.create().build();
+	
+	private final long maxRetained;
+	private final int maxPerClass;
+	private final int threadCacheSize;
+	private final long trimInterval;
+	private final boolean slabs;
+	private final int slabSize;
+	private final LeakDetectionLevel leakDetectionLevel;
+	private final int leakSamplingInterval;
+	private final int mappedSize;
+	private final String mappedDirectory;
+	private final boolean preTouch;
+	private final boolean jmx;
+	
+	PoolConfiguration(long maxRetained,
+	                  int maxPerClass,
+	                  int threadCacheSize,
+	                  long trimInterval,
+	                  boolean slabs,
+	                  int slabSize,
+	                  LeakDetectionLevel leakDetectionLevel,
+	                  int leakSamplingInterval,
+	                  int mappedSize,
+	                  String mappedDirectory,
+	                  boolean preTouch,
+	                  boolean jmx)
+	{
+		this.maxRetained = maxRetained;
+		this.maxPerClass = maxPerClass;
+		this.threadCacheSize = threadCacheSize;
+		this.trimInterval = trimInterval;
+		this.slabs = slabs;
+		this.slabSize = slabSize;
+		this.leakDetectionLevel = leakDetectionLevel;
+		this.leakSamplingInterval = leakSamplingInterval;
+		this.mappedSize = mappedSize;
+		this.mappedDirectory = mappedDirectory;
+		this.preTouch = preTouch;
+		this.jmx = jmx;
+	}
+	
+	/**
+	 * Returns the max amount of bytes the pool may retain in it's shared arenas.
+	 *
+	 * @return the max amount of bytes the pool may retain in it's shared arenas
+	 */
+	public long getMaxRetained()
+	{
+		return maxRetained;
+	}
+	
+	/**
+	 * Returns the max amount of buffers of a single size class each shared arena may retain.
+	 *
+	 * @return the max amount of buffers of a single size class each shared arena may retain
+	 */
+	public int getMaxPerClass()
+	{
+		return maxPerClass;
+	}
+	
+	/**
+	 * Returns the max amount of bytes of a single size class each thread cache may retain.
+	 *
+	 * @return the max amount of bytes of a single size class each thread cache may retain
+	 */
+	public int getThreadCacheSize()
+	{
+		return threadCacheSize;
+	}
+	
+	/**
+	 * Returns the interval in milliseconds between trims of buffers which haven't been used,
+	 * {@code 0} if the pool isn't trimmed.
+	 *
+	 * @return the interval in milliseconds between trims of buffers which haven't been used
+	 */
+	public long getTrimInterval()
+	{
+		return trimInterval;
+	}
+	
+	/**
+	 * Returns whether buffers are sliced from large slabs instead of being allocated one by one.
+	 *
+	 * @return whether buffers are sliced from large slabs instead of being allocated one by one
+	 */
+	public boolean isSlabs()
+	{
+		return slabs;
+	}
+	
+	/**
+	 * Returns the size in bytes of a single slab.
+	 *
+	 * @return the size in bytes of a single slab
+	 */
+	public int getSlabSize()
+	{
+		return slabSize;
+	}
+	
+	/**
+	 * Returns how many buffers are tracked by the leak detection.
+	 *
+	 * @return how many buffers are tracked by the leak detection
+	 */
+	public LeakDetectionLevel getLeakDetectionLevel()
+	{
+		return leakDetectionLevel;
+	}
+	
+	/**
+	 * Returns the amount of buffers for every buffer tracked by {@link LeakDetectionLevel#SIMPLE} leak detection.
+	 *
+	 * @return the amount of buffers for every buffer tracked by {@link LeakDetectionLevel#SIMPLE} leak detection
+	 */
+	public int getLeakSamplingInterval()
+	{
+		return leakSamplingInterval;
+	}
+	
+	/**
+	 * Returns the size in bytes of the memory mapped region slabs are taken from, {@code 0} if there is none.
+	 *
+	 * @return the size in bytes of the memory mapped region slabs are taken from
+	 */
+	public int getMappedSize()
+	{
+		return mappedSize;
+	}
+	
+	/**
+	 * Returns the directory the memory mapped region is mapped from or {@code null} to use the default.
+	 *
+	 * @return the directory the memory mapped region is mapped from
+	 */
+	public String getMappedDirectory()
+	{
+		return mappedDirectory;
+	}
+	
+	/**
+	 * Returns whether every page of the memory mapped region is touched when it is mapped.
+	 *
+	 * @return whether every page of the memory mapped region is touched when it is mapped
+	 */
+	public boolean isPreTouch()
+	{
+		return preTouch;
+	}
+	
+	/**
+	 * Returns whether the metrics of the pool are registered as a JMX MXBean.
+	 *
+	 * @return whether the metrics of the pool are registered as a JMX MXBean
+	 */
+	public boolean isJmx()
+	{
+		return jmx;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,281 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.util.concurrent.TimeUnit;
+
+import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.Validator;
+
+public class PoolConfigurationBuilder
+{
+	/**
+	 * Default max amount of bytes retained by the pool, equals to 8 mega bytes.
+	 */
+	public static final long DEFAULT_MAX_RETAINED = 1000000 * 8;
+	/**
+	 * Default max amount of buffers of a single size class retained by each arena.
+	 */
+	public static final int DEFAULT_MAX_PER_CLASS = 1024;
+	/**
+	 * Default max amount of bytes of a single size class retained by each thread cache, equals to 64 kilo bytes.
+	 */
+	public static final int DEFAULT_THREAD_CACHE_SIZE = 64 * 1024;
+	/**
+	 * Default interval in milliseconds between trims.
+	 */
+	public static final long DEFAULT_TRIM_INTERVAL = 30000;
+	/**
+	 * Default size of a single slab, equals to 4 mega bytes.
+	 */
+	public static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+	/**
+	 * Default amount of buffers for every buffer tracked by {@link LeakDetectionLevel#SIMPLE} leak detection.
+	 */
+	public static final int DEFAULT_LEAK_SAMPLING_INTERVAL = 100;
+	
+	public static PoolConfigurationBuilder create()
+	{
+		return new PoolConfigurationBuilder();
+	}
+	
+	private long maxRetained = DEFAULT_MAX_RETAINED;
+	private int maxPerClass = DEFAULT_MAX_PER_CLASS;
+	private int threadCacheSize = DEFAULT_THREAD_CACHE_SIZE;
+	private long trimInterval = DEFAULT_TRIM_INTERVAL;
+	private boolean slabs;
+	private int slabSize = DEFAULT_SLAB_SIZE;
+	private LeakDetectionLevel leakDetectionLevel = LeakDetectionLevel.DISABLED;
+	private int leakSamplingInterval = DEFAULT_LEAK_SAMPLING_INTERVAL;
+	private int mappedSize;
+	private String mappedDirectory;
+	private boolean preTouch;
+	private boolean jmx;
+	
+	/**
+	 * Sets the max amount of bytes the pool may retain in it's shared arenas,
+	 * once reached buffers which are given back to the pool are disposed.
+	 * Bytes retained by thread caches aren't counted, those are bounded by {@link #threadCacheSize(int)}.
+	 * By default this is {@link #DEFAULT_MAX_RETAINED}.
+	 *
+	 * @param maxRetained the max amount of bytes the pool may retain
+	 * @return this
+	 */
+	public PoolConfigurationBuilder maxRetained(long maxRetained)
+	{
+		if(maxRetained < 0)
+		{
+			throw new IllegalArgumentException("Max retained cannot be negative!");
+		}
+		this.maxRetained = maxRetained;
+		return this;
+	}
+	
+	/**
+	 * Sets the max amount of buffers of a single size class each shared arena may retain,
+	 * by default this is {@link #DEFAULT_MAX_PER_CLASS}.
+	 *
+	 * @param maxPerClass the max amount of buffers of a single size class each shared arena may retain
+	 * @return this
+	 */
+	public PoolConfigurationBuilder maxPerClass(int maxPerClass)
+	{
+		if(maxPerClass < 0)
+		{
+			throw new IllegalArgumentException("Max per class cannot be negative!");
+		}
+		this.maxPerClass = maxPerClass;
+		return this;
+	}
+	
+	/**
+	 * Sets the max amount of bytes of a single size class each thread cache may retain (no more than 64 buffers),
+	 * these bytes aren't counted against {@link #maxRetained(long)} so every thread which takes buffers may
+	 * retain up to this amount for every cached size class. If smaller than the smallest size class threads don't
+	 * cache buffers and every take and give goes to a shared arena.
+	 * By default this is {@link #DEFAULT_THREAD_CACHE_SIZE}.
+	 *
+	 * @param threadCacheSize the max amount of bytes of a single size class each thread cache may retain
+	 * @return this
+	 */
+	public PoolConfigurationBuilder threadCacheSize(int threadCacheSize)
+	{
+		if(threadCacheSize < 0)
+		{
+			throw new IllegalArgumentException("Thread cache size cannot be negative!");
+		}
+		this.threadCacheSize = threadCacheSize;
+		return this;
+	}
+	
+	/**
+	 * Sets the interval between trims, every trim disposes the retained buffers which haven't been used
+	 * since the previous trim. Trimming is done by a background thread so it doesn't add latency to taking or
+	 * giving buffers. If {@code 0} the pool isn't trimmed, caches of dead threads are still drained by the
+	 * background thread every {@link #DEFAULT_TRIM_INTERVAL} milliseconds.
+	 * By default this is {@link #DEFAULT_TRIM_INTERVAL} milliseconds.
+	 *
+	 * @param trimInterval the interval between trims
+	 * @param unit the {@link TimeUnit} of the specified trimInterval
+	 * @return this
+	 */
+	public PoolConfigurationBuilder trimInterval(long trimInterval, TimeUnit unit)
+	{
+		if(trimInterval < 0)
+		{
+			throw new IllegalArgumentException("Trim interval cannot be negative!");
+		}
+		this.trimInterval = trimInterval == 0 ? 0 : Math.max(1, unit.toMillis(trimInterval));
+		return this;
+	}
+	
+	/**
+	 * Sets whether buffers are sliced from large slabs instead of being allocated one by one.
+	 * Slab slices don't have their own cleaner or direct memory reservation which makes creating and disposing
+	 * them a lot cheaper, slabs are only used when the address of a direct buffer can be read.
+	 * By default this is {@code false}.
+	 *
+	 * @param slabs whether buffers are sliced from large slabs
+	 * @return this
+	 */
+	public PoolConfigurationBuilder slabs(boolean slabs)
+	{
+		this.slabs = slabs;
+		return this;
+	}
+	
+	/**
+	 * Sets the size in bytes of a single slab, by default this is {@link #DEFAULT_SLAB_SIZE}.
+	 *
+	 * @param slabSize the size in bytes of a single slab
+	 * @return this
+	 */
+	public PoolConfigurationBuilder slabSize(int slabSize)
+	{
+		Validator.higherThan0(slabSize, "Slab size");
+		this.slabSize = slabSize;
+		return this;
+	}
+	
+	/**
+	 * Sets how many buffers are tracked by the leak detection, a tracked buffer which has been garbage collected
+	 * without being released is reported to {@link PooledByteBuffer#onException(Consumer)} with where it was created.
+	 * By default this is {@link LeakDetectionLevel#DISABLED}.
+	 *
+	 * @param leakDetectionLevel how many buffers are tracked by the leak detection
+	 * @return this
+	 */
+	public PoolConfigurationBuilder leakDetection(LeakDetectionLevel leakDetectionLevel)
+	{
+		Validator.requireNonNull(leakDetectionLevel, "Leak detection level");
+		this.leakDetectionLevel = leakDetectionLevel;
+		return this;
+	}
+	
+	/**
+	 * Sets the amount of buffers for every buffer tracked by {@link LeakDetectionLevel#SIMPLE} leak detection,
+	 * by default this is {@link #DEFAULT_LEAK_SAMPLING_INTERVAL}.
+	 *
+	 * @param leakSamplingInterval the amount of buffers for every tracked buffer
+	 * @return this
+	 */
+	public PoolConfigurationBuilder leakSamplingInterval(int leakSamplingInterval)
+	{
+		Validator.higherThan0(leakSamplingInterval, "Leak sampling interval");
+		this.leakSamplingInterval = leakSamplingInterval;
+		return this;
+	}
+	
+	/**
+	 * Sets the size in bytes of a single memory mapped region the memory of slabs is taken from instead of
+	 * allocating every slab directly, this implies {@link #slabs(boolean)}.
+	 * The region is divided into chunks of {@link #slabSize(int)}, once all chunks are in use slabs are allocated
+	 * directly. Every size class in use takes at least one chunk so the region should fit a few chunks for every
+	 * size class. If {@code 0} there is no region, by default this is {@code 0}.
+	 *
+	 * @param mappedSize the size in bytes of the memory mapped region
+	 * @return this
+	 */
+	public PoolConfigurationBuilder mapped(int mappedSize)
+	{
+		if(mappedSize < 0)
+		{
+			throw new IllegalArgumentException("Mapped size cannot be negative!");
+		}
+		this.mappedSize = mappedSize;
+		return this;
+	}
+	
+	/**
+	 * Sets the directory of the temporary file the memory mapped region is mapped from.
+	 * By default this is {@code /dev/shm} if it exists and the default temporary directory otherwise.
+	 *
+	 * @param mappedDirectory the directory the memory mapped region is mapped from
+	 * @return this
+	 */
+	public PoolConfigurationBuilder mappedDirectory(String mappedDirectory)
+	{
+		this.mappedDirectory = mappedDirectory;
+		return this;
+	}
+	
+	/**
+	 * Sets whether every page of the memory mapped region is touched when it is mapped so it is
+	 * backed by memory right away instead of on first use, by default this is {@code false}.
+	 *
+	 * @param preTouch whether every page of the memory mapped region is touched when it is mapped
+	 * @return this
+	 */
+	public PoolConfigurationBuilder preTouch(boolean preTouch)
+	{
+		this.preTouch = preTouch;
+		return this;
+	}
+	
+	/**
+	 * Sets whether the {@link PoolMetricsMXBean} of the pool is registered to the platform MBean server
+	 * under {@link PoolMetricsMXBean#OBJECT_NAME} once the pool is created, by default this is {@code false}.
+	 *
+	 * @param jmx whether the metrics of the pool are registered as a JMX MXBean
+	 * @return this
+	 */
+	public PoolConfigurationBuilder jmx(boolean jmx)
+	{
+		this.jmx = jmx;
+		return this;
+	}
+	
+	/**
+	 * Returns a new {@link PoolConfiguration} based on the entered parameters.
+	 *
+	 * @return a new {@link PoolConfiguration} based on the entered parameters
+	 */
+	public PoolConfiguration build()
+	{
+		return new PoolConfiguration(maxRetained,
+				maxPerClass,
+				threadCacheSize,
+				trimInterval,
+				slabs,
+				slabSize,
+				leakDetectionLevel,
+				leakSamplingInterval,
+				mappedSize,
+				mappedDirectory,
+				preTouch,
+				jmx);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.lang.management.ManagementFactory;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Registers {@link PoolMetricsMXBean}s to the platform MBean server.
+ * This is kept apart from the pool since {@code java.lang.management} doesn't exist on every platform (Android).
+ */
+class PoolMBeanRegistration
+{
+	/**
+	 * Registers the specified metrics under {@link PoolMetricsMXBean#OBJECT_NAME}.
+	 * If metrics are already registered under the name (by another class loader) they are kept.
+	 *
+	 * @param metrics to register
+	 * @throws JMException if the metrics couldn't be registered
+	 */
+	static void register(PoolMetricsMXBean metrics) throws JMException
+	{
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(PoolMetricsMXBean.OBJECT_NAME));
+		} catch(InstanceAlreadyExistsException ignored)
+		{
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+/**
+ * Metrics of the pool {@link PooledByteBuffer}s are taken from, returned by {@link PooledByteBuffer#getMetrics()}.
+ * The same metrics are registered as a JMX MXBean named {@link #OBJECT_NAME} if
+ * {@link PoolConfigurationBuilder#jmx(boolean)} is enabled.
+ * <p>
+ * Per size class metrics are arrays in which the index is the size class,
+ * the capacity of every size class is in {@link #getClassSizes()}.
+ * A hit is a buffer taken from a thread cache or a shared arena, a miss is a buffer which had to be allocated.
+ * Buffers bigger than the biggest size class aren't pooled and are counted by {@link #getUnpooled()} instead.
+ */
+public interface PoolMetricsMXBean
+{
+	/**
+	 * The JMX object name the metrics are registered under.
+	 */
+	String OBJECT_NAME = "oughttoprevail.asyncnetwork:type=ByteBufferPool";
+	
+	/**
+	 * Returns the capacity of the buffers of every size class.
+	 *
+	 * @return the capacity of the buffers of every size class
+	 */
+	int[] getClassSizes();
+	
+	/**
+	 * Returns the amount of buffers of every size class which were taken from the pool.
+	 *
+	 * @return the amount of buffers of every size class which were taken from the pool
+	 */
+	long[] getHits();
+	
+	/**
+	 * Returns the amount of buffers of every size class which had to be allocated because the pool had none.
+	 *
+	 * @return the amount of buffers of every size class which had to be allocated
+	 */
+	long[] getMisses();
+	
+	/**
+	 * Returns the amount of hits divided by the amount of buffers taken, {@code 0} if none have been taken.
+	 *
+	 * @return the amount of hits divided by the amount of buffers taken
+	 */
+	double getHitRate();
+	
+	/**
+	 * Returns the amount of buffers which were bigger than the biggest size class and were allocated without the pool.
+	 *
+	 * @return the amount of buffers which were allocated without the pool
+	 */
+	long getUnpooled();
+	
+	/**
+	 * Returns the amount of bytes retained by the pool which aren't in use, including thread caches.
+	 *
+	 * @return the amount of bytes retained by the pool which aren't in use
+	 */
+	long getRetainedBytes();
+	
+	/**
+	 * Returns the max amount of bytes the shared arenas of the pool may retain.
+	 *
+	 * @return the max amount of bytes the shared arenas of the pool may retain
+	 */
+	long getMaxRetainedBytes();
+	
+	/**
+	 * Returns the amount of bytes of the buffers which were taken and have yet to be given back.
+	 *
+	 * @return the amount of bytes of the buffers which are in use
+	 */
+	long getUsedBytes();
+	
+	/**
+	 * Returns the average amount of nanoseconds a miss took to allocate a buffer, {@code 0} if there were no misses.
+	 *
+	 * @return the average amount of nanoseconds a miss took to allocate a buffer
+	 */
+	long getAverageAllocationNanos();
+	
+	/**
+	 * Returns the max amount of nanoseconds a miss took to allocate a buffer.
+	 *
+	 * @return the max amount of nanoseconds a miss took to allocate a buffer
+	 */
+	long getMaxAllocationNanos();
+	
+	/**
+	 * Returns the amount of buffers which were given back and disposed because a shared arena was full or the pool
+	 * was already retaining {@link #getMaxRetainedBytes()}.
+	 *
+	 * @return the amount of buffers which were disposed because of the pool limits
+	 */
+	long getEvictions();
+	
+	/**
+	 * Returns the amount of buffers which were disposed by trimming because they weren't used.
+	 *
+	 * @return the amount of buffers which were disposed by trimming
+	 */
+	long getTrimmed();
+	
+	/**
+	 * Returns the amount of leaks which were detected.
+	 *
+	 * @return the amount of leaks which were detected
+	 */
+	long getLeaks();
+}
\ No newline at end of file
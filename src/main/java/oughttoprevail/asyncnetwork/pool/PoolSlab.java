@@ -0,0 +1,172 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.nio.ByteBuffer;
+
+import oughttoprevail.asyncnetwork.util.Util;
+
+/**
+ * A single large direct chunk which is divided into equally sized slots of a single size class.
+ * Slots are handed out as slices of the chunk so they don't have their own cleaner or reservation
+ * against the direct memory limit, a bitmap tracks which slots are in use.
+ * <p>
+ * A slab is only accessed while holding the monitor of the size class in {@link SlabAllocator} which owns it.
+ */
+class PoolSlab
+{
+	/**
+	 * The alignment of the first slot, equals to a cache line.
+	 */
+	static final int ALIGNMENT = 64;
+	
+	private final ByteBuffer chunk;
+	/**
+	 * The address of the first slot.
+	 */
+	private final long address;
+	private final int offset;
+	private final int slotSize;
+	private final int slots;
+	/**
+	 * A bit is set if the slot is in use.
+	 */
+	private final long[] bitmap;
+	/**
+	 * The amount of slots which aren't in use.
+	 */
+	private int free;
+	/**
+	 * Index of the first bitmap word which may contain a free slot.
+	 */
+	private int nextWord;
+	
+	/**
+	 * Constructs a new {@link PoolSlab} using the specified chunk, the chunk must fit the specified amount of slots
+	 * after being aligned to {@link #ALIGNMENT}.
+	 *
+	 * @param chunk the memory of the slab
+	 * @param sizeClass of the slots
+	 * @param slots the amount of slots
+	 */
+	PoolSlab(ByteBuffer chunk, int sizeClass, int slots)
+	{
+		this.slotSize = ByteBufferPool.classSize(sizeClass);
+		this.slots = slots;
+		this.chunk = chunk;
+		long chunkAddress = Util.address(chunk);
+		this.offset = (int) (-chunkAddress & (ALIGNMENT - 1));
+		this.address = chunkAddress + offset;
+		this.bitmap = new long[(slots + Long.SIZE - 1) / Long.SIZE];
+		this.free = slots;
+	}
+	
+	/**
+	 * Returns the memory of this slab.
+	 *
+	 * @return the memory of this slab
+	 */
+	ByteBuffer getChunk()
+	{
+		return chunk;
+	}
+	
+	/**
+	 * Returns the address of the first slot of this slab.
+	 *
+	 * @return the address of the first slot of this slab
+	 */
+	long getAddress()
+	{
+		return address;
+	}
+	
+	/**
+	 * Returns whether the specified address is within this slab.
+	 *
+	 * @param address to check
+	 * @return whether the specified address is within this slab
+	 */
+	boolean contains(long address)
+	{
+		return address >= this.address && address < this.address + (long) slotSize * slots;
+	}
+	
+	/**
+	 * Returns whether all slots of this slab are in use.
+	 *
+	 * @return whether all slots of this slab are in use
+	 */
+	boolean isFull()
+	{
+		return free == 0;
+	}
+	
+	/**
+	 * Returns whether none of the slots of this slab are in use.
+	 *
+	 * @return whether none of the slots of this slab are in use
+	 */
+	boolean isUnused()
+	{
+		return free == slots;
+	}
+	
+	/**
+	 * Marks a free slot as used and returns it as a {@link ByteBuffer}, this slab must not be full.
+	 *
+	 * @return a free slot
+	 */
+	ByteBuffer allocate()
+	{
+		for(int word = nextWord; word < bitmap.length; word++)
+		{
+			long bits = bitmap[word];
+			if(bits != -1)
+			{
+				int bit = Long.numberOfTrailingZeros(~bits);
+				int index = word * Long.SIZE + bit;
+				if(index >= slots)
+				{
+					break;
+				}
+				bitmap[word] = bits | (1L << bit);
+				nextWord = word;
+				free--;
+				int position = offset + index * slotSize;
+				ByteBuffer slot = chunk.duplicate();
+				slot.limit(position + slotSize).position(position);
+				return slot.slice();
+			}
+		}
+		throw new IllegalStateException("Slab is full!");
+	}
+	
+	/**
+	 * Marks the slot which starts at the specified address as free.
+	 *
+	 * @param slotAddress the address of the slot
+	 */
+	void free(long slotAddress)
+	{
+		int index = (int) ((slotAddress - address) / slotSize);
+		int word = index / Long.SIZE;
+		bitmap[word] &= ~(1L << (index % Long.SIZE));
+		nextWord = Math.min(nextWord, word);
+		free++;
+	}
+	
+}
\ No newline at end of file
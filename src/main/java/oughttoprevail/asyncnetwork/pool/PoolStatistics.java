@@ -0,0 +1,238 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link PoolMetricsMXBean} of a {@link ByteBufferPool}.
+ * Counters updated on every take or give are {@link StripedCounters} so threads don't contend on them,
+ * hand-rolled rather than LongAdders since those aren't available before Android API 24.
+ * The time of an allocation is only measured on a miss since a hit is never slow.
+ */
+class PoolStatistics implements PoolMetricsMXBean
+{
+	private static final int CACHED_BYTES = 0;
+	private static final int USED_BYTES = 1;
+	
+	private final ByteBufferPool pool;
+	/**
+	 * The hits of each size class.
+	 */
+	private final StripedCounters hits;
+	private final AtomicLong[] misses;
+	private final AtomicLong unpooled = new AtomicLong();
+	/**
+	 * Bytes held by thread caches ({@link #CACHED_BYTES}) and bytes in use ({@link #USED_BYTES}),
+	 * bytes held by the shared arenas are counted by the pool itself.
+	 */
+	private final StripedCounters bytes = new StripedCounters(2);
+	private final AtomicLong allocationNanos = new AtomicLong();
+	private final AtomicLong maxAllocationNanos = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong trimmed = new AtomicLong();
+	
+	PoolStatistics(ByteBufferPool pool, int sizeClasses)
+	{
+		this.pool = pool;
+		this.hits = new StripedCounters(sizeClasses);
+		this.misses = new AtomicLong[sizeClasses];
+		for(int i = 0; i < sizeClasses; i++)
+		{
+			misses[i] = new AtomicLong();
+		}
+	}
+	
+	/**
+	 * Counts a buffer of the specified size class which was taken from the pool.
+	 *
+	 * @param sizeClass of the buffer
+	 */
+	void hit(int sizeClass)
+	{
+		hits.add(sizeClass, 1);
+	}
+	
+	/**
+	 * Counts a buffer of the specified size class which had to be allocated.
+	 *
+	 * @param sizeClass of the buffer
+	 * @param nanos it took to allocate the buffer
+	 */
+	void miss(int sizeClass, long nanos)
+	{
+		misses[sizeClass].incrementAndGet();
+		allocationNanos.addAndGet(nanos);
+		long max;
+		while(nanos > (max = maxAllocationNanos.get()) && !maxAllocationNanos.compareAndSet(max, nanos))
+		{
+		}
+	}
+	
+	/**
+	 * Counts a buffer which was allocated without the pool.
+	 */
+	void unpooled()
+	{
+		unpooled.incrementAndGet();
+	}
+	
+	/**
+	 * Adds the specified amount of bytes to the bytes held by thread caches.
+	 *
+	 * @param bytes to add, negative if bytes were removed
+	 */
+	void cached(long bytes)
+	{
+		this.bytes.add(CACHED_BYTES, bytes);
+	}
+	
+	/**
+	 * Adds the specified amount of bytes to the bytes in use.
+	 *
+	 * @param bytes to add, negative if bytes were given back
+	 */
+	void used(long bytes)
+	{
+		this.bytes.add(USED_BYTES, bytes);
+	}
+	
+	/**
+	 * Counts the specified amount of buffers which were disposed because of the pool limits.
+	 *
+	 * @param buffers which were disposed
+	 */
+	void evicted(int buffers)
+	{
+		evictions.addAndGet(buffers);
+	}
+	
+	/**
+	 * Counts the specified amount of buffers which were disposed by trimming.
+	 *
+	 * @param buffers which were disposed
+	 */
+	void trimmed(int buffers)
+	{
+		trimmed.addAndGet(buffers);
+	}
+	
+	@Override
+	public int[] getClassSizes()
+	{
+		int[] classSizes = new int[hits.size()];
+		for(int i = 0; i < classSizes.length; i++)
+		{
+			classSizes[i] = ByteBufferPool.classSize(i);
+		}
+		return classSizes;
+	}
+	
+	@Override
+	public long[] getHits()
+	{
+		return hits.sums();
+	}
+	
+	@Override
+	public long[] getMisses()
+	{
+		return sum(misses);
+	}
+	
+	@Override
+	public double getHitRate()
+	{
+		long hitCount = total(hits.sums());
+		long taken = hitCount + total(sum(misses));
+		return taken == 0 ? 0 : (double) hitCount / taken;
+	}
+	
+	@Override
+	public long getUnpooled()
+	{
+		return unpooled.get();
+	}
+	
+	@Override
+	public long getRetainedBytes()
+	{
+		return pool.getRetained() + bytes.sum(CACHED_BYTES);
+	}
+	
+	@Override
+	public long getMaxRetainedBytes()
+	{
+		return pool.getMaxRetained();
+	}
+	
+	@Override
+	public long getUsedBytes()
+	{
+		return bytes.sum(USED_BYTES);
+	}
+	
+	@Override
+	public long getAverageAllocationNanos()
+	{
+		long allocations = total(sum(misses));
+		return allocations == 0 ? 0 : allocationNanos.get() / allocations;
+	}
+	
+	@Override
+	public long getMaxAllocationNanos()
+	{
+		return maxAllocationNanos.get();
+	}
+	
+	@Override
+	public long getEvictions()
+	{
+		return evictions.get();
+	}
+	
+	@Override
+	public long getTrimmed()
+	{
+		return trimmed.get();
+	}
+	
+	@Override
+	public long getLeaks()
+	{
+		return pool.getLeakDetector().getLeaks();
+	}
+	
+	private static long[] sum(AtomicLong[] counters)
+	{
+		long[] sums = new long[counters.length];
+		for(int i = 0; i < sums.length; i++)
+		{
+			sums[i] = counters[i].get();
+		}
+		return sums;
+	}
+	
+	private static long total(long[] sums)
+	{
+		long total = 0;
+		for(long sum : sums)
+		{
+			total += sum;
+		}
+		return total;
+	}
+}
\ No newline at end of file
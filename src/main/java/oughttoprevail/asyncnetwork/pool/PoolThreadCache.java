@@ -0,0 +1,223 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A per thread cache of a {@link ByteBufferPool}, taking and giving buffers through the cache doesn't need any lock.
+ * When the cache of a size class is empty a buffer is taken from the thread's {@link PoolArena},
+ * when it is full half of it is given back to the {@link PoolArena}.
+ * Only size classes up to {@link ByteBufferPool#MAX_CACHED_SIZE} which fit in the configured cache size are cached.
+ * Once the owning thread has died the cache is drained back to the {@link PoolArena} by the trim thread.
+ * Every trim interval buffers which haven't been used since the previous trim are given back to the {@link PoolArena}
+ * on the next take or give of the owning thread.
+ */
+class PoolThreadCache
+{
+	/**
+	 * The max amount of buffers each size class may hold in a cache.
+	 */
+	private static final int MAX_CACHED = 64;
+	
+	private final PoolArena arena;
+	private final PoolStatistics statistics;
+	private final ByteBuffer[][] buffers;
+	private final int[] counts;
+	/**
+	 * The lowest count of each size class since the previous trim, these buffers weren't used since.
+	 */
+	private final int[] lowWatermarks;
+	/**
+	 * Whether the trim thread has requested a trim, the trim itself happens on the owning thread.
+	 */
+	private volatile boolean trimRequested;
+	/**
+	 * The thread which owns this cache, weakly referenced so a dead thread can be collected.
+	 */
+	private final WeakReference<Thread> owner;
+	/**
+	 * Whether this cache has been drained because it's owner has died.
+	 */
+	private boolean drained;
+	
+	/**
+	 * Constructs a new {@link PoolThreadCache}.
+	 *
+	 * @param arena the {@link PoolArena} the cache takes from and gives to
+	 * @param statistics the {@link PoolStatistics} of the pool
+	 * @param cachedClasses the amount of size classes which are cached, each must fit at least one buffer in cacheSize
+	 * @param cacheSize the amount of bytes each size class may hold
+	 * @param owner the thread which owns the cache
+	 */
+	PoolThreadCache(PoolArena arena, PoolStatistics statistics, int cachedClasses, int cacheSize, Thread owner)
+	{
+		this.arena = arena;
+		this.statistics = statistics;
+		this.owner = new WeakReference<>(owner);
+		this.buffers = new ByteBuffer[cachedClasses][];
+		this.counts = new int[cachedClasses];
+		this.lowWatermarks = new int[cachedClasses];
+		for(int i = 0; i < cachedClasses; i++)
+		{
+			buffers[i] = new ByteBuffer[Math.min(MAX_CACHED, cacheSize / ByteBufferPool.classSize(i))];
+		}
+	}
+	
+	/**
+	 * Returns the {@link PoolArena} this cache takes from and gives to.
+	 *
+	 * @return the {@link PoolArena} this cache takes from and gives to
+	 */
+	PoolArena getArena()
+	{
+		return arena;
+	}
+	
+	/**
+	 * Takes a buffer of the specified size class from this cache or from the {@link #arena} if this cache has none.
+	 *
+	 * @param sizeClass of the buffer
+	 * @return a buffer of the specified size class
+	 */
+	ByteBuffer take(int sizeClass)
+	{
+		if(trimRequested)
+		{
+			trim();
+		}
+		int count = counts[sizeClass];
+		if(count == 0)
+		{
+			return arena.take(sizeClass);
+		}
+		ByteBuffer[] cached = buffers[sizeClass];
+		ByteBuffer byteBuffer = cached[--count];
+		cached[count] = null;
+		counts[sizeClass] = count;
+		if(count < lowWatermarks[sizeClass])
+		{
+			lowWatermarks[sizeClass] = count;
+		}
+		statistics.hit(sizeClass);
+		statistics.cached(-byteBuffer.capacity());
+		return byteBuffer;
+	}
+	
+	/**
+	 * Gives the specified buffer to this cache, if the cache of the size class is full
+	 * then half of it is given to the {@link #arena} first.
+	 *
+	 * @param sizeClass of the specified byteBuffer
+	 * @param byteBuffer to give
+	 */
+	void give(int sizeClass, ByteBuffer byteBuffer)
+	{
+		if(trimRequested)
+		{
+			trim();
+		}
+		ByteBuffer[] cached = buffers[sizeClass];
+		int count = counts[sizeClass];
+		if(count == cached.length)
+		{
+			int keep = count >> 1;
+			arena.giveAll(sizeClass, cached, keep, count);
+			statistics.cached(-(long) (count - keep) * byteBuffer.capacity());
+			count = keep;
+			if(count < lowWatermarks[sizeClass])
+			{
+				lowWatermarks[sizeClass] = count;
+			}
+		}
+		cached[count++] = byteBuffer;
+		counts[sizeClass] = count;
+		statistics.cached(byteBuffer.capacity());
+	}
+	
+	/**
+	 * Requests this cache to be trimmed on the next take or give of the owning thread.
+	 */
+	void requestTrim()
+	{
+		trimRequested = true;
+	}
+	
+	/**
+	 * Gives every buffer which hasn't been used since the previous trim to the {@link #arena},
+	 * these are the oldest buffers at the bottom of each size class.
+	 */
+	private void trim()
+	{
+		trimRequested = false;
+		for(int sizeClass = 0; sizeClass < counts.length; sizeClass++)
+		{
+			int count = counts[sizeClass];
+			int unused = Math.min(lowWatermarks[sizeClass], count);
+			if(unused != 0)
+			{
+				ByteBuffer[] cached = buffers[sizeClass];
+				arena.giveAll(sizeClass, cached, 0, unused);
+				System.arraycopy(cached, unused, cached, 0, count - unused);
+				Arrays.fill(cached, count - unused, count, null);
+				count -= unused;
+				counts[sizeClass] = count;
+				statistics.cached(-(long) unused * ByteBufferPool.classSize(sizeClass));
+			}
+			lowWatermarks[sizeClass] = count;
+		}
+	}
+	
+	/**
+	 * Returns whether the thread which owns this cache is still alive.
+	 *
+	 * @return whether the thread which owns this cache is still alive
+	 */
+	boolean isOwnerAlive()
+	{
+		Thread thread = owner.get();
+		return thread != null && thread.isAlive();
+	}
+	
+	/**
+	 * Gives every cached buffer back to the {@link #arena}.
+	 * This may only be invoked once the owner has died since the cache itself isn't thread safe,
+	 * a terminated thread's actions happen before another thread sees it isn't alive.
+	 *
+	 * @return whether this call drained the cache, {@code false} if it has already been drained
+	 */
+	synchronized boolean drain()
+	{
+		if(drained)
+		{
+			return false;
+		}
+		drained = true;
+		for(int sizeClass = 0; sizeClass < counts.length; sizeClass++)
+		{
+			int count = counts[sizeClass];
+			if(count != 0)
+			{
+				arena.giveAll(sizeClass, buffers[sizeClass], 0, count);
+				statistics.cached(-(long) count * ByteBufferPool.classSize(sizeClass));
+				counts[sizeClass] = 0;
+			}
+		}
+		return true;
+	}
+}
\ No newline at end of file
@@ -16,16 +16,99 @@ limitations under the License.
 package oughttoprevail.asyncnetwork.pool;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import oughttoprevail.asyncnetwork.util.Consumer;
 import oughttoprevail.asyncnetwork.util.Util;
+import oughttoprevail.asyncnetwork.util.Validator;
 
+/**
+ * A direct {@link ByteBuffer} taken from a pool.
+ * <br><br>
+ * The buffer is reference counted, it starts with a single reference which is owned by the creator and every
+ * {@link #retain()} adds a reference which must be given up using {@link #release()}.
+ * Once the last reference has been released the buffer is given back to the pool.
+ * Writers retain the buffer of a write which can't finish immediately until it has finished, so a buffer may
+ * be closed while it is still being written.
+ */
 public class PooledByteBuffer implements AutoCloseable
 {
+	/**
+	 * Sets the configuration of the pool {@link PooledByteBuffer}s are taken from.
+	 * This must be invoked before the first {@link PooledByteBuffer} is created.
+	 *
+	 * @param configuration the configuration of the pool
+	 * @throws IllegalStateException if a {@link PooledByteBuffer} has already been created
+	 */
+	public static void configure(PoolConfiguration configuration)
+	{
+		ByteBufferPool.configure(configuration);
+	}
+	
+	/**
+	 * Invokes the specified consumer with exceptions reported by the pool such as a
+	 * {@link oughttoprevail.asyncnetwork.exceptions.BufferLeakException}.
+	 * If there are no consumers the exceptions are printed.
+	 *
+	 * @param onException the consumer that will be called with the reported exceptions
+	 */
+	public static void onException(Consumer<Throwable> onException)
+	{
+		Validator.requireNonNull(onException, "Consumer");
+		ByteBufferPool.onException(onException);
+	}
+	
+	/**
+	 * Returns the amount of buffers which have been garbage collected without being released and were tracked
+	 * by the leak detection.
+	 *
+	 * @return the amount of detected leaks
+	 */
+	public static long getLeakCount()
+	{
+		return ByteBufferPool.getInstance().getLeakDetector().getLeaks();
+	}
+	
+	/**
+	 * Returns the metrics of the pool {@link PooledByteBuffer}s are taken from.
+	 *
+	 * @return the metrics of the pool {@link PooledByteBuffer}s are taken from
+	 */
+	public static PoolMetricsMXBean getMetrics()
+	{
+		return ByteBufferPool.getInstance().getStatistics();
+	}
+	
+	/**
+	 * Starts allocating the buffers of the specified profile in a background thread so the first
+	 * {@link PooledByteBuffer}s don't have to allocate them.
+	 * Warmed up buffers aren't trimmed, buffers which the pool can't retain because of it's limits are skipped.
+	 *
+	 * @param profile the amount of buffers of every size to allocate
+	 * @return the progress of the warm up
+	 */
+	public static WarmUp warmUp(WarmUpProfile profile)
+	{
+		Validator.requireNonNull(profile, "Profile");
+		return ByteBufferPool.getInstance().warmUp(profile);
+	}
+	
 	private final ByteBufferElement byteBufferElement;
+	private final AtomicInteger referenceCount = new AtomicInteger(1);
+	/**
+	 * The {@link LeakDetector.LeakTracker} of this buffer or {@code null} if it isn't tracked.
+	 */
+	private final LeakDetector.LeakTracker leakTracker;
+	/**
+	 * Invoked once this buffer has been given back to the pool or {@code null} if there is nothing to invoke.
+	 */
+	private volatile Runnable onRelease;
 	
 	public PooledByteBuffer(int size)
 	{
-		this.byteBufferElement = ByteBufferPool.getInstance().take(size);
+		ByteBufferPool pool = ByteBufferPool.getInstance();
+		this.byteBufferElement = pool.take(size);
+		this.leakTracker = pool.getLeakDetector().track(this, size);
 	}
 	
 	public ByteBuffer getByteBuffer()
@@ -33,9 +116,81 @@ public class PooledByteBuffer implements AutoCloseable
 		return byteBufferElement.getByteBuffer();
 	}
 	
+	/**
+	 * Adds a reference to this buffer, the reference must be given up using {@link #release()}.
+	 *
+	 * @return this
+	 * @throws IllegalStateException if this buffer has already been given back to the pool
+	 */
+	public PooledByteBuffer retain()
+	{
+		int count;
+		do
+		{
+			count = referenceCount.get();
+			if(count <= 0)
+			{
+				throw new IllegalStateException("Cannot retain a buffer which has already been released!");
+			}
+		} while(!referenceCount.compareAndSet(count, count + 1));
+		return this;
+	}
+	
+	/**
+	 * Gives up a reference to this buffer, if it was the last reference the buffer is given back to the pool.
+	 *
+	 * @return whether the buffer has been given back to the pool
+	 * @throws IllegalStateException if this buffer has already been given back to the pool
+	 */
+	public boolean release()
+	{
+		int count = referenceCount.decrementAndGet();
+		if(count == 0)
+		{
+			if(leakTracker != null)
+			{
+				leakTracker.close();
+			}
+			ByteBufferPool.getInstance().give(byteBufferElement);
+			Validator.runRunnable(onRelease);
+			return true;
+		}
+		if(count < 0)
+		{
+			referenceCount.incrementAndGet();
+			throw new IllegalStateException("Buffer has already been released!");
+		}
+		return false;
+	}
+	
+	/**
+	 * Sets the runnable that will be invoked by the thread which releases the last reference to this buffer once
+	 * the buffer has been given back to the pool.
+	 * This must be set while holding a reference to this buffer.
+	 *
+	 * @param onRelease the runnable that will be invoked once this buffer has been given back to the pool
+	 */
+	public void onRelease(Runnable onRelease)
+	{
+		this.onRelease = onRelease;
+	}
+	
+	/**
+	 * Returns the amount of references to this buffer, {@code 0} if it has been given back to the pool.
+	 *
+	 * @return the amount of references to this buffer
+	 */
+	public int referenceCount()
+	{
+		return referenceCount.get();
+	}
+	
+	/**
+	 * Gives up the creator's reference to this buffer, same as {@link #release()}.
+	 */
 	public void close()
 	{
-		ByteBufferPool.getInstance().give(byteBufferElement);
+		release();
 	}
 	
 	private volatile long address = -1;
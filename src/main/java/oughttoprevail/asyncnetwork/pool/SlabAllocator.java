@@ -0,0 +1,181 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import oughttoprevail.asyncnetwork.util.Util;
+
+/**
+ * Allocates buffers of a {@link ByteBufferPool} as slots of {@link PoolSlab}s.
+ * Every size class has it's own slabs and lock, only size classes which fit at least
+ * {@link #MIN_SLOTS} slots in a slab are allocated from slabs.
+ * The memory of the slabs is taken from a {@link MappedRegion} if there is one, once all of it's chunks are in use
+ * slabs are allocated directly.
+ */
+class SlabAllocator
+{
+	/**
+	 * The min amount of slots in a slab, size classes with less slots aren't allocated from slabs.
+	 */
+	private static final int MIN_SLOTS = 8;
+	/**
+	 * The max amount of slots in a slab so small size classes don't create huge slabs.
+	 */
+	private static final int MAX_SLOTS = 1024;
+	
+	/**
+	 * The slabs of every size class, {@code null} if the size class isn't allocated from slabs.
+	 */
+	private final SlabClass[] classes;
+	/**
+	 * The {@link MappedRegion} the memory of slabs is taken from or {@code null} if slabs are allocated directly.
+	 */
+	private final MappedRegion region;
+	
+	SlabAllocator(int sizeClasses, int slabSize, MappedRegion region)
+	{
+		this.region = region;
+		classes = new SlabClass[sizeClasses];
+		for(int i = 0; i < sizeClasses; i++)
+		{
+			int classSize = ByteBufferPool.classSize(i);
+			//a chunk of the region is always a whole slab so there is no reason to limit the slots
+			int slots = region == null ? Math.min(MAX_SLOTS, slabSize / classSize) : region.getChunkSize() / classSize;
+			if(slots >= MIN_SLOTS)
+			{
+				classes[i] = new SlabClass(slots);
+			}
+		}
+	}
+	
+	/**
+	 * Allocates a slot of the specified size class.
+	 *
+	 * @param sizeClass of the slot
+	 * @return a slot of the specified size class or {@code null} if the size class isn't allocated from slabs
+	 */
+	ByteBuffer allocate(int sizeClass)
+	{
+		SlabClass slabClass = classes[sizeClass];
+		if(slabClass == null)
+		{
+			return null;
+		}
+		synchronized(slabClass)
+		{
+			PoolSlab slab = slabClass.available.peekFirst();
+			if(slab == null)
+			{
+				slab = new PoolSlab(newChunk(sizeClass, slabClass.slots), sizeClass, slabClass.slots);
+				slabClass.slabs.put(slab.getAddress(), slab);
+				slabClass.available.offerFirst(slab);
+			}
+			ByteBuffer slot = slab.allocate();
+			if(slab.isFull())
+			{
+				slabClass.available.pollFirst();
+			}
+			return slot;
+		}
+	}
+	
+	/**
+	 * Frees the specified buffer if it's a slot of a slab.
+	 * If it's slab is no longer in use and there is another slab with free slots the slab is disposed.
+	 *
+	 * @param sizeClass of the specified byteBuffer
+	 * @param byteBuffer to free
+	 * @return whether the specified byteBuffer was a slot of a slab
+	 */
+	boolean free(int sizeClass, ByteBuffer byteBuffer)
+	{
+		SlabClass slabClass = classes[sizeClass];
+		if(slabClass == null)
+		{
+			return false;
+		}
+		long address = Util.address(byteBuffer);
+		synchronized(slabClass)
+		{
+			Entry<Long, PoolSlab> entry = slabClass.slabs.floorEntry(address);
+			if(entry == null || !entry.getValue().contains(address))
+			{
+				return false;
+			}
+			PoolSlab slab = entry.getValue();
+			boolean wasFull = slab.isFull();
+			slab.free(address);
+			if(slab.isUnused() && slabClass.available.size() > 1)
+			{
+				slabClass.available.remove(slab);
+				slabClass.slabs.remove(slab.getAddress());
+				ByteBuffer chunk = slab.getChunk();
+				if(region == null || !region.free(chunk))
+				{
+					Util.dispose(chunk);
+				}
+			} else if(wasFull)
+			{
+				slabClass.available.offerLast(slab);
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns the memory for a new slab with the specified amount of slots of the specified size class.
+	 *
+	 * @param sizeClass of the slots
+	 * @param slots the amount of slots
+	 * @return the memory for a new slab
+	 */
+	private ByteBuffer newChunk(int sizeClass, int slots)
+	{
+		if(region != null)
+		{
+			ByteBuffer chunk = region.allocate();
+			if(chunk != null)
+			{
+				return chunk;
+			}
+		}
+		return ByteBuffer.allocateDirect(ByteBufferPool.classSize(sizeClass) * slots + PoolSlab.ALIGNMENT);
+	}
+	
+	private static class SlabClass
+	{
+		private final int slots;
+		/**
+		 * All slabs of the size class by their address.
+		 */
+		private final NavigableMap<Long, PoolSlab> slabs = new TreeMap<>();
+		/**
+		 * Slabs which have free slots.
+		 */
+		private final Deque<PoolSlab> available = new ArrayDeque<>();
+		
+		private SlabClass(int slots)
+		{
+			this.slots = slots;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A group of counters which are striped by thread so threads updating the same counter rarely contend,
+ * the value of a counter is the sum of it's stripes.
+ * Each stripe is padded to a cache line so stripes of different threads don't share one.
+ */
+class StripedCounters
+{
+	/**
+	 * The amount of longs in a cache line.
+	 */
+	private static final int CACHE_LINE_LONGS = 8;
+	
+	private final AtomicLongArray values;
+	private final int counters;
+	private final int stripeLength;
+	private final int stripeMask;
+	
+	/**
+	 * Constructs a new {@link StripedCounters} with the specified amount of counters.
+	 *
+	 * @param counters the amount of counters
+	 */
+	StripedCounters(int counters)
+	{
+		int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+		this.counters = counters;
+		this.stripeLength = (counters + CACHE_LINE_LONGS - 1) / CACHE_LINE_LONGS * CACHE_LINE_LONGS;
+		this.stripeMask = stripes - 1;
+		//an extra padding stripe before the first so it doesn't share a cache line with another object
+		this.values = new AtomicLongArray((stripes + 1) * stripeLength);
+	}
+	
+	/**
+	 * Adds the specified delta to the specified counter.
+	 *
+	 * @param counter to add to
+	 * @param delta to add, negative to subtract
+	 */
+	void add(int counter, long delta)
+	{
+		int stripe = ((int) Thread.currentThread().getId() & stripeMask) + 1;
+		values.addAndGet(stripe * stripeLength + counter, delta);
+	}
+	
+	/**
+	 * Returns the sum of the specified counter, the sum isn't atomic with concurrent updates.
+	 *
+	 * @param counter to sum
+	 * @return the sum of the specified counter
+	 */
+	long sum(int counter)
+	{
+		long sum = 0;
+		for(int stripe = 1; stripe <= stripeMask + 1; stripe++)
+		{
+			sum += values.get(stripe * stripeLength + counter);
+		}
+		return sum;
+	}
+	
+	/**
+	 * Returns the sums of all counters, the sums aren't atomic with concurrent updates.
+	 *
+	 * @return the sums of all counters
+	 */
+	long[] sums()
+	{
+		long[] sums = new long[counters];
+		for(int i = 0; i < counters; i++)
+		{
+			sums[i] = sum(i);
+		}
+		return sums;
+	}
+	
+	/**
+	 * Returns the amount of counters.
+	 *
+	 * @return the amount of counters
+	 */
+	int size()
+	{
+		return counters;
+	}
+}
\ No newline at end of file
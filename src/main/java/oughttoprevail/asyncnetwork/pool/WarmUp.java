@@ -0,0 +1,110 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oughttoprevail.asyncnetwork.util.ConditionWaiter;
+
+/**
+ * The progress of a warm up started by {@link PooledByteBuffer#warmUp(WarmUpProfile)}.
+ * The warm up is done by a background thread, buffers which the pool can't retain because of it's limits
+ * are skipped.
+ */
+public class WarmUp
+{
+	private final int total;
+	/**
+	 * The amount of buffers which have been allocated or skipped.
+	 */
+	private final AtomicInteger processed = new AtomicInteger();
+	/**
+	 * The amount of buffers which have been allocated and retained by the pool.
+	 */
+	private final AtomicInteger retained = new AtomicInteger();
+	private final ConditionWaiter waiter = new ConditionWaiter();
+	private volatile boolean done;
+	
+	WarmUp(int total)
+	{
+		this.total = total;
+	}
+	
+	void retained()
+	{
+		retained.incrementAndGet();
+		processed.incrementAndGet();
+	}
+	
+	void skipped(int count)
+	{
+		processed.addAndGet(count);
+	}
+	
+	void finish()
+	{
+		done = true;
+		waiter.finish();
+	}
+	
+	/**
+	 * Returns the total amount of buffers in the profile.
+	 *
+	 * @return the total amount of buffers in the profile
+	 */
+	public int getTotal()
+	{
+		return total;
+	}
+	
+	/**
+	 * Returns the amount of buffers which have been allocated and retained by the pool.
+	 *
+	 * @return the amount of buffers which have been allocated and retained by the pool
+	 */
+	public int getRetained()
+	{
+		return retained.get();
+	}
+	
+	/**
+	 * Returns the progress of the warm up between {@code 0} and {@code 1}.
+	 *
+	 * @return the progress of the warm up between {@code 0} and {@code 1}
+	 */
+	public float getProgress()
+	{
+		return total == 0 ? 1 : (float) processed.get() / total;
+	}
+	
+	/**
+	 * Returns whether the warm up is done.
+	 *
+	 * @return whether the warm up is done
+	 */
+	public boolean isDone()
+	{
+		return done;
+	}
+	
+	/**
+	 * Blocks until the warm up is done.
+	 */
+	public void await()
+	{
+		waiter.await();
+	}
+}
\ No newline at end of file
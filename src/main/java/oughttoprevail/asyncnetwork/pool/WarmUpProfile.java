@@ -0,0 +1,95 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.pool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import oughttoprevail.asyncnetwork.util.Validator;
+
+/**
+ * The amount of buffers of every size to allocate when warming up the pool using
+ * {@link PooledByteBuffer#warmUp(WarmUpProfile)}.
+ */
+public class WarmUpProfile
+{
+	public static WarmUpProfile create()
+	{
+		return new WarmUpProfile();
+	}
+	
+	/**
+	 * Returns a new {@link WarmUpProfile} with a read buffer for every expected connection.
+	 *
+	 * @param connections the expected max amount of connections
+	 * @param bufferSize the bufferSize of every connection
+	 * @return a new {@link WarmUpProfile} with a read buffer for every expected connection
+	 */
+	public static WarmUpProfile forConnections(int connections, int bufferSize)
+	{
+		return create().add(bufferSize, connections);
+	}
+	
+	/**
+	 * The amount of buffers of every size, the key is the size and the value is the amount.
+	 */
+	private final Map<Integer, Integer> counts = new LinkedHashMap<>();
+	
+	/**
+	 * Adds the specified count of buffers of the specified size to this profile.
+	 *
+	 * @param size of the buffers
+	 * @param count the amount of buffers
+	 * @return this
+	 */
+	public WarmUpProfile add(int size, int count)
+	{
+		Validator.higherThan0(size, "Size");
+		if(count < 0)
+		{
+			throw new IllegalArgumentException("Count cannot be negative!");
+		}
+		//not using merge since it isn't available before Android API 24
+		Integer current = counts.get(size);
+		counts.put(size, current == null ? count : current + count);
+		return this;
+	}
+	
+	/**
+	 * Returns the amount of buffers of every size, the key is the size and the value is the amount.
+	 *
+	 * @return the amount of buffers of every size
+	 */
+	Map<Integer, Integer> getCounts()
+	{
+		return counts;
+	}
+	
+	/**
+	 * Returns the total amount of buffers in this profile.
+	 *
+	 * @return the total amount of buffers in this profile
+	 */
+	public int getTotal()
+	{
+		int total = 0;
+		for(int count : counts.values())
+		{
+			total += count;
+		}
+		return total;
+	}
+}
\ No newline at end of file
@@ -32,7 +32,11 @@ import oughttoprevail.asyncnetwork.CloseType;
 import oughttoprevail.asyncnetwork.ServerManager;
 import oughttoprevail.asyncnetwork.Socket;
 import oughttoprevail.asyncnetwork.exceptions.SelectorFailedCloseException;
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
+import oughttoprevail.asyncnetwork.pool.WarmUp;
+import oughttoprevail.asyncnetwork.pool.WarmUpProfile;
 import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.EventLoop;
 import oughttoprevail.asyncnetwork.util.ExceptionThrower;
 import oughttoprevail.asyncnetwork.util.IndexesBuffer;
 import oughttoprevail.asyncnetwork.util.OS;
@@ -41,6 +45,7 @@ import oughttoprevail.asyncnetwork.util.Util;
 import oughttoprevail.asyncnetwork.util.Validator;
 import oughttoprevail.asyncnetwork.util.selector.LinuxMacSelector;
 import oughttoprevail.asyncnetwork.util.selector.WindowsSelector;
+import oughttoprevail.asyncnetwork.util.timer.HashedWheelTimer;
 
 public abstract class AbstractServer
 {
@@ -89,6 +94,10 @@ public abstract class AbstractServer
 	 * The manager of this {@link AbstractServer}, it will give access to more sensitive data.
 	 */
 	private final ServerManager manager;
+	/**
+	 * The {@link EventLoop} driven by this server's selector loop.
+	 */
+	private final EventLoop eventLoop = new EventLoop(throwable -> manager().exception(throwable));
 	
 	/**
 	 * Constructs a new {@link AbstractServer} and uses default values.
@@ -471,6 +480,18 @@ public abstract class AbstractServer
 		return clients;
 	}
 	
+	/**
+	 * Starts warming up the buffer pool with a read buffer for every expected connection,
+	 * this should be invoked when the server starts so the first connections don't have to allocate them.
+	 *
+	 * @param expectedConnections the expected max amount of connections
+	 * @return the progress of the warm up
+	 */
+	public WarmUp warmUpPool(int expectedConnections)
+	{
+		return PooledByteBuffer.warmUp(WarmUpProfile.forConnections(expectedConnections, bufferSize));
+	}
+	
 	/**
 	 * Returns the bufferSize.
 	 *
@@ -561,6 +582,28 @@ public abstract class AbstractServer
 		return manager;
 	}
 	
+	/**
+	 * Returns the {@link EventLoop} driven by this server's selector loop.
+	 * Tasks executed or scheduled with it are run by the selector loop thread.
+	 *
+	 * @return the {@link EventLoop} driven by this server's selector loop
+	 */
+	public EventLoop eventLoop()
+	{
+		return eventLoop;
+	}
+	
+	/**
+	 * Returns the {@link HashedWheelTimer} driven by this server's selector loop.
+	 * Tasks scheduled with it are run by the selector loop thread.
+	 *
+	 * @return the {@link HashedWheelTimer} driven by this server's selector loop
+	 */
+	public HashedWheelTimer getTimer()
+	{
+		return eventLoop.getTimer();
+	}
+	
 	/**
 	 * Returns the server's {@link SelectorImplementation}.
 	 *
@@ -19,6 +19,8 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.Pipe;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
@@ -28,6 +30,7 @@ import java.util.concurrent.ExecutorService;
 
 import oughttoprevail.asyncnetwork.exceptions.SelectException;
 import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
+import oughttoprevail.asyncnetwork.util.EventLoop;
 import oughttoprevail.asyncnetwork.util.IndexesBuffer;
 import oughttoprevail.asyncnetwork.util.OS;
 import oughttoprevail.asyncnetwork.util.SelectorImplementation;
@@ -44,6 +47,11 @@ import oughttoprevail.asyncnetwork.util.selector.flags.WindowsSelectorFlags;
 
 public abstract class SelectableServer extends AbstractServer
 {
+	/**
+	 * The index the {@link LinuxMacSelector} wakeup pipe is registered with.
+	 */
+	private static final int WAKEUP_INDEX = -6;
+	
 	/**
 	 * The {@link SelectorImplementation} of this {@link SelectableServer}.
 	 */
@@ -146,6 +154,22 @@ public abstract class SelectableServer extends AbstractServer
 		try
 		{
 			selector.createSelector(Util.getFD(serverSocketChannel), selectArraySize);
+			EventLoop eventLoop = eventLoop();
+			Pipe wakeupPipe = newWakeupPipe(selector);
+			if(wakeupPipe != null)
+			{
+				Pipe.SinkChannel sink = wakeupPipe.sink();
+				eventLoop.setWakeup(() ->
+				{
+					try
+					{
+						sink.write(ByteBuffer.wrap(new byte[1]));
+					} catch(IOException e)
+					{
+						manager().exception(e);
+					}
+				});
+			}
 			ThreadCreator.newThread("LinuxMacSelector", () ->
 			{
 				SelectorFlags selectorFlags;
@@ -162,16 +186,18 @@ public abstract class SelectableServer extends AbstractServer
 				//Allocate a buffer the size of the array size multiplied by Util.INT_BYTES * 2 because each array element should contain 2 integers.
 				IndexesBuffer buffer = new IndexesBuffer(selectArraySize * (Util.INT_BYTES * 2));
 				StatedCount count = new StatedCount();
+				ByteBuffer drainBuffer = ByteBuffer.allocate(64);
 				while(!isClosed())
 				{
 					try
 					{
-						int selected = selector.select(buffer.getAddress(), selectArraySize, selectTimeout);
+						int selected = selector.select(buffer.getAddress(), selectArraySize, eventLoop.nextTimeout(selectTimeout));
 						//check again. Maybe the server closed while selecting.
 						if(isClosed())
 						{
 							break;
 						}
+						eventLoop.runTasks();
 						//if selected is 0 it means a timeout has occurred or if it is -1 it means an error has occurred.
 						if(selected == -1 || selected == 0)
 						{
@@ -181,7 +207,13 @@ public abstract class SelectableServer extends AbstractServer
 						{
 							int index = buffer.get();
 							int flags = buffer.get();
-							selectorFlags.call(index, flags, null);
+							if(index == WAKEUP_INDEX)
+							{
+								drain(wakeupPipe, drainBuffer);
+							} else
+							{
+								selectorFlags.call(index, flags, null);
+							}
 						} else
 						{
 							count.set(selected);
@@ -189,7 +221,14 @@ public abstract class SelectableServer extends AbstractServer
 							{
 								int index = buffer.get();
 								int flags = buffer.get();
-								selectorFlags.call(index, flags, count);
+								if(index == WAKEUP_INDEX)
+								{
+									drain(wakeupPipe, drainBuffer);
+									count.countDown();
+								} else
+								{
+									selectorFlags.call(index, flags, count);
+								}
 							}
 							count.await();
 						}
@@ -200,6 +239,17 @@ public abstract class SelectableServer extends AbstractServer
 					}
 				}
 				buffer.close();
+				if(wakeupPipe != null)
+				{
+					try
+					{
+						wakeupPipe.source().close();
+						wakeupPipe.sink().close();
+					} catch(IOException e)
+					{
+						manager().exception(e);
+					}
+				}
 			});
 			return selector;
 		} catch(IOException e)
@@ -209,6 +259,45 @@ public abstract class SelectableServer extends AbstractServer
 		}
 	}
 	
+	/**
+	 * Returns a new {@link Pipe} whose source is registered to the specified selector with {@link #WAKEUP_INDEX},
+	 * writing to the sink wakes up the selector.
+	 * If the pipe couldn't be created {@code null} is returned and the selector loop polls for tasks instead.
+	 *
+	 * @param selector to register the pipe's source to
+	 * @return a new {@link Pipe} registered to the specified selector or {@code null} if it failed
+	 */
+	private Pipe newWakeupPipe(LinuxMacSelector selector)
+	{
+		try
+		{
+			Pipe pipe = Pipe.open();
+			pipe.source().configureBlocking(false);
+			pipe.sink().configureBlocking(false);
+			selector.registerClient(Util.getFD(pipe.source()), WAKEUP_INDEX);
+			return pipe;
+		} catch(IOException e)
+		{
+			manager().exception(e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Reads everything written to the specified wakeup pipe.
+	 *
+	 * @param wakeupPipe to drain
+	 * @param drainBuffer used for reading
+	 */
+	private void drain(Pipe wakeupPipe, ByteBuffer drainBuffer) throws IOException
+	{
+		while(wakeupPipe.source().read(drainBuffer) > 0)
+		{
+			drainBuffer.clear();
+		}
+		drainBuffer.clear();
+	}
+	
 	/**
 	 * Returns the specified selector.
 	 * Makes a selector loop for the specified selector.
@@ -226,6 +315,7 @@ public abstract class SelectableServer extends AbstractServer
 			IndexedList<ServerClientSocket> clients = getClientList();
 			WindowsSelectorFlags flags = new WindowsSelectorFlags(this, clients, selector, serverSocket);
 			ExecutorService executorService = manager().getExecutorService();
+			EventLoop eventLoop = eventLoop();
 			for(int i = 0; i < threadsCount; i++)
 			{
 				executorService.execute(() ->
@@ -242,7 +332,9 @@ public abstract class SelectableServer extends AbstractServer
 						{
 							try
 							{
-								Object finishedWrite = selector.select(selectTimeout, pooledResult.address());
+								Object finishedWrite = selector.select(eventLoop.nextTimeout(selectTimeout), pooledResult.address());
+								//all threads select on the same selector so the tasks are run by whichever thread isn't busy
+								eventLoop.tryRunTasks();
 								flags.select(result, finishedWrite);
 							} catch(SelectException e)
 							{
@@ -292,18 +384,21 @@ public abstract class SelectableServer extends AbstractServer
 			serverSocketChannel.register(javaSelector, SelectionKey.OP_ACCEPT);
 			int selectTimeout = getSelectTimeout();
 			IndexedList<ServerClientSocket> clients = getClientList();
+			EventLoop eventLoop = eventLoop();
+			eventLoop.setWakeup(javaSelector::wakeup);
 			ThreadCreator.newThread("JavaSelector", () ->
 			{
 				try
 				{
 					ExecutorService executorService = manager().getExecutorService();
 					StatedCount count = new StatedCount();
-					int javaSelectTimeout = selectTimeout == -1 ? 0 : selectTimeout;
 					while(javaSelector.isOpen())
 					{
-						int selected = javaSelector.select(javaSelectTimeout);
+						int timeout = eventLoop.nextTimeout(selectTimeout);
+						int selected = timeout == 0 ? javaSelector.selectNow() : javaSelector.select(timeout == -1 ? 0 : timeout);
 						if(javaSelector.isOpen())
 						{
+							eventLoop.runTasks();
 							if(selected == 0)
 							{
 								continue;
@@ -354,7 +449,13 @@ public abstract class SelectableServer extends AbstractServer
 												{
 													if(!client.manager().callWrite())
 													{
-														key.interestOps(SelectionKey.OP_READ);
+														try
+														{
+															key.interestOps(SelectionKey.OP_READ);
+														} catch(CancelledKeyException ignored)
+														{
+															//the write has closed the socket
+														}
 													}
 													if(changeThreads)
 													{
@@ -473,6 +574,50 @@ public abstract class SelectableServer extends AbstractServer
 				}
 			}
 		});
+		newEventLoopThread();
+	}
+	
+	/**
+	 * Creates a new {@link Thread} which drives the server's {@link EventLoop}
+	 * since {@link SelectorImplementation#THREAD_PER_CLIENT} has no selector loop.
+	 */
+	private void newEventLoopThread()
+	{
+		EventLoop eventLoop = eventLoop();
+		Object lock = new Object();
+		boolean[] woken = new boolean[1];
+		Runnable wakeup = () ->
+		{
+			synchronized(lock)
+			{
+				woken[0] = true;
+				lock.notifyAll();
+			}
+		};
+		eventLoop.setWakeup(wakeup);
+		onClose(closeType -> wakeup.run());
+		ThreadCreator.newThread("EventLoop", () ->
+		{
+			while(!isClosed())
+			{
+				eventLoop.runTasks();
+				int timeout = eventLoop.nextTimeout(-1);
+				synchronized(lock)
+				{
+					try
+					{
+						if(!woken[0] && timeout != 0 && !isClosed())
+						{
+							lock.wait(timeout == -1 ? 0 : timeout);
+						}
+					} catch(InterruptedException e)
+					{
+						break;
+					}
+					woken[0] = false;
+				}
+			}
+		});
 	}
 	
 	/**
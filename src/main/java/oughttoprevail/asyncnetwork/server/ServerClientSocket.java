@@ -23,6 +23,7 @@ import oughttoprevail.asyncnetwork.Socket;
 import oughttoprevail.asyncnetwork.util.ConditionWaiter;
 import oughttoprevail.asyncnetwork.util.Consumer;
 import oughttoprevail.asyncnetwork.util.DisconnectionType;
+import oughttoprevail.asyncnetwork.util.EventLoop;
 import oughttoprevail.asyncnetwork.util.Validator;
 import oughttoprevail.asyncnetwork.util.reader.Reader;
 import oughttoprevail.asyncnetwork.util.writer.Writer;
@@ -120,4 +121,15 @@ public abstract class ServerClientSocket extends Socket
 	{
 		return manager;
 	}
+	
+	/**
+	 * Returns the {@link EventLoop} of the server's loop.
+	 *
+	 * @return the {@link EventLoop} of the server's loop
+	 */
+	@Override
+	public EventLoop eventLoop()
+	{
+		return manager.getServer().eventLoop();
+	}
 }
\ No newline at end of file
@@ -41,5 +41,19 @@ public enum DisconnectionType
 	 * The exception close {@link DisconnectionType} is used when an exception occurs. Also {@link
 	 * Socket#onException(Consumer)} consumer will be called.
 	 */
-	EXCEPTION_CLOSE
+	EXCEPTION_CLOSE,
+	/**
+	 * The idle timeout {@link DisconnectionType} is used when the socket has been idle for longer than it's idle timeout
+	 * and {@link Socket#onIdle(Consumer)} has no consumers.
+	 */
+	IDLE_TIMEOUT,
+	/**
+	 * The read timeout {@link DisconnectionType} is used when a read with a deadline hasn't finished before the deadline.
+	 */
+	READ_TIMEOUT,
+	/**
+	 * The heartbeat timeout {@link DisconnectionType} is used when a
+	 * {@link oughttoprevail.asyncnetwork.packet.Heartbeat} ping hasn't been answered before the heartbeat timeout.
+	 */
+	HEARTBEAT_TIMEOUT
 }
\ No newline at end of file
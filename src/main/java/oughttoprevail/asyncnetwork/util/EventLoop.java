@@ -0,0 +1,222 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import oughttoprevail.asyncnetwork.util.timer.HashedWheelTimer;
+import oughttoprevail.asyncnetwork.util.timer.Timeout;
+
+/**
+ * Runs tasks on the thread of a selector loop.
+ * Tasks are added to a lock-free multi-producer single-consumer queue which the loop drains
+ * every iteration, scheduled tasks are handled by the loop's {@link HashedWheelTimer}.
+ * <p>
+ * The loop should invoke {@link #runTasks()} after every select and use {@link #nextTimeout(int)}
+ * as the timeout of it's next select.
+ */
+public class EventLoop implements Executor
+{
+	/**
+	 * The maximum amount of tasks run in a single {@link #runTasks()} so tasks which execute more tasks
+	 * can't starve the selector.
+	 */
+	private static final int MAX_TASKS_PER_RUN = 1024;
+	
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final HashedWheelTimer timer;
+	private final Consumer<Throwable> onException;
+	/**
+	 * Used by {@link #tryRunTasks()} when more than one thread drives this loop.
+	 */
+	private final ReentrantLock runLock = new ReentrantLock();
+	/**
+	 * Whether the loop has been woken up and has yet to run it's tasks, used to avoid redundant wakeups.
+	 */
+	private final AtomicBoolean wokenUp = new AtomicBoolean();
+	/**
+	 * The thread which has last run the tasks of this loop.
+	 */
+	private volatile Thread thread;
+	/**
+	 * Invoked when a task is added from outside of the loop thread, {@code null} if the loop can't be woken up.
+	 */
+	private volatile Runnable wakeup;
+	
+	/**
+	 * Constructs a new {@link EventLoop}.
+	 *
+	 * @param onException invoked with exceptions thrown by tasks
+	 */
+	public EventLoop(Consumer<Throwable> onException)
+	{
+		Validator.requireNonNull(onException, "OnException");
+		this.onException = onException;
+		this.timer = new HashedWheelTimer(onException);
+	}
+	
+	/**
+	 * Sets the runnable which wakes up the loop's select.
+	 *
+	 * @param wakeup the runnable which wakes up the loop's select or {@code null} if the loop can't be woken up,
+	 * in that case {@link #nextTimeout(int)} never returns more than a single timer tick
+	 */
+	public void setWakeup(Runnable wakeup)
+	{
+		this.wakeup = wakeup;
+		timer.setWakeup(wakeup == null ? null : this::wakeup);
+	}
+	
+	/**
+	 * Runs the specified task on the loop thread.
+	 * If invoked from the loop thread the task is run in the next loop iteration.
+	 *
+	 * @param task to run
+	 */
+	@Override
+	public void execute(Runnable task)
+	{
+		Validator.requireNonNull(task, "Task");
+		tasks.offer(task);
+		if(!inEventLoop())
+		{
+			wakeup();
+		}
+	}
+	
+	/**
+	 * Schedules the specified task to run on the loop thread once the specified delay has passed.
+	 *
+	 * @param task to run
+	 * @param delay the delay before running the task
+	 * @param unit the unit of the specified delay
+	 * @return the {@link Timeout} of the specified task which can be used to cancel it
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit)
+	{
+		return timer.schedule(task, delay, unit);
+	}
+	
+	/**
+	 * Returns whether the calling thread is the loop thread.
+	 *
+	 * @return whether the calling thread is the loop thread
+	 */
+	public boolean inEventLoop()
+	{
+		return Thread.currentThread() == thread;
+	}
+	
+	/**
+	 * Returns whether there are tasks which have yet to run or scheduled tasks which have yet to expire.
+	 *
+	 * @return whether there are tasks which have yet to run or scheduled tasks which have yet to expire
+	 */
+	public boolean hasTasks()
+	{
+		return !tasks.isEmpty() || timer.size() != 0;
+	}
+	
+	/**
+	 * Returns the timeout in milliseconds the loop should use for it's next select.
+	 *
+	 * @param selectTimeout the loop's select timeout in milliseconds, {@code -1} for infinite
+	 * @return the timeout in milliseconds the loop should use for it's next select, {@code 0} if
+	 * the select shouldn't block since there are tasks waiting or {@code -1} for infinite
+	 */
+	public int nextTimeout(int selectTimeout)
+	{
+		if(!tasks.isEmpty())
+		{
+			return 0;
+		}
+		int timeout = timer.nextTimeout(selectTimeout);
+		if(wakeup == null && (timeout == -1 || timeout > HashedWheelTimer.DEFAULT_TICK_DURATION))
+		{
+			//the loop can't be woken up so it has to check for new tasks by itself
+			return HashedWheelTimer.DEFAULT_TICK_DURATION;
+		}
+		return timeout;
+	}
+	
+	/**
+	 * Expires the timer and runs the tasks which have been added before this call.
+	 * This must only be invoked by a single thread at a time, the loop thread.
+	 */
+	public void runTasks()
+	{
+		thread = Thread.currentThread();
+		wokenUp.set(false);
+		timer.expire();
+		Runnable task;
+		for(int i = 0; i < MAX_TASKS_PER_RUN && (task = tasks.poll()) != null; i++)
+		{
+			try
+			{
+				task.run();
+			} catch(Throwable e)
+			{
+				onException.accept(e);
+			}
+		}
+	}
+	
+	/**
+	 * Invokes {@link #runTasks()} if no other thread is currently running this loop's tasks.
+	 * This is used when a loop is made of more than one thread.
+	 *
+	 * @return whether the tasks were run by this call
+	 */
+	public boolean tryRunTasks()
+	{
+		if(!runLock.tryLock())
+		{
+			return false;
+		}
+		try
+		{
+			runTasks();
+		} finally
+		{
+			runLock.unlock();
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the {@link HashedWheelTimer} of this loop.
+	 *
+	 * @return the {@link HashedWheelTimer} of this loop
+	 */
+	public HashedWheelTimer getTimer()
+	{
+		return timer;
+	}
+	
+	private void wakeup()
+	{
+		Runnable wakeup = this.wakeup;
+		if(wakeup != null && wokenUp.compareAndSet(false, true))
+		{
+			wakeup.run();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util;
+
+import oughttoprevail.asyncnetwork.Socket;
+
+/**
+ * Defines the IdleState options used by {@link Socket#onIdle(Consumer)}.
+ */
+public enum IdleState
+{
+	/**
+	 * The reader idle {@link IdleState} is used when nothing has been read for the reader idle time.
+	 */
+	READER_IDLE,
+	/**
+	 * The writer idle {@link IdleState} is used when no write has finished for the writer idle time.
+	 */
+	WRITER_IDLE,
+	/**
+	 * The all idle {@link IdleState} is used when nothing has been read and no write has finished for the all idle time.
+	 */
+	ALL_IDLE
+}
\ No newline at end of file
@@ -27,4 +27,17 @@ public interface ThreadCreator
 	{
 		new Thread(runnable, threadName).start();
 	}
+	
+	/**
+	 * Creates a new daemon thread with the specified name and runnable then starts it.
+	 *
+	 * @param threadName the thread name that will be used when calling {@link Thread#Thread(Runnable, String)}
+	 * @param runnable the runnable that will be used when calling {@link Thread#Thread(Runnable, String)}
+	 */
+	static void newDaemonThread(String threadName, Runnable runnable)
+	{
+		Thread thread = new Thread(runnable, threadName);
+		thread.setDaemon(true);
+		thread.start();
+	}
 }
\ No newline at end of file
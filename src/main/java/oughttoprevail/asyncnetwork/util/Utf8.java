@@ -0,0 +1,182 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Encodes strings as UTF-8 straight into a {@link ByteBuffer} and decodes them straight from one.
+ * Encoding doesn't allocate, strings which are only ASCII take a fast path which puts a byte for every char.
+ * Decoding copies the bytes into a per thread scratch array and creates the string from it, ASCII strings are
+ * created using {@code ISO-8859-1} which on JDK 9+ copies the bytes as is into a compact string.
+ * <p>
+ * Like {@link String#getBytes(Charset)} an unpaired surrogate is encoded as {@code '?'}.
+ */
+public class Utf8
+{
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+	/**
+	 * The max size of a scratch array which is kept by a thread, bigger strings use a temporary array.
+	 */
+	private static final int MAX_SCRATCH_SIZE = 64 * 1024;
+	private static final ThreadLocal<byte[]> SCRATCH = new ThreadLocal<byte[]>()
+	{
+		@Override
+		protected byte[] initialValue()
+		{
+			return new byte[256];
+		}
+	};
+	
+	private Utf8()
+	{
+	}
+	
+	/**
+	 * Returns the size in bytes of the specified string encoded as UTF-8.
+	 *
+	 * @param s the string to measure
+	 * @return the size in bytes of the specified string encoded as UTF-8
+	 */
+	public static int length(String s)
+	{
+		int length = s.length();
+		int bytes = length;
+		for(int i = 0; i < length; i++)
+		{
+			char c = s.charAt(i);
+			if(c < 0x80)
+			{
+				continue;
+			}
+			if(c < 0x800)
+			{
+				bytes++;
+			} else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1)))
+			{
+				//4 bytes for 2 chars
+				bytes += 2;
+				i++;
+			} else if(!Character.isSurrogate(c))
+			{
+				bytes += 2;
+			}
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Puts the specified string in the specified byteBuffer encoded as UTF-8.
+	 * The byteBuffer must have {@link #length(String)} bytes remaining.
+	 *
+	 * @param byteBuffer to put the string in
+	 * @param s the string to put
+	 */
+	public static void put(ByteBuffer byteBuffer, String s)
+	{
+		int length = s.length();
+		int i = 0;
+		//ASCII fast path
+		for(char c; i < length && (c = s.charAt(i)) < 0x80; i++)
+		{
+			byteBuffer.put((byte) c);
+		}
+		for(; i < length; i++)
+		{
+			char c = s.charAt(i);
+			if(c < 0x80)
+			{
+				byteBuffer.put((byte) c);
+			} else if(c < 0x800)
+			{
+				byteBuffer.put((byte) (0xC0 | (c >> 6)));
+				byteBuffer.put((byte) (0x80 | (c & 0x3F)));
+			} else if(Character.isSurrogate(c))
+			{
+				if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1)))
+				{
+					int codePoint = Character.toCodePoint(c, s.charAt(++i));
+					byteBuffer.put((byte) (0xF0 | (codePoint >> 18)));
+					byteBuffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+					byteBuffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+					byteBuffer.put((byte) (0x80 | (codePoint & 0x3F)));
+				} else
+				{
+					byteBuffer.put((byte) '?');
+				}
+			} else
+			{
+				byteBuffer.put((byte) (0xE0 | (c >> 12)));
+				byteBuffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				byteBuffer.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+	}
+	
+	/**
+	 * Reads a string of the specified amount of UTF-8 encoded bytes from the specified byteBuffer.
+	 *
+	 * @param byteBuffer to read the string from
+	 * @param length the size in bytes of the string
+	 * @return the decoded string
+	 */
+	public static String get(ByteBuffer byteBuffer, int length)
+	{
+		byte[] bytes;
+		int offset;
+		if(byteBuffer.hasArray())
+		{
+			bytes = byteBuffer.array();
+			offset = byteBuffer.arrayOffset() + byteBuffer.position();
+			byteBuffer.position(byteBuffer.position() + length);
+		} else
+		{
+			bytes = scratch(length);
+			offset = 0;
+			byteBuffer.get(bytes, 0, length);
+		}
+		for(int i = offset, end = offset + length; i < end; i++)
+		{
+			if(bytes[i] < 0)
+			{
+				return new String(bytes, offset, length, Util.UTF_8);
+			}
+		}
+		return new String(bytes, offset, length, ISO_8859_1);
+	}
+	
+	/**
+	 * Returns the scratch array of the current thread if it fits the specified length, else a bigger array.
+	 *
+	 * @param length the amount of bytes the array must fit
+	 * @return an array which fits the specified length
+	 */
+	private static byte[] scratch(int length)
+	{
+		byte[] scratch = SCRATCH.get();
+		if(scratch.length >= length)
+		{
+			return scratch;
+		}
+		scratch = new byte[Math.max(length, scratch.length << 1)];
+		if(scratch.length <= MAX_SCRATCH_SIZE)
+		{
+			SCRATCH.set(scratch);
+		}
+		return scratch;
+	}
+}
\ No newline at end of file
@@ -36,6 +36,14 @@ public interface Util
 	int FLOAT_BYTES = Float.SIZE / BYTE_SIZE;
 	int LONG_BYTES = Long.SIZE / BYTE_SIZE;
 	int DOUBLE_BYTES = Double.SIZE / BYTE_SIZE;
+	/**
+	 * The max size in bytes of a varint encoding an {@code int}.
+	 */
+	int MAX_VAR_INT_BYTES = 5;
+	/**
+	 * The max size in bytes of a varint encoding a {@code long}.
+	 */
+	int MAX_VAR_LONG_BYTES = 10;
 	
 	static void dispose(ByteBuffer byteBuffer)
 	{
@@ -97,6 +105,104 @@ public interface Util
 		return byteBuffer.array();
 	}
 	
+	/**
+	 * Returns the size in bytes of the specified unsigned value encoded as a varint.
+	 *
+	 * @param value to encode
+	 * @return the size in bytes of the specified value encoded as a varint
+	 */
+	static int varLongSize(long value)
+	{
+		//every byte holds 7 bits of the value, 0 still takes a byte
+		return Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 6) / 7);
+	}
+	
+	/**
+	 * Puts the specified unsigned value in the specified byteBuffer as a varint, 7 bits in every byte starting
+	 * from the least significant bits with the most significant bit of every byte but the last set.
+	 *
+	 * @param byteBuffer to put the varint in
+	 * @param value to encode
+	 */
+	static void putVarLong(ByteBuffer byteBuffer, long value)
+	{
+		while((value & ~0x7FL) != 0)
+		{
+			byteBuffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		byteBuffer.put((byte) value);
+	}
+	
+	/**
+	 * Reads a varint of at most the specified amount of bytes from the specified byteBuffer.
+	 *
+	 * @param byteBuffer to read the varint from
+	 * @param maxBytes the max size in bytes of the varint
+	 * @return the decoded unsigned value
+	 * @throws IllegalArgumentException if the varint is longer than the specified maxBytes
+	 */
+	static long getVarLong(ByteBuffer byteBuffer, int maxBytes)
+	{
+		long value = 0;
+		for(int i = 0; i < maxBytes; i++)
+		{
+			byte b = byteBuffer.get();
+			value |= (long) (b & 0x7F) << (i * 7);
+			if(b >= 0)
+			{
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Varint is longer than " + maxBytes + " bytes!");
+	}
+	
+	static int encodeZigZag(int value)
+	{
+		return (value << 1) ^ (value >> 31);
+	}
+	
+	static int decodeZigZag(int value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	static long encodeZigZag(long value)
+	{
+		return (value << 1) ^ (value >> 63);
+	}
+	
+	static long decodeZigZag(long value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	static long quantize(float value, float min, float max, int bits)
+	{
+		long steps = quantizationSteps(min, max, bits);
+		double clamped = Math.min(Math.max(value, min), max);
+		return Math.round((clamped - min) / ((double) max - min) * steps);
+	}
+	
+	static float dequantize(long value, float min, float max, int bits)
+	{
+		long steps = quantizationSteps(min, max, bits);
+		return (float) (min + value * ((double) max - min) / steps);
+	}
+	
+	static long quantizationSteps(float min, float max, int bits)
+	{
+		if(bits <= 0 || bits > Integer.SIZE)
+		{
+			throw new IllegalArgumentException("Bits must be between 1 and 32!");
+		}
+		if(!(min < max))
+		{
+			throw new IllegalArgumentException("Min must be lower than max!");
+		}
+		return (1L << bits) - 1;
+	}
+	
 	static void exception(List<Consumer<Throwable>> onException, Throwable throwable)
 	{
 		if(onException.isEmpty())
@@ -31,6 +31,10 @@ public class Reader
 {
 	private final Deque<Request> pendingRequests;
 	private final Deque<Request> prepend;
+	/**
+	 * Whether {@link #close()} has been invoked, guarded by the pendingRequests monitor.
+	 */
+	private boolean closed;
 	
 	public Reader()
 	{
@@ -55,9 +59,32 @@ public class Reader
 		}
 	}
 	
+	/**
+	 * Reads once from the specified socketChannel into the specified readBuffer and invokes the pending requests.
+	 * The read is done while holding the requests lock since {@link #addRequest(ByteBuffer, Predicate, int)} may
+	 * call requests with the same readBuffer from another thread.
+	 *
+	 * @return whether another read should be tried
+	 */
 	protected boolean tryRead(Socket socket, SocketChannel socketChannel, ByteBuffer readBuffer) throws IOException
 	{
-		int read = socketChannel.read(readBuffer);
+		int read;
+		boolean full;
+		synchronized(pendingRequests)
+		{
+			if(closed)
+			{
+				return false;
+			}
+			read = socketChannel.read(readBuffer);
+			if(read > 0)
+			{
+				socket.manager().updateReadTime();
+				callRequests(readBuffer);
+				readBuffer.limit(readBuffer.capacity());
+			}
+			full = readBuffer.position() == readBuffer.capacity();
+		}
 		if(read == 0)
 		{
 			return false;
@@ -66,13 +93,11 @@ public class Reader
 			socket.manager().close(DisconnectionType.REMOTE_CLOSE);
 			return false;
 		}
-		callRequests(readBuffer);
-		readBuffer.limit(readBuffer.capacity());
 		if(socket.isClosed())
 		{
 			return false;
 		}
-		if(readBuffer.position() == readBuffer.capacity())
+		if(full)
 		{
 			socket.manager().bufferOverflow(readBuffer);
 		}
@@ -114,6 +139,10 @@ public class Reader
 		}
 		synchronized(pendingRequests)
 		{
+			if(closed)
+			{
+				return;
+			}
 			byte[] bytes = new byte[byteBuffer.flip().limit()];
 			byteBuffer.get(bytes);
 			byteBuffer.limit(byteBuffer.capacity());
@@ -186,6 +215,20 @@ public class Reader
 		}
 	}
 	
+	/**
+	 * Stops this {@link Reader} from using the readBuffer, once this returns no read or request is in progress
+	 * and none will start so the readBuffer may be given back to the pool.
+	 */
+	public void close()
+	{
+		synchronized(pendingRequests)
+		{
+			closed = true;
+			pendingRequests.clear();
+			prepend.clear();
+		}
+	}
+	
 	private void prepend()
 	{
 		Request prependRequest;
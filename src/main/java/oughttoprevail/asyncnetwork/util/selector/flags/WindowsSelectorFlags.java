@@ -107,6 +107,20 @@ public class WindowsSelectorFlags
 	private static final int READ_OR_WRITE = 1;
 	private static final int ACCEPT = 2;
 	
+	/**
+	 * Releases the owner of the specified pendingWrite if it is a {@link PendingWrite} whose overlapped write
+	 * has completed without finishing.
+	 *
+	 * @param pendingWrite the pending write of a completion, {@code null} if the completion is of a read
+	 */
+	private static void release(Object pendingWrite)
+	{
+		if(pendingWrite instanceof PendingWrite)
+		{
+			((PendingWrite) pendingWrite).release();
+		}
+	}
+	
 	public void select(ByteBuffer result, Object pendingWrite)
 	{
 		byte opcode = result.get();
@@ -114,12 +128,17 @@ public class WindowsSelectorFlags
 		{
 			int index = result.getInt();
 			ServerClientSocket client = clients.get(index);
-			if(client != null)
+			if(client == null)
+			{
+				//the client has closed so the write will never be finished
+				release(pendingWrite);
+			} else
 			{
 				byte isRead = result.get();
 				int totalBytes = result.getInt();
 				if(totalBytes == 0 || totalBytes == -1)
 				{
+					release(pendingWrite);
 					client.manager().close(DisconnectionType.REMOTE_CLOSE);
 					return;
 				}
@@ -128,6 +147,7 @@ public class WindowsSelectorFlags
 					PooledByteBuffer pooledReadBuffer = client.manager().getReadByteBuffer();
 					ByteBuffer readBuffer = pooledReadBuffer.getByteBuffer();
 					readBuffer.position(readBuffer.position() + totalBytes);
+					client.manager().updateReadTime();
 					try
 					{
 						client.manager().callRequests();
@@ -0,0 +1,35 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util.timer;
+
+/**
+ * The source of time of a {@link HashedWheelTimer}, replaced by tests so they can advance time themselves.
+ */
+@FunctionalInterface
+interface Clock
+{
+	/**
+	 * The {@link Clock} which uses {@link System#nanoTime()}.
+	 */
+	Clock SYSTEM = System::nanoTime;
+	
+	/**
+	 * Returns the current time in nanoseconds, only the difference between two returned values is meaningful.
+	 *
+	 * @return the current time in nanoseconds
+	 */
+	long nanoTime();
+}
\ No newline at end of file
@@ -0,0 +1,326 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util.timer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import oughttoprevail.asyncnetwork.util.Consumer;
+import oughttoprevail.asyncnetwork.util.Validator;
+
+/**
+ * A hashed timing wheel owned by a selector loop.
+ * Scheduling and cancelling are O(1) and may be done from any thread, tasks are run by the thread
+ * invoking {@link #expire()} which is the loop thread, so they don't require any locking.
+ * <p>
+ * The loop should invoke {@link #expire()} after every select and use {@link #nextTimeout(int)}
+ * as the timeout of it's next select.
+ */
+public class HashedWheelTimer
+{
+	/**
+	 * Default duration of a single tick in milliseconds.
+	 */
+	public static final int DEFAULT_TICK_DURATION = 10;
+	/**
+	 * Default amount of ticks in a single rotation of the wheel.
+	 */
+	public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+	
+	private final TimeoutBucket[] wheel;
+	private final int mask;
+	private final long tickDuration;
+	private final Clock clock;
+	private final long startTime;
+	/**
+	 * Timeouts which have yet to be added to the {@link #wheel}.
+	 */
+	private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+	/**
+	 * Timeouts which have been cancelled and have yet to be removed from the {@link #wheel}.
+	 */
+	private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+	/**
+	 * The amount of timeouts which have yet to expire or be removed after a cancel.
+	 */
+	private final AtomicInteger size = new AtomicInteger();
+	/**
+	 * Used by {@link #tryExpire()} when more than one thread drives this timer.
+	 */
+	private final ReentrantLock expireLock = new ReentrantLock();
+	private final Consumer<Throwable> onException;
+	/**
+	 * The next tick to be processed, only accessed by the thread expiring the timer.
+	 */
+	private long tick;
+	/**
+	 * The thread which has last expired this timer.
+	 */
+	private volatile Thread loopThread;
+	/**
+	 * Invoked when a timeout is scheduled from outside of the loop thread so the loop will notice it.
+	 */
+	private volatile Runnable wakeup;
+	
+	/**
+	 * Constructs a new {@link HashedWheelTimer} with {@link #DEFAULT_TICK_DURATION} and {@link #DEFAULT_TICKS_PER_WHEEL}.
+	 *
+	 * @param onException invoked with exceptions thrown by scheduled tasks
+	 */
+	public HashedWheelTimer(Consumer<Throwable> onException)
+	{
+		this(DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL, onException);
+	}
+	
+	/**
+	 * Constructs a new {@link HashedWheelTimer}.
+	 *
+	 * @param tickDuration the duration of a single tick, timeouts are expired with this precision
+	 * @param unit the unit of the specified tickDuration
+	 * @param ticksPerWheel the amount of ticks in a single rotation of the wheel, rounded up to a power of two
+	 * @param onException invoked with exceptions thrown by scheduled tasks
+	 */
+	public HashedWheelTimer(long tickDuration, TimeUnit unit, int ticksPerWheel, Consumer<Throwable> onException)
+	{
+		this(tickDuration, unit, ticksPerWheel, onException, Clock.SYSTEM);
+	}
+	
+	/**
+	 * Constructs a new {@link HashedWheelTimer} which reads the time from the specified clock.
+	 *
+	 * @param tickDuration the duration of a single tick, timeouts are expired with this precision
+	 * @param unit the unit of the specified tickDuration
+	 * @param ticksPerWheel the amount of ticks in a single rotation of the wheel, rounded up to a power of two
+	 * @param onException invoked with exceptions thrown by scheduled tasks
+	 * @param clock the source of time of this timer
+	 */
+	HashedWheelTimer(long tickDuration, TimeUnit unit, int ticksPerWheel, Consumer<Throwable> onException, Clock clock)
+	{
+		Validator.requireNonNull(unit, "Unit");
+		Validator.requireNonNull(onException, "OnException");
+		Validator.requireNonNull(clock, "Clock");
+		if(tickDuration <= 0)
+		{
+			throw new IllegalArgumentException("Tick duration must be larger than 0!");
+		}
+		Validator.higherThan0(ticksPerWheel, "Ticks per wheel");
+		int length = Integer.highestOneBit(ticksPerWheel);
+		if(length < ticksPerWheel)
+		{
+			length <<= 1;
+		}
+		this.wheel = new TimeoutBucket[length];
+		for(int i = 0; i < length; i++)
+		{
+			wheel[i] = new TimeoutBucket();
+		}
+		this.mask = length - 1;
+		this.tickDuration = unit.toNanos(tickDuration);
+		this.onException = onException;
+		this.clock = clock;
+		this.startTime = clock.nanoTime();
+	}
+	
+	/**
+	 * Sets the runnable invoked when a timeout is scheduled from outside of the loop thread,
+	 * this should wake up the loop's select.
+	 *
+	 * @param wakeup the runnable to invoke or {@code null} if the loop can't be woken up,
+	 * in that case the loop should never select for longer than {@link #nextTimeout(int)}
+	 */
+	public void setWakeup(Runnable wakeup)
+	{
+		this.wakeup = wakeup;
+	}
+	
+	/**
+	 * Schedules the specified task to run once the specified delay has passed.
+	 *
+	 * @param task to run
+	 * @param delay the delay before running the task
+	 * @param unit the unit of the specified delay
+	 * @return the {@link Timeout} of the specified task which can be used to cancel it
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit)
+	{
+		Validator.requireNonNull(task, "Task");
+		Validator.requireNonNull(unit, "Unit");
+		long deadline = clock.nanoTime() + unit.toNanos(Math.max(0, delay)) - startTime;
+		Timeout timeout = new Timeout(this, task, deadline);
+		size.incrementAndGet();
+		pendingTimeouts.offer(timeout);
+		Runnable wakeup = this.wakeup;
+		if(wakeup != null && Thread.currentThread() != loopThread)
+		{
+			wakeup.run();
+		}
+		return timeout;
+	}
+	
+	/**
+	 * Expires every timeout whose deadline has passed.
+	 * This must only be invoked by a single thread at a time, usually the loop thread.
+	 */
+	public void expire()
+	{
+		loopThread = Thread.currentThread();
+		removeCancelled();
+		long now = clock.nanoTime() - startTime;
+		if(size.get() == 0)
+		{
+			//nothing is scheduled so skip the idle ticks instead of walking them
+			tick = Math.max(tick, now / tickDuration);
+			return;
+		}
+		while(true)
+		{
+			transferPending();
+			long tickDeadline = (tick + 1) * tickDuration;
+			if(tickDeadline > now)
+			{
+				break;
+			}
+			size.addAndGet(-wheel[(int) (tick & mask)].expire(tickDeadline));
+			tick++;
+		}
+	}
+	
+	/**
+	 * Expires every timeout whose deadline has passed if no other thread is currently expiring this timer.
+	 * This is used when a loop is made of more than one thread.
+	 *
+	 * @return whether this timer was expired by this call
+	 */
+	public boolean tryExpire()
+	{
+		if(!expireLock.tryLock())
+		{
+			return false;
+		}
+		try
+		{
+			expire();
+		} finally
+		{
+			expireLock.unlock();
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the timeout in milliseconds the loop should use for it's next select.
+	 * If there are no scheduled timeouts the specified selectTimeout is returned
+	 * else the time until the next tick which has timeouts, capped by the specified selectTimeout.
+	 *
+	 * @param selectTimeout the loop's select timeout in milliseconds, {@code -1} for infinite
+	 * @return the timeout in milliseconds the loop should use for it's next select, {@code -1} for infinite
+	 */
+	public int nextTimeout(int selectTimeout)
+	{
+		if(size.get() == 0)
+		{
+			return selectTimeout;
+		}
+		long nextTick = tick;
+		//if pending timeouts haven't been transferred yet the next tick must be checked
+		if(pendingTimeouts.isEmpty())
+		{
+			long lastTick = tick + wheel.length;
+			while(nextTick < lastTick && wheel[(int) (nextTick & mask)].isEmpty())
+			{
+				nextTick++;
+			}
+		}
+		long remaining = (nextTick + 1) * tickDuration - (clock.nanoTime() - startTime);
+		int timeout = (int) Math.max(1, Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(remaining + TimeUnit.MILLISECONDS.toNanos(1) - 1)));
+		return selectTimeout == -1 ? timeout : Math.min(timeout, selectTimeout);
+	}
+	
+	/**
+	 * Returns the amount of timeouts which have yet to expire or be cancelled.
+	 *
+	 * @return the amount of timeouts which have yet to expire or be cancelled
+	 */
+	public int size()
+	{
+		return size.get();
+	}
+	
+	/**
+	 * Adds the specified timeout to the cancelled timeouts, it will be removed from the wheel by the loop thread.
+	 *
+	 * @param timeout which has been cancelled
+	 */
+	void cancelled(Timeout timeout)
+	{
+		cancelledTimeouts.offer(timeout);
+	}
+	
+	/**
+	 * Runs the specified task of an expired timeout.
+	 *
+	 * @param task to run
+	 */
+	void run(Runnable task)
+	{
+		try
+		{
+			task.run();
+		} catch(Throwable e)
+		{
+			onException.accept(e);
+		}
+	}
+	
+	private void transferPending()
+	{
+		Timeout timeout;
+		while((timeout = pendingTimeouts.poll()) != null)
+		{
+			if(timeout.isCancelled())
+			{
+				//the cancel will be handled by removeCancelled
+				continue;
+			}
+			long calculated = timeout.deadline / tickDuration;
+			timeout.remainingRounds = (calculated - tick) / wheel.length;
+			long ticks = Math.max(calculated, tick);
+			wheel[(int) (ticks & mask)].add(timeout);
+		}
+	}
+	
+	/**
+	 * Removes the cancelled timeouts from the wheel.
+	 * Every cancelled timeout is subtracted from the {@link #size} here exactly once, whether it is still in a bucket,
+	 * was never transferred or was already unlinked by an expire pass (which doesn't count cancelled timeouts).
+	 */
+	private void removeCancelled()
+	{
+		Timeout timeout;
+		while((timeout = cancelledTimeouts.poll()) != null)
+		{
+			TimeoutBucket bucket = timeout.bucket;
+			if(bucket != null)
+			{
+				bucket.remove(timeout);
+			}
+			size.decrementAndGet();
+		}
+	}
+}
\ No newline at end of file
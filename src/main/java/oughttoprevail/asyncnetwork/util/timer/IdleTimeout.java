@@ -0,0 +1,122 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util.timer;
+
+import java.util.concurrent.TimeUnit;
+
+import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.SocketManager;
+import oughttoprevail.asyncnetwork.util.IdleState;
+
+/**
+ * Tracks the inactivity of a {@link Socket} using a single {@link Timeout}.
+ * Reads and writes only update a timestamp, once the timeout expires it checks the timestamp
+ * and is rescheduled for the remaining time if there was activity, so an active socket costs
+ * a single timeout per idle time instead of a reschedule per operation.
+ */
+public class IdleTimeout implements Runnable
+{
+	private final Socket socket;
+	private final IdleState idleState;
+	/**
+	 * The idle time in nanoseconds.
+	 */
+	private final long idleTime;
+	private volatile Timeout timeout;
+	private volatile boolean cancelled;
+	
+	/**
+	 * Constructs a new {@link IdleTimeout}.
+	 *
+	 * @param socket whose inactivity is tracked
+	 * @param idleState the state which is reported once the specified socket is idle
+	 * @param idleTime the idle time in nanoseconds
+	 */
+	public IdleTimeout(Socket socket, IdleState idleState, long idleTime)
+	{
+		this.socket = socket;
+		this.idleState = idleState;
+		this.idleTime = idleTime;
+	}
+	
+	/**
+	 * Starts tracking the socket's inactivity.
+	 */
+	public void start()
+	{
+		schedule(idleTime);
+	}
+	
+	/**
+	 * Stops tracking the socket's inactivity.
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+		Timeout timeout = this.timeout;
+		if(timeout != null)
+		{
+			timeout.cancel();
+		}
+	}
+	
+	@Override
+	public void run()
+	{
+		if(cancelled || socket.isClosed())
+		{
+			return;
+		}
+		long remaining = idleTime - (System.nanoTime() - lastActivity());
+		if(remaining > 0)
+		{
+			schedule(remaining);
+			return;
+		}
+		//reschedule first since the idle event may close the socket which cancels this
+		schedule(idleTime);
+		socket.manager().idle(idleState);
+	}
+	
+	private long lastActivity()
+	{
+		SocketManager manager = socket.manager();
+		switch(idleState)
+		{
+			case READER_IDLE:
+			{
+				return manager.getLastReadTime();
+			}
+			case WRITER_IDLE:
+			{
+				return manager.getLastWriteTime();
+			}
+			default:
+			{
+				return Math.max(manager.getLastReadTime(), manager.getLastWriteTime());
+			}
+		}
+	}
+	
+	private void schedule(long delay)
+	{
+		timeout = socket.getTimer().schedule(this, delay, TimeUnit.NANOSECONDS);
+		if(cancelled)
+		{
+			timeout.cancel();
+		}
+	}
+}
\ No newline at end of file
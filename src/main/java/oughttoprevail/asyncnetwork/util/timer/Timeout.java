@@ -0,0 +1,114 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util.timer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A task scheduled by a {@link HashedWheelTimer}.
+ */
+public class Timeout
+{
+	private static final int STATE_INIT = 0;
+	private static final int STATE_CANCELLED = 1;
+	private static final int STATE_EXPIRED = 2;
+	
+	private final HashedWheelTimer timer;
+	private final Runnable task;
+	/**
+	 * The deadline of this timeout in nanoseconds relative to the timer's start time.
+	 */
+	final long deadline;
+	private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+	/**
+	 * The amount of wheel rotations left before this timeout expires.
+	 */
+	long remainingRounds;
+	/**
+	 * The bucket which currently holds this timeout or {@code null} if it has yet to be added to a bucket.
+	 */
+	TimeoutBucket bucket;
+	Timeout next;
+	Timeout prev;
+	
+	Timeout(HashedWheelTimer timer, Runnable task, long deadline)
+	{
+		this.timer = timer;
+		this.task = task;
+		this.deadline = deadline;
+	}
+	
+	/**
+	 * Cancels this timeout, if the timeout has already expired or been cancelled this does nothing.
+	 *
+	 * @return whether this timeout has been cancelled by this call
+	 */
+	public boolean cancel()
+	{
+		if(!state.compareAndSet(STATE_INIT, STATE_CANCELLED))
+		{
+			return false;
+		}
+		timer.cancelled(this);
+		return true;
+	}
+	
+	/**
+	 * Runs the task of this timeout if it wasn't cancelled.
+	 *
+	 * @return whether the task has been run, if not the timeout has been cancelled and will be counted as removed
+	 * by the timer once it handles the cancel
+	 */
+	boolean expire()
+	{
+		if(state.compareAndSet(STATE_INIT, STATE_EXPIRED))
+		{
+			timer.run(task);
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns whether this timeout has been cancelled.
+	 *
+	 * @return whether this timeout has been cancelled
+	 */
+	public boolean isCancelled()
+	{
+		return state.get() == STATE_CANCELLED;
+	}
+	
+	/**
+	 * Returns whether this timeout has expired and it's task has been run.
+	 *
+	 * @return whether this timeout has expired and it's task has been run
+	 */
+	public boolean isExpired()
+	{
+		return state.get() == STATE_EXPIRED;
+	}
+	
+	/**
+	 * Returns the task this timeout will run once it expires.
+	 *
+	 * @return the task this timeout will run once it expires
+	 */
+	public Runnable getTask()
+	{
+		return task;
+	}
+}
\ No newline at end of file
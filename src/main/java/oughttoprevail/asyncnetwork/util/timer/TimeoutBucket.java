@@ -0,0 +1,117 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util.timer;
+
+/**
+ * A doubly linked list of {@link Timeout}s which belong to the same slot of a {@link HashedWheelTimer}.
+ * Adding and removing is O(1), it is only accessed by the thread expiring the timer.
+ */
+class TimeoutBucket
+{
+	private Timeout head;
+	private Timeout tail;
+	
+	/**
+	 * Adds the specified timeout to the end of this bucket.
+	 *
+	 * @param timeout to add
+	 */
+	void add(Timeout timeout)
+	{
+		timeout.bucket = this;
+		if(head == null)
+		{
+			head = tail = timeout;
+		} else
+		{
+			tail.next = timeout;
+			timeout.prev = tail;
+			tail = timeout;
+		}
+	}
+	
+	/**
+	 * Removes the specified timeout from this bucket.
+	 *
+	 * @param timeout to remove
+	 * @return the timeout which followed the specified timeout
+	 */
+	Timeout remove(Timeout timeout)
+	{
+		Timeout next = timeout.next;
+		if(timeout.prev != null)
+		{
+			timeout.prev.next = next;
+		}
+		if(next != null)
+		{
+			next.prev = timeout.prev;
+		}
+		if(timeout == head)
+		{
+			head = next;
+		}
+		if(timeout == tail)
+		{
+			tail = timeout.prev;
+		}
+		timeout.prev = null;
+		timeout.next = null;
+		timeout.bucket = null;
+		return next;
+	}
+	
+	/**
+	 * Expires every timeout in this bucket which should expire by the specified deadline
+	 * and decrements the remaining rounds of the rest.
+	 *
+	 * @param deadline the deadline of the current tick in nanoseconds relative to the timer's start time
+	 * @return the amount of timeouts which have expired, cancelled timeouts aren't counted since they are
+	 * counted when the timer handles the cancel
+	 */
+	int expire(long deadline)
+	{
+		int removed = 0;
+		Timeout timeout = head;
+		while(timeout != null)
+		{
+			if(timeout.remainingRounds <= 0 && timeout.deadline <= deadline)
+			{
+				Timeout next = remove(timeout);
+				if(timeout.expire())
+				{
+					removed++;
+				}
+				timeout = next;
+			} else
+			{
+				timeout.remainingRounds--;
+				timeout = timeout.next;
+			}
+		}
+		return removed;
+	}
+	
+	/**
+	 * Returns whether this bucket has no timeouts.
+	 *
+	 * @return whether this bucket has no timeouts
+	 */
+	boolean isEmpty()
+	{
+		return head == null;
+	}
+}
\ No newline at end of file
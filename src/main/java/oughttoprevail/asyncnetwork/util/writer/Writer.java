@@ -18,6 +18,7 @@ package oughttoprevail.asyncnetwork.util.writer;
 import java.nio.ByteBuffer;
 
 import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 import oughttoprevail.asyncnetwork.util.Consumer;
 
 /**
@@ -28,12 +29,14 @@ public interface Writer
 	/**
 	 * Writes the specified writeBuffer into the specified socket.
 	 * Once a write has finished the specified onWriteFinished is invoked with the specified writeBuffer.
+	 * If the write can't finish immediately the specified owner is retained until it has.
 	 *
 	 * @param socket which will write the specified writeBuffer
 	 * @param writeBuffer to write into the specified socket
+	 * @param owner the {@link PooledByteBuffer} the specified writeBuffer belongs to or {@code null} if it isn't pooled
 	 * @param onWriteFinished which will be invoked when the write has finished
 	 */
-	void write(Socket socket, ByteBuffer writeBuffer, Consumer<ByteBuffer> onWriteFinished);
+	void write(Socket socket, ByteBuffer writeBuffer, PooledByteBuffer owner, Consumer<ByteBuffer> onWriteFinished);
 	
 	/**
 	 * Continues writing any pending buffers.
@@ -41,4 +44,9 @@ public interface Writer
 	 * @return whether there is anything more to write
 	 */
 	boolean continueWriting();
+	
+	/**
+	 * Releases the owners of every pending write, invoked once the socket has closed since the writes will never finish.
+	 */
+	void close();
 }
\ No newline at end of file
@@ -17,54 +17,221 @@ package oughttoprevail.asyncnetwork.util.writer.client;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
 
+import oughttoprevail.asyncnetwork.ClientSocketManager;
 import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 import oughttoprevail.asyncnetwork.util.Consumer;
 import oughttoprevail.asyncnetwork.util.DisconnectionType;
 import oughttoprevail.asyncnetwork.util.Validator;
 import oughttoprevail.asyncnetwork.util.writer.Writer;
+import oughttoprevail.asyncnetwork.util.writer.server.PendingWrite;
 
+/**
+ * A non-blocking {@link Writer} for {@link oughttoprevail.asyncnetwork.client.ClientSocket}s.
+ * A write which can't finish immediately is queued and the client's selector is asked to notify
+ * using {@link SelectionKey#OP_WRITE} when it can continue, so {@link #write(Socket, ByteBuffer, PooledByteBuffer, Consumer)}
+ * never blocks.
+ */
 public class ClientWriter implements Writer
 {
+	/**
+	 * The maximum amount of pending buffers written in a single gathering write.
+	 */
+	private static final int MAX_GATHERED_BUFFERS = 64;
+	
+	private final Queue<ClientPendingWrite> pendingWrites = new ArrayDeque<>();
+	/**
+	 * Whether this writer has been closed, guarded by {@link #pendingWrites}.
+	 */
+	private boolean closed;
+	private final ByteBuffer[] gathered = new ByteBuffer[MAX_GATHERED_BUFFERS];
+	
 	/**
 	 * Writes the specified writeBuffer into the specified socket.
 	 * Once a write has finished the specified onWriteFinished is invoked with the specified writeBuffer.
+	 * If the write can't finish immediately the specified owner is retained until it has.
 	 *
 	 * @param socket which will write the specified writeBuffer
 	 * @param writeBuffer to write into the specified socket
+	 * @param owner the {@link PooledByteBuffer} the specified writeBuffer belongs to or {@code null} if it isn't pooled
 	 * @param onWriteFinished which will be invoked when the write has finished
 	 */
 	@Override
-	public void write(Socket socket, ByteBuffer writeBuffer, Consumer<ByteBuffer> onWriteFinished)
+	public void write(Socket socket, ByteBuffer writeBuffer, PooledByteBuffer owner, Consumer<ByteBuffer> onWriteFinished)
 	{
-		SocketChannel socketChannel = socket.getSocketChannel();
-		try
+		//the socket is closed outside of the lock since closing the socket closes this writer
+		boolean remoteClose;
+		IOException exception = null;
+		synchronized(pendingWrites)
 		{
-			while(writeBuffer.hasRemaining())
+			if(closed)
+			{
+				//the socket has closed so the write is dropped
+				return;
+			}
+			if(!pendingWrites.isEmpty())
 			{
-				if(socketChannel.write(writeBuffer) == -1)
+				//keep the order of writes
+				pendingWrites.offer(new ClientPendingWrite(socket, writeBuffer, owner, onWriteFinished));
+				return;
+			}
+			try
+			{
+				remoteClose = socket.getSocketChannel().write(writeBuffer) == -1;
+				if(!remoteClose && writeBuffer.hasRemaining())
 				{
-					socket.manager().close(DisconnectionType.REMOTE_CLOSE);
+					pendingWrites.offer(new ClientPendingWrite(socket, writeBuffer, owner, onWriteFinished));
+					interestOps(socket, SelectionKey.OP_READ | SelectionKey.OP_WRITE);
 					return;
 				}
+			} catch(IOException e)
+			{
+				remoteClose = false;
+				exception = e;
 			}
-			socket.manager().finishWrite(onWriteFinished, writeBuffer);
-		} catch(IOException e)
+		}
+		if(remoteClose)
 		{
-			Validator.handleRemoteHostCloseException(socket, e);
+			socket.manager().close(DisconnectionType.REMOTE_CLOSE);
+			return;
 		}
+		if(exception != null)
+		{
+			Validator.handleRemoteHostCloseException(socket, exception);
+			return;
+		}
+		socket.manager().finishWrite(onWriteFinished, writeBuffer);
 	}
 	
 	/**
 	 * Continues writing any pending buffers.
+	 * Pending buffers are written using a single gathering write and the finished writes are
+	 * completed outside of the lock.
 	 *
 	 * @return whether there is anything more to write
 	 */
 	@Override
 	public boolean continueWriting()
 	{
-		//ignored this is a blocking process
-		return false;
+		List<ClientPendingWrite> finished = new ArrayList<>();
+		boolean remaining;
+		Socket socket;
+		//the socket is closed outside of the lock since closing the socket closes this writer
+		boolean remoteClose;
+		IOException exception = null;
+		synchronized(pendingWrites)
+		{
+			ClientPendingWrite first = pendingWrites.peek();
+			if(first == null)
+			{
+				return false;
+			}
+			socket = first.socket;
+			int length = 0;
+			for(ClientPendingWrite pendingWrite : pendingWrites)
+			{
+				if(length == MAX_GATHERED_BUFFERS)
+				{
+					break;
+				}
+				gathered[length++] = pendingWrite.getWriteBuffer();
+			}
+			try
+			{
+				SocketChannel socketChannel = socket.getSocketChannel();
+				remoteClose = socketChannel.write(gathered, 0, length) == -1;
+			} catch(IOException e)
+			{
+				remoteClose = false;
+				exception = e;
+			} finally
+			{
+				for(int i = 0; i < length; i++)
+				{
+					gathered[i] = null;
+				}
+			}
+			remaining = false;
+			if(!remoteClose && exception == null)
+			{
+				Iterator<ClientPendingWrite> iterator = pendingWrites.iterator();
+				while(iterator.hasNext())
+				{
+					ClientPendingWrite pendingWrite = iterator.next();
+					if(pendingWrite.getWriteBuffer().hasRemaining())
+					{
+						break;
+					}
+					iterator.remove();
+					finished.add(pendingWrite);
+				}
+				remaining = !pendingWrites.isEmpty();
+				//changing the interest while holding the lock makes sure a concurrent write can't lose it's interest
+				interestOps(socket, remaining ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+			}
+		}
+		if(remoteClose)
+		{
+			socket.manager().close(DisconnectionType.REMOTE_CLOSE);
+			return false;
+		}
+		if(exception != null)
+		{
+			Validator.handleRemoteHostCloseException(socket, exception);
+			return false;
+		}
+		for(ClientPendingWrite pendingWrite : finished)
+		{
+			pendingWrite.finish(pendingWrite.socket);
+		}
+		return remaining;
+	}
+	
+	/**
+	 * Releases the owners of every pending write, invoked once the socket has closed since the writes will never finish.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized(pendingWrites)
+		{
+			closed = true;
+			ClientPendingWrite pendingWrite;
+			while((pendingWrite = pendingWrites.poll()) != null)
+			{
+				pendingWrite.release();
+			}
+		}
+	}
+	
+	/**
+	 * Sets the interest of the specified socket's {@link SelectionKey} to the specified ops.
+	 *
+	 * @param socket whose interest will be set
+	 * @param ops the interest to set
+	 * @see ClientSocketManager#interestOps(int)
+	 */
+	private void interestOps(Socket socket, int ops)
+	{
+		((ClientSocketManager) socket.manager()).interestOps(ops);
+	}
+	
+	private static class ClientPendingWrite extends PendingWrite
+	{
+		private final Socket socket;
+		
+		private ClientPendingWrite(Socket socket, ByteBuffer writeBuffer, PooledByteBuffer owner, Consumer<ByteBuffer> onWriteFinished)
+		{
+			super(writeBuffer, owner, onWriteFinished);
+			this.socket = socket;
+		}
 	}
 }
\ No newline at end of file
@@ -18,16 +18,28 @@ package oughttoprevail.asyncnetwork.util.writer.server;
 import java.nio.ByteBuffer;
 
 import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 import oughttoprevail.asyncnetwork.util.Consumer;
 
 public class PendingWrite
 {
 	private final ByteBuffer writeBuffer;
+	/**
+	 * The {@link PooledByteBuffer} the {@link #writeBuffer} belongs to which is retained until the write has
+	 * finished or {@code null} if the {@link #writeBuffer} isn't pooled.
+	 */
+	private final PooledByteBuffer owner;
 	private final Consumer<ByteBuffer> onWriteFinished;
 	
 	public PendingWrite(ByteBuffer writeBuffer, Consumer<ByteBuffer> onWriteFinished)
+	{
+		this(writeBuffer, null, onWriteFinished);
+	}
+	
+	public PendingWrite(ByteBuffer writeBuffer, PooledByteBuffer owner, Consumer<ByteBuffer> onWriteFinished)
 	{
 		this.writeBuffer = writeBuffer;
+		this.owner = owner == null ? null : owner.retain();
 		this.onWriteFinished = onWriteFinished;
 	}
 	
@@ -43,6 +55,23 @@ public class PendingWrite
 	
 	public void finish(Socket socket)
 	{
-		socket.manager().finishWrite(onWriteFinished, writeBuffer);
+		try
+		{
+			socket.manager().finishWrite(onWriteFinished, writeBuffer);
+		} finally
+		{
+			release();
+		}
+	}
+	
+	/**
+	 * Releases the {@link #owner} of this write, invoked once the write has finished or will never finish.
+	 */
+	public void release()
+	{
+		if(owner != null)
+		{
+			owner.release();
+		}
 	}
 }
\ No newline at end of file
@@ -20,10 +20,13 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 import oughttoprevail.asyncnetwork.ServerClientManager;
 import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 import oughttoprevail.asyncnetwork.util.Consumer;
 import oughttoprevail.asyncnetwork.util.DisconnectionType;
 import oughttoprevail.asyncnetwork.util.Validator;
@@ -31,19 +34,37 @@ import oughttoprevail.asyncnetwork.util.writer.Writer;
 
 public class ServerWriter implements Writer
 {
-	private final Queue<ServerPendingWrite> pendingWrites = new ArrayDeque<>();
+	private final Deque<ServerPendingWrite> pendingWrites = new ArrayDeque<>();
+	/**
+	 * Whether this writer has been closed, guarded by {@link #pendingWrites}.
+	 */
+	private boolean closed;
 	
-	private void write(Socket socket, ByteBuffer writeBuffer, Consumer<ByteBuffer> onWriteFinished, boolean continueWriting)
+	/**
+	 * Writes the specified writeBuffer into the specified socket.
+	 * Once a write has finished the specified onWriteFinished is invoked with the specified writeBuffer.
+	 * If the write can't finish immediately the specified owner is retained until it has.
+	 *
+	 * @param socket which will write the specified writeBuffer
+	 * @param writeBuffer to write into the specified socket
+	 * @param owner the {@link PooledByteBuffer} the specified writeBuffer belongs to or {@code null} if it isn't pooled
+	 * @param onWriteFinished which will be invoked when the write has finished
+	 */
+	@Override
+	public void write(Socket socket, ByteBuffer writeBuffer, PooledByteBuffer owner, Consumer<ByteBuffer> onWriteFinished)
 	{
-		if(!continueWriting)
+		synchronized(pendingWrites)
 		{
-			synchronized(pendingWrites)
+			if(closed)
 			{
-				if(!pendingWrites.isEmpty())
-				{
-					pendingWrites.offer(new ServerPendingWrite(socket, writeBuffer, onWriteFinished));
-					return;
-				}
+				//the socket has closed so the write is dropped
+				return;
+			}
+			if(!pendingWrites.isEmpty())
+			{
+				//keep the order of writes
+				pendingWrites.offer(new ServerPendingWrite(socket, writeBuffer, owner, onWriteFinished));
+				return;
 			}
 		}
 		try
@@ -55,7 +76,7 @@ public class ServerWriter implements Writer
 				socket.manager().close(DisconnectionType.REMOTE_CLOSE);
 				return;
 			}
-			if(writtenBytes == writeBuffer.limit())
+			if(!writeBuffer.hasRemaining())
 			{
 				socket.manager().finishWrite(onWriteFinished, writeBuffer);
 				return;
@@ -69,7 +90,11 @@ public class ServerWriter implements Writer
 			}
 			synchronized(pendingWrites)
 			{
-				pendingWrites.offer(new ServerPendingWrite(socket, writeBuffer, onWriteFinished));
+				//once closed the pending writes have been released so this one would never be
+				if(!closed)
+				{
+					pendingWrites.offer(new ServerPendingWrite(socket, writeBuffer, owner, onWriteFinished));
+				}
 			}
 		} catch(IOException e)
 		{
@@ -78,42 +103,81 @@ public class ServerWriter implements Writer
 	}
 	
 	/**
-	 * Writes the specified writeBuffer into the specified socket.
-	 * Once a write has finished the specified onWriteFinished is invoked with the specified writeBuffer.
+	 * Continues writing any pending buffers.
+	 * Finished writes are completed and a failed write closes the socket outside of the lock,
+	 * since closing the socket closes this writer.
 	 *
-	 * @param socket which will write the specified writeBuffer
-	 * @param writeBuffer to write into the specified socket
-	 * @param onWriteFinished which will be invoked when the write has finished
+	 * @return whether there is anything more to write
 	 */
 	@Override
-	public void write(Socket socket, ByteBuffer writeBuffer, Consumer<ByteBuffer> onWriteFinished)
+	public boolean continueWriting()
 	{
-		write(socket, writeBuffer, onWriteFinished, false);
+		List<ServerPendingWrite> finished = new ArrayList<>();
+		ServerPendingWrite failed = null;
+		IOException exception = null;
+		boolean remaining = false;
+		synchronized(pendingWrites)
+		{
+			ServerPendingWrite pendingWrite;
+			while((pendingWrite = pendingWrites.poll()) != null)
+			{
+				ByteBuffer writeBuffer = pendingWrite.getWriteBuffer();
+				try
+				{
+					if(pendingWrite.socket.getSocketChannel().write(writeBuffer) == -1)
+					{
+						failed = pendingWrite;
+						break;
+					}
+				} catch(IOException e)
+				{
+					failed = pendingWrite;
+					exception = e;
+					break;
+				}
+				if(writeBuffer.hasRemaining())
+				{
+					//the write was taken from the head of the queue, return it to the head to keep the order of writes
+					pendingWrites.offerFirst(pendingWrite);
+					//the write has failed to finish so you have to wait until you can write again
+					remaining = true;
+					break;
+				}
+				finished.add(pendingWrite);
+			}
+		}
+		for(ServerPendingWrite pendingWrite : finished)
+		{
+			pendingWrite.finish(pendingWrite.socket);
+		}
+		if(failed != null)
+		{
+			failed.release();
+			if(exception == null)
+			{
+				failed.socket.manager().close(DisconnectionType.REMOTE_CLOSE);
+			} else
+			{
+				Validator.handleRemoteHostCloseException(failed.socket, exception);
+			}
+		}
+		return remaining;
 	}
 	
 	/**
-	 * Continues writing any pending buffers.
-	 *
-	 * @return whether there is anything more to write
+	 * Releases the owners of every pending write, invoked once the socket has closed since the writes will never finish.
 	 */
 	@Override
-	public boolean continueWriting()
+	public void close()
 	{
 		synchronized(pendingWrites)
 		{
+			closed = true;
 			ServerPendingWrite pendingWrite;
 			while((pendingWrite = pendingWrites.poll()) != null)
 			{
-				int currentSize = pendingWrites.size();
-				write(pendingWrite.socket, pendingWrite.getWriteBuffer(), pendingWrite.getOnWriteFinished(), true);
-				boolean changed = pendingWrites.size() == currentSize;
-				if(changed)
-				{
-					//if the size has changed it means that a write has failed to finish so you have to wait until you can write again
-					return true;
-				}
+				pendingWrite.release();
 			}
-			return false;
 		}
 	}
 	
@@ -121,10 +185,10 @@ public class ServerWriter implements Writer
 	{
 		private final Socket socket;
 		
-		private ServerPendingWrite(Socket socket, ByteBuffer writeBuffer, Consumer<ByteBuffer> onWriteFinished)
+		private ServerPendingWrite(Socket socket, ByteBuffer writeBuffer, PooledByteBuffer owner, Consumer<ByteBuffer> onWriteFinished)
 		{
-			super(writeBuffer, onWriteFinished);
+			super(writeBuffer, owner, onWriteFinished);
 			this.socket = socket;
 		}
 	}
-}
+}
\ No newline at end of file
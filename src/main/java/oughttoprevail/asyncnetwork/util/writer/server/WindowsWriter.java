@@ -20,6 +20,7 @@ import java.nio.ByteBuffer;
 
 import oughttoprevail.asyncnetwork.ServerClientManager;
 import oughttoprevail.asyncnetwork.Socket;
+import oughttoprevail.asyncnetwork.pool.PooledByteBuffer;
 import oughttoprevail.asyncnetwork.util.Consumer;
 import oughttoprevail.asyncnetwork.util.Util;
 import oughttoprevail.asyncnetwork.util.Validator;
@@ -31,25 +32,26 @@ public class WindowsWriter implements Writer
 	/**
 	 * Writes the specified writeBuffer into the specified socket.
 	 * Once a write has finished the specified onWriteFinished is invoked with the specified writeBuffer.
+	 * The specified owner is retained until the overlapped write has completed.
 	 *
 	 * @param socket which will write the specified writeBuffer
 	 * @param writeBuffer to write into the specified socket
+	 * @param owner the {@link PooledByteBuffer} the specified writeBuffer belongs to or {@code null} if it isn't pooled
 	 * @param onWriteFinished which will be invoked when the write has finished
 	 */
 	@Override
-	public void write(Socket socket, ByteBuffer writeBuffer, Consumer<ByteBuffer> onWriteFinished)
+	public void write(Socket socket, ByteBuffer writeBuffer, PooledByteBuffer owner, Consumer<ByteBuffer> onWriteFinished)
 	{
 		ServerClientManager manager = (ServerClientManager) socket.manager();
 		WindowsSelector selector = (WindowsSelector) manager.getServer().manager().getSelector();
 		int length = writeBuffer.remaining();
+		PendingWrite pendingWrite = new PendingWrite(writeBuffer, owner, onWriteFinished);
 		try
 		{
-			selector.WSASend(manager.getFD(),
-					Util.address(writeBuffer) + writeBuffer.position(),
-					length,
-					new PendingWrite(writeBuffer, onWriteFinished));
+			selector.WSASend(manager.getFD(), Util.address(writeBuffer) + writeBuffer.position(), length, pendingWrite);
 		} catch(IOException e)
 		{
+			pendingWrite.release();
 			Validator.handleRemoteHostCloseException(socket, e);
 		}
 		writeBuffer.position(writeBuffer.position() + length);
@@ -66,4 +68,13 @@ public class WindowsWriter implements Writer
 		//ignored writes always finish with WSASend
 		return false;
 	}
+	
+	/**
+	 * Ignored, the owner of an overlapped write is released by the selector once the write has completed
+	 * since the buffer is in use until then even if the socket has closed.
+	 */
+	@Override
+	public void close()
+	{
+	}
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+public class ClientSelectorTest
+{
+	@Test(timeout = 20000)
+	public void readHandlerCanWaitForAnotherClient() throws Exception
+	{
+		try(ServerSocket server = new ServerSocket(0))
+		{
+			echo(server);
+			echo(server);
+			ClientSocket first = new ClientSocket();
+			ClientSocket second = new ClientSocket();
+			first.connectLocalHost(server.getLocalPort());
+			second.connectLocalHost(server.getLocalPort());
+			
+			CountDownLatch secondRead = new CountDownLatch(1);
+			CompletableFuture<Boolean> firstResult = new CompletableFuture<>();
+			second.readByteBuffer(byteBuffer ->
+			{
+				byteBuffer.getInt();
+				secondRead.countDown();
+			}, Integer.BYTES);
+			//the handler of the first client blocks until the second client has read it's reply
+			first.readByteBuffer(byteBuffer ->
+			{
+				byteBuffer.getInt();
+				second.write(ByteBuffer.allocate(Integer.BYTES).putInt(2));
+				try
+				{
+					firstResult.complete(secondRead.await(10, TimeUnit.SECONDS));
+				} catch(InterruptedException e)
+				{
+					firstResult.completeExceptionally(e);
+				}
+			}, Integer.BYTES);
+			first.write(ByteBuffer.allocate(Integer.BYTES).putInt(1));
+			
+			assertTrue(firstResult.get(15, TimeUnit.SECONDS));
+			first.close();
+			second.close();
+		}
+	}
+	
+	/**
+	 * Accepts a single connection from the specified server on a new thread and writes back everything it reads.
+	 *
+	 * @param server to accept from
+	 */
+	private static void echo(ServerSocket server)
+	{
+		Thread thread = new Thread(() ->
+		{
+			try(Socket socket = server.accept())
+			{
+				InputStream in = socket.getInputStream();
+				OutputStream out = socket.getOutputStream();
+				byte[] bytes = new byte[256];
+				int read;
+				while((read = in.read(bytes)) != -1)
+				{
+					out.write(bytes, 0, read);
+				}
+			} catch(IOException ignored)
+			{
+				//the server or the client has closed
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class StringTableTest
+{
+	private static final String[] PROBES = {"a", "b", "c", "d", "e"};
+	
+	@Test
+	public void lookupAssignsIdsToNewStrings()
+	{
+		StringTable table = new StringTable(4);
+		assertEquals(StringTable.NEW_STRING, table.lookup("a"));
+		assertEquals(StringTable.NEW_STRING, table.lookup("b"));
+		assertEquals(1, table.lookup("a"));
+		assertEquals(2, table.lookup("b"));
+		assertEquals("a", table.get(1));
+		assertEquals("b", table.get(2));
+		assertEquals(2, table.size());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void getUnknownIdThrows()
+	{
+		StringTable table = new StringTable(4);
+		table.lookup("a");
+		table.get(2);
+	}
+	
+	@Test
+	public void fullTableEvictsLeastRecentlyUsed()
+	{
+		StringTable table = new StringTable(2);
+		table.lookup("a");
+		table.lookup("b");
+		//a is now the most recently used so b is evicted and c takes it's id
+		table.lookup("a");
+		assertEquals(StringTable.NEW_STRING, table.lookup("c"));
+		assertEquals(2, table.size());
+		assertEquals("c", table.get(2));
+		assertEquals(1, table.lookup("a"));
+		assertEquals(StringTable.NEW_STRING, table.lookup("b"));
+		//c was the least recently used
+		assertEquals("b", table.get(2));
+	}
+	
+	@Test
+	public void getMarksStringAsUsed()
+	{
+		StringTable table = new StringTable(2);
+		table.lookup("a");
+		table.lookup("b");
+		table.get(1);
+		table.lookup("c");
+		assertEquals("a", table.get(1));
+		assertEquals("c", table.get(2));
+	}
+	
+	@Test
+	public void rollbackRestoresIdsAndOrder()
+	{
+		StringTable table = new StringTable(3);
+		StringTable expected = new StringTable(3);
+		for(String s : new String[]{"a", "b", "c", "a"})
+		{
+			table.lookup(s);
+			expected.lookup(s);
+		}
+		int mark = table.mark();
+		table.lookup("d");
+		table.lookup("b");
+		table.lookup("e");
+		table.get(1);
+		table.rollback(mark);
+		assertSameTable(expected, table);
+	}
+	
+	@Test
+	public void commitKeepsChanges()
+	{
+		StringTable table = new StringTable(3);
+		StringTable expected = new StringTable(3);
+		table.lookup("a");
+		expected.lookup("a");
+		int mark = table.mark();
+		for(String s : new String[]{"b", "c", "d", "a"})
+		{
+			table.lookup(s);
+			expected.lookup(s);
+		}
+		table.commit(mark);
+		assertSameTable(expected, table);
+	}
+	
+	@Test
+	public void outerRollbackUndoesCommittedInnerMark()
+	{
+		StringTable table = new StringTable(2);
+		StringTable expected = new StringTable(2);
+		table.lookup("a");
+		expected.lookup("a");
+		int outer = table.mark();
+		table.lookup("b");
+		int inner = table.mark();
+		table.lookup("c");
+		table.commit(inner);
+		table.lookup("a");
+		table.rollback(outer);
+		assertSameTable(expected, table);
+	}
+	
+	@Test
+	public void innerRollbackKeepsOuterChanges()
+	{
+		StringTable table = new StringTable(2);
+		StringTable expected = new StringTable(2);
+		table.lookup("a");
+		expected.lookup("a");
+		int outer = table.mark();
+		table.lookup("b");
+		expected.lookup("b");
+		int inner = table.mark();
+		table.lookup("c");
+		table.lookup("a");
+		table.rollback(inner);
+		table.lookup("d");
+		expected.lookup("d");
+		table.commit(outer);
+		assertSameTable(expected, table);
+	}
+	
+	/**
+	 * Asserts the specified tables have the same strings with the same ids and evict them in the same order,
+	 * both tables are changed by the same lookups.
+	 */
+	private static void assertSameTable(StringTable expected, StringTable actual)
+	{
+		assertEquals(expected.size(), actual.size());
+		for(int id = 1; id <= expected.size(); id++)
+		{
+			assertEquals(expected.get(id), actual.get(id));
+		}
+		//every probe may evict a string, the same string must be evicted from both tables
+		for(String probe : PROBES)
+		{
+			assertEquals(expected.lookup(probe), actual.lookup(probe));
+		}
+		for(String probe : PROBES)
+		{
+			assertEquals(expected.lookup(probe), actual.lookup(probe));
+		}
+	}
+}
\ No newline at end of file
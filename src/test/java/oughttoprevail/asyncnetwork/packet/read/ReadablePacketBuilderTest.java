@@ -0,0 +1,171 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.read;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import oughttoprevail.asyncnetwork.client.ClientSocket;
+import oughttoprevail.asyncnetwork.packet.write.WritablePacket;
+import oughttoprevail.asyncnetwork.packet.write.WritablePacketBuilder;
+import oughttoprevail.asyncnetwork.util.Util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Writes packets built by {@link WritablePacketBuilder} from a plain socket and reads them with
+ * {@link ReadablePacketBuilder} from a {@link ClientSocket}.
+ */
+public class ReadablePacketBuilderTest
+{
+	private ServerSocket server;
+	private ClientSocket client;
+	private Socket peer;
+	
+	@Before
+	public void connect() throws IOException
+	{
+		server = new ServerSocket(0);
+		client = new ClientSocket();
+		client.connectLocalHost(server.getLocalPort());
+		peer = server.accept();
+	}
+	
+	@After
+	public void close() throws IOException
+	{
+		client.close();
+		peer.close();
+		server.close();
+	}
+	
+	@Test(timeout = 20000)
+	public void varIntsRoundTripAtBoundaries() throws Exception
+	{
+		int[] ints = {0, 127, 128, 16383, 16384, (1 << 21) - 1, 1 << 21, (1 << 28) - 1, 1 << 28, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+		long[] longs = {0, 127, 128, (1L << 35) - 1, 1L << 35, (1L << 56) - 1, 1L << 56, (1L << 63) - 1, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+		WritablePacketBuilder builder = WritablePacketBuilder.create();
+		ReadablePacketBuilder readable = ReadablePacketBuilder.create();
+		for(int i : ints)
+		{
+			builder.putVarInt(i).putZigZagInt(i);
+			readable.aVarInt().aZigZagInt();
+		}
+		for(long l : longs)
+		{
+			builder.putVarLong(l).putZigZagLong(l);
+			readable.aVarLong().aZigZagLong();
+		}
+		ReadResult readResult = roundTrip(builder, readable.build());
+		for(int i : ints)
+		{
+			assertEquals(i, (int) readResult.poll());
+			assertEquals(i, (int) readResult.poll());
+		}
+		for(long l : longs)
+		{
+			assertEquals(l, (long) readResult.poll());
+			assertEquals(l, (long) readResult.poll());
+		}
+		assertFalse(readResult.hasNext());
+	}
+	
+	@Test(timeout = 20000)
+	public void bitsRoundTripAcrossBytes() throws Exception
+	{
+		WritablePacketBuilder builder = WritablePacketBuilder.create()
+				.putBits(0b101, 3)
+				.putBits(0x1ABC, 13)
+				.putBit(true)
+				.putBits(0x7F, 7)
+				.putBits(0x1_2345_6789L, 33)
+				.putBits(0x8000_0000_0000_0001L, 64)
+				.putInt(42)
+				.putBits(0b10110, 5)
+				.putQuantizedFloat(0.5f, 0, 1, 10);
+		ReadablePacket readable = ReadablePacketBuilder.create()
+				.aBits(3)
+				.aBits(13)
+				.aBit()
+				.aBits(7)
+				.aLongBits(33)
+				.aLongBits(64)
+				.aInt()
+				.aBits(5)
+				.aQuantizedFloat(0, 1, 10)
+				.build();
+		ReadResult readResult = roundTrip(builder, readable);
+		assertEquals(0b101, (int) readResult.poll());
+		assertEquals(0x1ABC, (int) readResult.poll());
+		assertEquals(true, readResult.poll());
+		assertEquals(0x7F, (int) readResult.poll());
+		assertEquals(0x1_2345_6789L, (long) readResult.poll());
+		assertEquals(0x8000_0000_0000_0001L, (long) readResult.poll());
+		assertEquals(42, (int) readResult.poll());
+		assertEquals(0b10110, (int) readResult.poll());
+		assertEquals(0.5f, (float) readResult.poll(), 1f / 1023);
+		assertFalse(readResult.hasNext());
+	}
+	
+	@Test(timeout = 20000)
+	public void stringsRoundTripWithSurrogates() throws Exception
+	{
+		String[] strings = {"", "ascii", "caf\u00e9", "\u20ac\u4e2d", "\ud83d\ude00", "lone \ud800", "\ude00\ud83d"};
+		WritablePacketBuilder builder = WritablePacketBuilder.create();
+		ReadablePacketBuilder readable = ReadablePacketBuilder.create();
+		for(String s : strings)
+		{
+			builder.putVarIntString(s).putString(s);
+			readable.aString(PassedNumber.VARINT).aString();
+		}
+		ReadResult readResult = roundTrip(builder, readable.build());
+		for(String s : strings)
+		{
+			//unpaired surrogates are encoded as '?' just like String#getBytes
+			String expected = new String(s.getBytes(Util.UTF_8), Util.UTF_8);
+			assertEquals(expected, readResult.poll());
+			assertEquals(expected, readResult.poll());
+		}
+		assertFalse(readResult.hasNext());
+	}
+	
+	/**
+	 * Writes the packet of the specified builder to the client and reads it with the specified readable.
+	 */
+	private ReadResult roundTrip(WritablePacketBuilder builder, ReadablePacket readable) throws Exception
+	{
+		WritablePacket packet = builder.build();
+		ByteBuffer byteBuffer = packet.getByteBuffer().duplicate();
+		byteBuffer.flip();
+		byte[] bytes = new byte[byteBuffer.remaining()];
+		byteBuffer.get(bytes);
+		packet.close();
+		
+		CompletableFuture<ReadResult> result = new CompletableFuture<>();
+		readable.read(client, result::complete);
+		peer.getOutputStream().write(bytes);
+		return result.get(10, TimeUnit.SECONDS);
+	}
+}
\ No newline at end of file
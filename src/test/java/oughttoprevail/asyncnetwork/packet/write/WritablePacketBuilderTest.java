@@ -0,0 +1,110 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.packet.write;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class WritablePacketBuilderTest
+{
+	@Test
+	public void bitsArePackedAcrossBytesLowestBitFirst()
+	{
+		for(WritablePacketBuilder builder : builders())
+		{
+			//3 bits then 10 bits crossing into the second byte, padded with zeros
+			builder.putBits(0b101, 3).putBits(0b11_1111_1111, 10);
+			assertEquals(2, builder.size());
+			assertArrayEquals(new byte[]{(byte) 0b1111_1101, 0b1_1111}, bytes(builder));
+		}
+	}
+	
+	@Test
+	public void alignedElementStartsAtNextByte()
+	{
+		for(WritablePacketBuilder builder : builders())
+		{
+			builder.putBit(true).putByte(0x7F).putBits(0b10, 2).putBits(0b1, 6);
+			assertArrayEquals(new byte[]{1, 0x7F, 0b110}, bytes(builder));
+		}
+	}
+	
+	@Test
+	public void bitsWiderThanAnIntKeepEveryBit()
+	{
+		for(WritablePacketBuilder builder : builders())
+		{
+			builder.putBits(1, 1).putBits(-1L, 64).putBits(0x1_2345_6789L, 33);
+			assertEquals(13, builder.size());
+			ByteBuffer byteBuffer = ByteBuffer.wrap(bytes(builder));
+			long low = 0;
+			for(int i = 0; i < 8; i++)
+			{
+				low |= (byteBuffer.get() & 0xFFL) << (i * 8);
+			}
+			//the first bit and the lowest 63 bits of -1
+			assertEquals(-1L, low);
+			long high = 0;
+			for(int i = 0; i < 5; i++)
+			{
+				high |= (byteBuffer.get() & 0xFFL) << (i * 8);
+			}
+			//the highest bit of -1 then the 33 bits
+			assertEquals(1 | 0x1_2345_6789L << 1, high);
+		}
+	}
+	
+	@Test
+	public void varIntsMatchTheirSize()
+	{
+		for(WritablePacketBuilder builder : builders())
+		{
+			builder.putVarInt(127).putVarInt(128).putVarInt(-1).putVarLong(-1L).putZigZagInt(-1);
+			assertArrayEquals(new byte[]{
+					0x7F,
+					(byte) 0x80, 1,
+					(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F,
+					(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+					(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 1,
+					1}, bytes(builder));
+		}
+	}
+	
+	private static WritablePacketBuilder[] builders()
+	{
+		return new WritablePacketBuilder[]{WritablePacketBuilder.create(), WritablePacketBuilder.direct()};
+	}
+	
+	/**
+	 * Builds the specified builder and returns the bytes of the packet, asserting they match the builder's size.
+	 */
+	private static byte[] bytes(WritablePacketBuilder builder)
+	{
+		int size = builder.size();
+		WritablePacket packet = builder.build();
+		ByteBuffer byteBuffer = packet.getByteBuffer().duplicate();
+		byteBuffer.flip();
+		byte[] bytes = new byte[byteBuffer.remaining()];
+		byteBuffer.get(bytes);
+		packet.close();
+		assertEquals(size, bytes.length);
+		return bytes;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Utf8Test
+{
+	private static final String[] STRINGS = {
+			"",
+			"plain ascii",
+			"caf\u00e9",
+			"\u20ac and \u4e2d\u6587",
+			"emoji \ud83d\ude00 pair",
+			"\ud83d\ude00\ud83d\ude01",
+			//unpaired surrogates
+			"high \ud800 alone",
+			"low \udc00 alone",
+			"ends with high \ud83d",
+			"\udc00",
+			"reversed \ude00\ud83d pair",
+			"\ud83d\ud83d\ude00",
+			"\u007f\u0080\u07ff\u0800\uffff"
+	};
+	
+	@Test
+	public void lengthMatchesStringBytes()
+	{
+		for(String s : STRINGS)
+		{
+			assertEquals(s, s.getBytes(Util.UTF_8).length, Utf8.length(s));
+		}
+	}
+	
+	@Test
+	public void putMatchesStringBytes()
+	{
+		for(String s : STRINGS)
+		{
+			byte[] expected = s.getBytes(Util.UTF_8);
+			assertArrayEquals(s, expected, put(s, ByteBuffer.allocate(Utf8.length(s))));
+			assertArrayEquals(s, expected, put(s, ByteBuffer.allocateDirect(Utf8.length(s))));
+		}
+	}
+	
+	@Test
+	public void getDecodesPutBytes()
+	{
+		for(String s : STRINGS)
+		{
+			int length = Utf8.length(s);
+			String expected = new String(s.getBytes(Util.UTF_8), Util.UTF_8);
+			ByteBuffer heap = ByteBuffer.allocate(length + 2);
+			heap.put((byte) 1);
+			Utf8.put(heap, s);
+			heap.flip();
+			heap.get();
+			assertEquals(expected, Utf8.get(heap, length));
+			assertEquals(length + 1, heap.position());
+			
+			ByteBuffer direct = ByteBuffer.allocateDirect(length);
+			Utf8.put(direct, s);
+			direct.flip();
+			assertEquals(expected, Utf8.get(direct, length));
+			assertEquals(length, direct.position());
+		}
+	}
+	
+	@Test
+	public void getDecodesStringsBiggerThanScratch()
+	{
+		StringBuilder builder = new StringBuilder();
+		while(builder.length() < 100000)
+		{
+			builder.append("caf\u00e9 \ud83d\ude00 ");
+		}
+		String s = builder.toString();
+		ByteBuffer byteBuffer = ByteBuffer.allocateDirect(Utf8.length(s));
+		Utf8.put(byteBuffer, s);
+		byteBuffer.flip();
+		assertEquals(s, Utf8.get(byteBuffer, byteBuffer.remaining()));
+	}
+	
+	private static byte[] put(String s, ByteBuffer byteBuffer)
+	{
+		Utf8.put(byteBuffer, s);
+		assertEquals(s, 0, byteBuffer.remaining());
+		byteBuffer.flip();
+		byte[] bytes = new byte[byteBuffer.remaining()];
+		byteBuffer.get(bytes);
+		return bytes;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class VarIntTest
+{
+	/**
+	 * Values around every boundary where a varint takes another byte.
+	 */
+	private static long[] boundaries()
+	{
+		long[] values = new long[Long.SIZE / 7 * 2 + 7];
+		int i = 0;
+		for(int bits = 7; bits < Long.SIZE; bits += 7)
+		{
+			values[i++] = (1L << bits) - 1;
+			values[i++] = 1L << bits;
+		}
+		values[i++] = 0;
+		values[i++] = 1;
+		values[i++] = Long.MAX_VALUE;
+		values[i++] = -1;
+		values[i++] = Long.MIN_VALUE;
+		values[i++] = Integer.MAX_VALUE;
+		values[i++] = Integer.MIN_VALUE;
+		return Arrays.copyOf(values, i);
+	}
+	
+	@Test
+	public void varLongRoundTripsAtBoundaries()
+	{
+		ByteBuffer byteBuffer = ByteBuffer.allocate(Util.MAX_VAR_LONG_BYTES);
+		for(long value : boundaries())
+		{
+			byteBuffer.clear();
+			Util.putVarLong(byteBuffer, value);
+			assertEquals(String.valueOf(value), Util.varLongSize(value), byteBuffer.position());
+			byteBuffer.flip();
+			assertEquals(value, Util.getVarLong(byteBuffer, Util.MAX_VAR_LONG_BYTES));
+			assertEquals(0, byteBuffer.remaining());
+		}
+	}
+	
+	@Test
+	public void varLongSizes()
+	{
+		assertEquals(1, Util.varLongSize(0));
+		assertEquals(1, Util.varLongSize(127));
+		assertEquals(2, Util.varLongSize(128));
+		assertEquals(2, Util.varLongSize(16383));
+		assertEquals(3, Util.varLongSize(16384));
+		assertEquals(Util.MAX_VAR_INT_BYTES, Util.varLongSize(0xFFFFFFFFL));
+		assertEquals(Util.MAX_VAR_LONG_BYTES, Util.varLongSize(-1));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void varLongLongerThanMaxBytesThrows()
+	{
+		ByteBuffer byteBuffer = ByteBuffer.allocate(Util.MAX_VAR_LONG_BYTES);
+		Util.putVarLong(byteBuffer, 1L << 35);
+		byteBuffer.flip();
+		Util.getVarLong(byteBuffer, Util.MAX_VAR_INT_BYTES);
+	}
+	
+	@Test
+	public void zigZagRoundTrips()
+	{
+		for(long value : boundaries())
+		{
+			assertEquals(value, Util.decodeZigZag(Util.encodeZigZag(value)));
+			int intValue = (int) value;
+			assertEquals(intValue, Util.decodeZigZag(Util.encodeZigZag(intValue)));
+		}
+		//small negative values stay small
+		assertEquals(1, Util.encodeZigZag(-1));
+		assertEquals(2, Util.encodeZigZag(1));
+		assertEquals(1L, Util.encodeZigZag(-1L));
+		assertEquals(-1, Util.encodeZigZag(Integer.MIN_VALUE));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+/*
+Copyright 2019 https://github.com/OughtToPrevail
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package oughttoprevail.asyncnetwork.util.timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashedWheelTimerTest
+{
+	/**
+	 * The time returned by the timer's clock, only advanced by the tests.
+	 */
+	private long now;
+	
+	private HashedWheelTimer newTimer()
+	{
+		return new HashedWheelTimer(1, TimeUnit.MILLISECONDS, 8, Throwable::printStackTrace, () -> now);
+	}
+	
+	private void advance(long millis)
+	{
+		now += TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+	
+	@Test
+	public void cancelFromTaskInSameTickIsCountedOnce()
+	{
+		HashedWheelTimer timer = newTimer();
+		Timeout[] cancelled = new Timeout[1];
+		AtomicBoolean cancelledRan = new AtomicBoolean();
+		//both timeouts land in the same bucket, the first one cancels the second during the same expire pass
+		timer.schedule(() -> cancelled[0].cancel(), 5, TimeUnit.MILLISECONDS);
+		cancelled[0] = timer.schedule(() -> cancelledRan.set(true), 5, TimeUnit.MILLISECONDS);
+		Timeout later = timer.schedule(() ->
+		{
+		}, 40, TimeUnit.MILLISECONDS);
+		
+		advance(15);
+		timer.expire();
+		timer.expire();
+		assertFalse(cancelledRan.get());
+		assertEquals(1, timer.size());
+		
+		advance(40);
+		timer.expire();
+		assertTrue(later.isExpired());
+		assertEquals(0, timer.size());
+	}
+	
+	@Test
+	public void timeoutExpiresOnlyOnceItsDeadlineHasPassed()
+	{
+		HashedWheelTimer timer = newTimer();
+		AtomicBoolean ran = new AtomicBoolean();
+		timer.schedule(() -> ran.set(true), 5, TimeUnit.MILLISECONDS);
+		
+		advance(5);
+		timer.expire();
+		assertFalse(ran.get());
+		
+		advance(1);
+		timer.expire();
+		assertTrue(ran.get());
+		assertEquals(0, timer.size());
+	}
+	
+	@Test
+	public void timeoutLongerThanARotationWaitsForItsRound()
+	{
+		HashedWheelTimer timer = newTimer();
+		AtomicBoolean ran = new AtomicBoolean();
+		//the wheel has 8 ticks of 1 millisecond so this timeout goes around the wheel twice before expiring
+		timer.schedule(() -> ran.set(true), 20, TimeUnit.MILLISECONDS);
+		
+		for(int i = 0; i < 20; i++)
+		{
+			advance(1);
+			timer.expire();
+			assertFalse(ran.get());
+		}
+		
+		advance(1);
+		timer.expire();
+		assertTrue(ran.get());
+	}
+}
\ No newline at end of file